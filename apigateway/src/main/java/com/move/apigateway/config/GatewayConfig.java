@@ -10,7 +10,9 @@ public class GatewayConfig {
 
     @LoadBalanced
     @Bean
-    public RestTemplate loadBalancedRestTemplate() {
-        return new RestTemplate();
+    public RestTemplate loadBalancedRestTemplate(IdentityPropagationInitializer identityPropagationInitializer) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getClientHttpRequestInitializers().add(identityPropagationInitializer);
+        return restTemplate;
     }
 }
\ No newline at end of file
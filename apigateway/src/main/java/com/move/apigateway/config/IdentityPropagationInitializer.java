@@ -0,0 +1,32 @@
+package com.move.apigateway.config;
+
+import com.move.security.IdentityHeaderSigner;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInitializer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Ajoute aux appels vers les services l'en-tête d'identité signé par le filtre JWT de la requête courante.
+ * Un en-tête fourni par le client n'est jamais relayé.
+ * <p>
+ * Initializer plutôt qu'intercepteur : les en-têtes sont posés à la création de la requête,
+ * sans que le RestTemplate ait à bufferiser le corps (uploads).
+ */
+@Component
+public class IdentityPropagationInitializer implements ClientHttpRequestInitializer {
+
+    @Override
+    public void initialize(ClientHttpRequest request) {
+        request.getHeaders().remove(IdentityHeaderSigner.HEADER);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object identity = attributes.getAttribute(IdentityHeaderSigner.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (identity != null) {
+                request.getHeaders().set(IdentityHeaderSigner.HEADER, identity.toString());
+            }
+        }
+    }
+}
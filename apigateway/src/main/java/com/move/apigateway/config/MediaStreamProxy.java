@@ -0,0 +1,108 @@
+package com.move.apigateway.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Proxy des fichiers média qui recopie le corps de la réponse du content-service
+ * directement dans la réponse servlet, par blocs de taille fixe.
+ * Contrairement à ProxyExchange&lt;byte[]&gt;, le fichier n'est jamais chargé entièrement en mémoire :
+ * un seul buffer par requête.
+ */
+@Component
+public class MediaStreamProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStreamProxy.class);
+
+    // En-têtes de requête transmis au content-service (range et requêtes conditionnelles)
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(
+            HttpHeaders.AUTHORIZATION,
+            HttpHeaders.ACCEPT,
+            HttpHeaders.RANGE,
+            HttpHeaders.IF_RANGE,
+            HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE
+    );
+
+    // En-têtes de réponse renvoyés au client
+    private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.CONTENT_DISPOSITION,
+            HttpHeaders.ACCEPT_RANGES,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL
+    );
+
+    private final RestTemplate restTemplate;
+
+    @Value("${media.proxy.buffer-size:65536}")
+    private int bufferSize;
+
+    public MediaStreamProxy(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Relaie un GET vers l'URL donnée en streamant le corps de la réponse vers le client
+     */
+    public void stream(String url, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            restTemplate.execute(url, HttpMethod.GET,
+                    upstreamRequest -> FORWARDED_REQUEST_HEADERS.forEach(name -> {
+                        String value = request.getHeader(name);
+                        if (value != null) {
+                            upstreamRequest.getHeaders().set(name, value);
+                        }
+                    }),
+                    upstreamResponse -> {
+                        response.setStatus(upstreamResponse.getStatusCode().value());
+                        copyHeaders(upstreamResponse.getHeaders(), response);
+
+                        try (InputStream in = upstreamResponse.getBody()) {
+                            OutputStream out = response.getOutputStream();
+                            byte[] buffer = new byte[bufferSize];
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                out.write(buffer, 0, read);
+                            }
+                            out.flush();
+                        }
+                        return null;
+                    });
+        } catch (HttpStatusCodeException e) {
+            // 404, 416... : on relaie le statut et le (petit) corps d'erreur tel quel
+            log.debug("Media proxy {} returned {}", url, e.getStatusCode());
+            response.setStatus(e.getStatusCode().value());
+            if (e.getResponseHeaders() != null) {
+                copyHeaders(e.getResponseHeaders(), response);
+            }
+            StreamUtils.copy(e.getResponseBodyAsByteArray(), response.getOutputStream());
+        }
+    }
+
+    private void copyHeaders(HttpHeaders headers, HttpServletResponse response) {
+        FORWARDED_RESPONSE_HEADERS.forEach(name -> {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                response.setHeader(name, value);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.move.apigateway.config;
+
+import com.move.security.IdentityHeaderSigner;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * Relais de l'upload en flux vers le content-service : le corps multipart brut de la requête
+ * est recopié tel quel (boundary compris) vers l'instance choisie, sans être analysé ni mis en tampon.
+ * Le RestTemplate @LoadBalanced n'est pas utilisé ici car ses intercepteurs bufferisent le corps.
+ */
+@Component
+public class MediaUploadStreamProxy {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaUploadStreamProxy.class);
+
+    private static final String CONTENT_SERVICE_ID = "CONTENT-SERVICE";
+
+    // Marge pour les champs de formulaire et les en-têtes multipart autour du fichier
+    private static final long MULTIPART_OVERHEAD = 32 * 1024;
+
+    private final LoadBalancerClient loadBalancerClient;
+    private final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+
+    @Value("${media.proxy.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${media.upload.stream.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    public MediaUploadStreamProxy(LoadBalancerClient loadBalancerClient) {
+        this.loadBalancerClient = loadBalancerClient;
+    }
+
+    /**
+     * Transmet la requête POST vers le chemin donné du content-service en streamant le corps
+     */
+    public void forward(String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long declaredLength = request.getContentLengthLong();
+        if (declaredLength > maxFileSize.toBytes() + MULTIPART_OVERHEAD) {
+            // Inutile de transférer un corps qui sera refusé
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+
+        ServiceInstance instance = loadBalancerClient.choose(CONTENT_SERVICE_ID);
+        if (instance == null) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        String query = request.getQueryString() != null ? "?" + request.getQueryString() : "";
+        URI uri = loadBalancerClient.reconstructURI(instance, URI.create("http://" + CONTENT_SERVICE_ID + path + query));
+
+        ClientHttpRequest upstream = requestFactory.createRequest(uri, HttpMethod.POST);
+        HttpHeaders headers = upstream.getHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, request.getContentType());
+        copyHeader(request, headers, HttpHeaders.AUTHORIZATION);
+        copyHeader(request, headers, HttpHeaders.ACCEPT);
+        Object identity = request.getAttribute(IdentityHeaderSigner.REQUEST_ATTRIBUTE);
+        if (identity != null) {
+            headers.set(IdentityHeaderSigner.HEADER, identity.toString());
+        }
+        if (declaredLength >= 0) {
+            headers.setContentLength(declaredLength);
+        }
+
+        long start = System.nanoTime();
+        ((StreamingHttpOutputMessage) upstream).setBody(out -> copy(request.getInputStream(), out));
+
+        try (ClientHttpResponse upstreamResponse = upstream.execute()) {
+            response.setStatus(upstreamResponse.getStatusCode().value());
+            String contentType = upstreamResponse.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            try (InputStream body = upstreamResponse.getBody()) {
+                StreamUtils.copy(body, response.getOutputStream());
+            }
+        }
+
+        log.debug("Upload stream {} -> {} : {} octets en {} ms", path, uri, declaredLength,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+
+    private void copyHeader(HttpServletRequest request, HttpHeaders headers, String name) {
+        String value = request.getHeader(name);
+        if (value != null) {
+            headers.set(name, value);
+        }
+    }
+}
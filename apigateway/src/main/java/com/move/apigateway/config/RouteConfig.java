@@ -1,12 +1,15 @@
 package com.move.apigateway.config;
 
+import com.move.contentservice.config.StreamingMultipartConfig;
 import com.move.contentservice.dto.ContentDTO;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.mvc.ProxyExchange;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.LinkedMultiValueMap;
@@ -25,6 +28,8 @@ import java.util.Map;
 
 @Configuration
 @RestController
+// MultipartResolver partagé avec le content-service : le corps de l'upload en flux est relayé intact
+@Import(StreamingMultipartConfig.class)
 public class RouteConfig {
 
     private static final Logger log = LoggerFactory.getLogger(RouteConfig.class);
@@ -296,9 +301,14 @@ public class RouteConfig {
 
     private final String contentServiceUrl = "lb://CONTENT-SERVICE";
     private final RestTemplate restTemplate;
+    private final MediaStreamProxy mediaStreamProxy;
+    private final MediaUploadStreamProxy mediaUploadStreamProxy;
 
-    public RouteConfig(RestTemplate restTemplate) {
+    public RouteConfig(RestTemplate restTemplate, MediaStreamProxy mediaStreamProxy,
+                       MediaUploadStreamProxy mediaUploadStreamProxy) {
         this.restTemplate = restTemplate;
+        this.mediaStreamProxy = mediaStreamProxy;
+        this.mediaUploadStreamProxy = mediaUploadStreamProxy;
     }
 
     // CONTENT routes - updated according to ContentController.java
@@ -1097,6 +1107,12 @@ public class RouteConfig {
                 .delete();
     }
 
+    // Upload en flux : le corps multipart brut est relayé sans être analysé par la gateway
+    @PostMapping(StreamingMultipartConfig.STREAM_UPLOAD_PATH)
+    public void uploadMediaStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        mediaUploadStreamProxy.forward(StreamingMultipartConfig.STREAM_UPLOAD_PATH, request, response);
+    }
+
     // Specific media upload endpoints
     // Méthode helper pour l'upload multipart
     @PostMapping("/api/media/upload/cover")
@@ -1223,14 +1239,11 @@ public class RouteConfig {
                 .put();
     }
     @GetMapping("/api/media/file/{mediaId}")
-    public ResponseEntity<?> getFileByMediaId(ProxyExchange<byte[]> proxy,
-                                              @PathVariable String mediaId,
-                                              @RequestHeader(value = "Authorization", required = false) String authorization) {
-        log.debug("Proxying media file request for media ID: {}", mediaId);
-        return proxy
-                .header("Authorization", authorization)
-                .uri(contentServiceUrl + "/api/media/file/" + mediaId)
-                .get();
+    public void getFileByMediaId(@PathVariable String mediaId,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        log.debug("Streaming media file request for media ID: {}", mediaId);
+        mediaStreamProxy.stream(contentServiceUrl + "/api/media/file/" + mediaId, request, response);
     }
     // Add these methods to RouteConfig.java
 
@@ -1245,24 +1258,18 @@ public class RouteConfig {
                 .get();
     }
     @GetMapping("/media/file/{mediaId}")
-    public ResponseEntity<?> getFileByMediaId(ProxyExchange<byte[]> proxy,
-                                              @PathVariable String mediaId,
-                                              HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        return proxy.uri("lb://CONTENT-SERVICE/api/media/file/" + mediaId)
-                .header("Authorization", token)
-                .get();
+    public void getLegacyFileByMediaId(@PathVariable String mediaId,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        mediaStreamProxy.stream(contentServiceUrl + "/api/media/file/" + mediaId, request, response);
     }
     @GetMapping("/api/media/files/{contentId}/{fileName:.+}")
-    public ResponseEntity<?> getFileByContentIdAndName(ProxyExchange<byte[]> proxy,
-                                                       @PathVariable String contentId,
-                                                       @PathVariable String fileName,
-                                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
-        log.debug("Proxying media file request for contentId: {} and fileName: {}", contentId, fileName);
-        return proxy
-                .header("Authorization", authorization)
-                .uri(contentServiceUrl + "/api/media/files/" + contentId + "/" + fileName)
-                .get();
+    public void getFileByContentIdAndName(@PathVariable String contentId,
+                                          @PathVariable String fileName,
+                                          HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
+        log.debug("Streaming media file request for contentId: {} and fileName: {}", contentId, fileName);
+        mediaStreamProxy.stream(contentServiceUrl + "/api/media/files/" + contentId + "/" + fileName, request, response);
     }
     @DeleteMapping("/api/media/{mediaId}")
     public ResponseEntity<?> deleteMedia(ProxyExchange<byte[]> proxy,
@@ -1275,14 +1282,11 @@ public class RouteConfig {
                 .delete();
     }
     @GetMapping("/api/media/files/{fileName:.+}")
-    public ResponseEntity<?> getMediaFile(ProxyExchange<byte[]> proxy,
-                                          @PathVariable String fileName,
-                                          @RequestHeader(value = "Authorization", required = false) String authorization) {
-        log.debug("Proxying media file request for: {}", fileName);
-        return proxy
-                .header("Authorization", authorization)
-                .uri(contentServiceUrl + "/api/media/files/" + fileName)
-                .get();
+    public void getMediaFile(@PathVariable String fileName,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        log.debug("Streaming media file request for: {}", fileName);
+        mediaStreamProxy.stream(contentServiceUrl + "/api/media/files/" + fileName, request, response);
     }
     @GetMapping("/api/media/photo/{id}")
     public ResponseEntity<?> getPhoto(ProxyExchange<byte[]> proxy,
@@ -1,9 +1,8 @@
 package com.move.apigateway.security;
 
+import com.move.security.IdentityHeaderSigner;
+import com.move.security.JwtTokenVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,7 +19,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.security.Key;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -32,12 +30,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final IdentityHeaderSigner identityHeaderSigner;
 
     @Value("#{'${auth.public-endpoints}'.split(',')}")
     private List<String> publicEndpoints;
 
+    public JwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier, IdentityHeaderSigner identityHeaderSigner) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.identityHeaderSigner = identityHeaderSigner;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -122,6 +125,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             request.setAttribute("username", username);
             request.setAttribute("roles", String.join(",", authorities));
 
+            // Identité signée relayée aux services : ils n'ont pas à re-valider le JWT
+            // (pas d'en-tête sans username : les services valident alors le JWT eux-mêmes)
+            long tokenExpiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            String identityHeader = identityHeaderSigner.sign(userId, username, authorities, tokenExpiresAt);
+            if (identityHeader != null) {
+                request.setAttribute(IdentityHeaderSigner.REQUEST_ATTRIBUTE, identityHeader);
+            }
+
             // CORRECTION: Ajouter ces informations en tant que headers pour forwarding
             response.setHeader("X-User-Id", userId);
             response.setHeader("X-Username", username);
@@ -136,21 +147,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     private Claims validateToken(String token) {
         try {
-            byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-
-            if (keyBytes.length < 32) {
-                byte[] paddedKey = new byte[32];
-                System.arraycopy(keyBytes, 0, paddedKey, 0, Math.min(keyBytes.length, 32));
-                keyBytes = paddedKey;
-            }
-
-            Key key = Keys.hmacShaKeyFor(keyBytes);
-
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            // Clé et parser construits une seule fois ; tokens récents servis depuis le cache
+            Claims claims = jwtTokenVerifier.verify(token);
 
             if (claims.getExpiration().before(new Date())) {
                 logger.warn("JWT token is expired");
@@ -0,0 +1,27 @@
+package com.move.apigateway.security;
+
+import com.move.security.IdentityHeaderSigner;
+import com.move.security.JwtTokenVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans de vérification fournis par le module security-common
+ */
+@Configuration
+public class TokenVerificationConfig {
+
+    @Bean
+    public JwtTokenVerifier jwtTokenVerifier(@Value("${jwt.secret}") String jwtSecret,
+                                             @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        return new JwtTokenVerifier(jwtSecret, maxSize);
+    }
+
+    @Bean
+    public IdentityHeaderSigner identityHeaderSigner(@Value("${gateway.identity.enabled:true}") boolean enabled,
+                                                     @Value("${gateway.identity.secret}") String secret,
+                                                     @Value("${gateway.identity.ttl-seconds:60}") long ttlSeconds) {
+        return new IdentityHeaderSigner(enabled, secret, ttlSeconds);
+    }
+}
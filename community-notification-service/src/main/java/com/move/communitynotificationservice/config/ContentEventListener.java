@@ -1,58 +1,125 @@
 package com.move.communitynotificationservice.config;
 
-import com.move.communitynotificationservice.model.ContentMeta;
-import com.move.communitynotificationservice.repository.ContentMetaRepository;
+import com.move.communitynotificationservice.service.ContentMetaService;
 import com.move.communitynotificationservice.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 
+/**
+ * Unique consommateur de la file community.content.events.
+ * Chaque événement est aiguillé selon sa clé de routage vers tous ses handlers, isolés les uns des autres :
+ * l'échec de l'un n'empêche pas l'exécution des suivants.
+ * Une erreur de content.updated ou content.deleted remonte au conteneur : le message est rejeté
+ * vers la DLX puis rejoué, pour ne pas perdre la mise à jour de content_meta.
+ * <p>
+ * L'enveloppe ContentEvent porte id, userId, title et sequence : aucun appel à CONTENT-SERVICE n'est nécessaire.
+ */
 @Component
 public class ContentEventListener {
 
-    private final ContentMetaRepository contentMetaRepository;
-    private final NotificationService notificationService;
+    private static final Logger log = LoggerFactory.getLogger(ContentEventListener.class);
 
-    public static final String CONTENT_CREATED_QUEUE = "content.created.queue";
+    private final ContentMetaService contentMetaService;
+    private final NotificationService notificationService;
+    private final EventListeners eventListeners;
 
-    public ContentEventListener(ContentMetaRepository contentMetaRepository,
-                                NotificationService notificationService) {
-        this.contentMetaRepository = contentMetaRepository;
+    public ContentEventListener(ContentMetaService contentMetaService,
+                                NotificationService notificationService,
+                                EventListeners eventListeners) {
+        this.contentMetaService = contentMetaService;
         this.notificationService = notificationService;
+        this.eventListeners = eventListeners;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.CONTENT_EVENTS_QUEUE, containerFactory = "contentEventsContainerFactory")
+    public void handleContentEvent(Map<String, Object> event,
+                                   @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        switch (routingKey) {
+            case RabbitMQConfig.CONTENT_CREATED_ROUTING_KEY -> {
+                // Un content.created redélivré n'est notifié qu'une fois
+                if (handleContentCreated(event)) {
+                    eventListeners.onContentCreated(event);
+                }
+            }
+            case RabbitMQConfig.CONTENT_UPDATED_ROUTING_KEY -> handleContentUpdated(event);
+            case RabbitMQConfig.CONTENT_DELETED_ROUTING_KEY -> handleContentDeleted(event);
+            default -> log.warn("Clé de routage non gérée ignorée: {}", routingKey);
+        }
     }
 
-    @RabbitListener(queues = CONTENT_CREATED_QUEUE)
-    public void handleContentCreated(Map<String, Object> event) {
+    /**
+     * Retourne false si la création a déjà été notifiée.
+     * La séquence ne sert qu'à ordonner la projection : un content.created plus ancien qu'un content.updated
+     * déjà appliqué laisse la projection intacte mais reste notifié.
+     */
+    private boolean handleContentCreated(Map<String, Object> event) {
         try {
-            String contentId = (String) event.get("contentId");
+            String contentId = contentId(event);
             String userId = (String) event.get("userId");
             String title = (String) event.get("title");
 
             if (contentId == null || userId == null) {
                 System.err.println("❌ Champs manquants dans l’événement content.created: " + event);
-                return;
+                return false;
             }
 
-            ContentMeta meta = new ContentMeta();
-            meta.setId(contentId);
-            meta.setUserId(userId);
-            meta.setTitle(title);
+            if (contentMetaService.apply(contentId, userId, title, sequence(event))) {
+                System.out.println("✅ Content metadata saved: " + contentId);
+            }
 
-            contentMetaRepository.save(meta);
-            System.out.println("✅ Content metadata saved: " + meta);
+            if (!contentMetaService.claimCreatedNotification(contentId)) {
+                System.out.println("⏭️ content.created déjà notifié pour: " + contentId);
+                return false;
+            }
 
             // 👇 Envoi de notification automatique
             notificationService.createNotification(
                     userId,
                     "Votre contenu \"" + title + "\" a été bien enregistré !"
             );
+            return true;
 
         } catch (Exception e) {
             System.err.println("❌ Erreur lors du traitement de content.created: " + e.getMessage());
             e.printStackTrace();
+            // La diffusion aux followers reste tentée
+            return true;
         }
     }
 
+    private void handleContentUpdated(Map<String, Object> event) {
+        String contentId = contentId(event);
+        String userId = (String) event.get("userId");
+        if (contentId == null || userId == null) {
+            // Rejouer un événement incomplet n'y changerait rien
+            log.warn("Champs manquants dans l'événement content.updated: {}", event);
+            return;
+        }
+        contentMetaService.apply(contentId, userId, (String) event.get("title"), sequence(event));
+    }
+
+    private void handleContentDeleted(Map<String, Object> event) {
+        String contentId = contentId(event);
+        if (contentId == null) {
+            log.warn("Identifiant manquant dans l'événement content.deleted: {}", event);
+            return;
+        }
+        contentMetaService.delete(contentId, sequence(event));
+    }
+
+    private static String contentId(Map<String, Object> event) {
+        // ContentEvent porte l'identifiant dans "id" ; "contentId" reste accepté
+        Object id = event.get("contentId") != null ? event.get("contentId") : event.get("id");
+        return id != null ? id.toString() : null;
+    }
 
+    private static Long sequence(Map<String, Object> event) {
+        return event.get("sequence") instanceof Number sequence ? sequence.longValue() : null;
+    }
 }
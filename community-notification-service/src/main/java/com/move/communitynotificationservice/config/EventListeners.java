@@ -1,6 +1,9 @@
 package com.move.communitynotificationservice.config;
 
 import com.move.communitynotificationservice.model.Comment;
+import com.move.communitynotificationservice.model.ContentMeta;
+import com.move.communitynotificationservice.service.ContentMetaService;
+import com.move.communitynotificationservice.service.FollowerFanOutService;
 import com.move.communitynotificationservice.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +30,12 @@ public class EventListeners {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private FollowerFanOutService followerFanOutService;
+
+    @Autowired
+    private ContentMetaService contentMetaService;
+
     // ✅ SUPPRIMÉ - Ce listener sera géré par ContentEventListener
     // @RabbitListener(queues = "comment.created")
     // public void onCommentCreated(Comment comment) { ... }
@@ -55,17 +64,22 @@ public class EventListeners {
                 return;
             }
 
-            String contentOwnerId = getContentOwnerId(contentId);
+            // Propriétaire et titre : portés par l'événement, sinon lus dans la projection locale content_meta
+            ContentMeta meta = contentMetaService.find(contentId).orElse(null);
+            String contentOwnerId = firstNonNull(extractString(likeEvent, "contentOwnerId"),
+                    meta != null ? meta.getUserId() : null);
+            if (contentOwnerId == null) {
+                // Contenu antérieur à la projection : repli sur CONTENT-SERVICE
+                contentOwnerId = getContentOwnerId(contentId);
+            }
 
             if (contentOwnerId != null && !contentOwnerId.equals(likerId)) {
-                // Récupérer les informations en parallèle
-                CompletableFuture<String> likerNameFuture = CompletableFuture.supplyAsync(() ->
-                        getUserName(likerId));
-                CompletableFuture<String> contentTitleFuture = CompletableFuture.supplyAsync(() ->
-                        getContentTitle(contentId));
-
-                String likerName = likerNameFuture.join();
-                String contentTitle = contentTitleFuture.join();
+                String contentTitle = firstNonNull(extractString(likeEvent, "contentTitle"),
+                        meta != null ? meta.getTitle() : null);
+                if (contentTitle == null) {
+                    contentTitle = getContentTitle(contentId);
+                }
+                String likerName = getUserName(likerId);
 
                 notificationService.createLikeNotification(
                         contentOwnerId,
@@ -123,24 +137,21 @@ public class EventListeners {
         }
     }
 
-    @RabbitListener(queues = "content.created.queue")
+    // Appelé par ContentEventListener, consommateur unique de la file community.content.events
     public void onContentCreated(Map<String, Object> contentEvent) {
         log.info("Réception d'un événement de contenu créé: {}", contentEvent);
 
-        // Traitement asynchrone
-        CompletableFuture.runAsync(() -> {
-            try {
-                processContentCreated(contentEvent);
-            } catch (Exception e) {
-                log.error("Erreur lors du traitement asynchrone du contenu: {}", e.getMessage(), e);
-            }
-        });
+        // Traité dans le thread du consommateur : la diffusion applique sa propre limite de parallélisme
+        processContentCreated(contentEvent);
     }
 
     private void processContentCreated(Map<String, Object> contentEvent) {
         try {
             String creatorId = extractString(contentEvent, "userId");
             String contentId = extractString(contentEvent, "contentId");
+            if (contentId == null) {
+                contentId = extractString(contentEvent, "id");
+            }
             String contentTitle = extractString(contentEvent, "title");
 
             if (creatorId == null || contentId == null) {
@@ -204,36 +215,11 @@ public class EventListeners {
     private void notifyFollowersOfNewContent(String creatorId, String contentId, String contentTitle) {
         executeWithFallback(
                 () -> {
-                    String url = "http://AUTH-SERVICE/api/users/" + creatorId + "/followers";
-                    String[] followers = restTemplate.getForObject(url, String[].class);
-
-                    if (followers != null && followers.length > 0) {
-                        String creatorName = getUserName(creatorId);
-
-                        // Traitement en parallèle des notifications
-                        CompletableFuture[] futures = new CompletableFuture[followers.length];
-
-                        for (int i = 0; i < followers.length; i++) {
-                            final String followerId = followers[i];
-                            futures[i] = CompletableFuture.runAsync(() -> {
-                                try {
-                                    notificationService.createContentNotification(
-                                            followerId,
-                                            creatorName,
-                                            contentId,
-                                            contentTitle != null ? contentTitle : "Nouveau contenu"
-                                    );
-                                } catch (Exception e) {
-                                    log.error("Erreur lors de la création de notification pour le follower {}: {}", followerId, e.getMessage());
-                                }
-                            });
-                        }
-
-                        // Attendre que toutes les notifications soient envoyées
-                        CompletableFuture.allOf(futures).join();
-
-                        log.info("Notifications de nouveau contenu envoyées à {} followers", followers.length);
-                    } else {
+                    // Pagination des followers, écriture par lots et envoi WebSocket aux seuls connectés
+                    String creatorName = getUserName(creatorId);
+                    int followers = followerFanOutService.notifyFollowers(creatorId, creatorName, contentId,
+                            contentTitle != null ? contentTitle : "Nouveau contenu");
+                    if (followers == 0) {
                         log.debug("Aucun follower trouvé pour le créateur: {}", creatorId);
                     }
                     return null;
@@ -259,6 +245,10 @@ public class EventListeners {
         }
     }
 
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+
     // Méthode utilitaire pour extraire les chaînes des événements
     private String extractString(Map<String, Object> event, String key) {
         Object value = event.get(key);
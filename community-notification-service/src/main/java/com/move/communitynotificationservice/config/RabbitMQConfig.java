@@ -6,6 +6,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,10 +18,11 @@ public class RabbitMQConfig {
     public static final String LIKE_CREATED_QUEUE = "like.created";
     public static final String FOLLOW_CREATED_QUEUE = "follow.created";
 
-    // Noms des queues pour Content Service (si besoin d'écouter)
-    public static final String CONTENT_CREATED_QUEUE = "content.created.queue";
-    public static final String CONTENT_UPDATED_QUEUE = "content.updated.queue";
-    public static final String CONTENT_DELETED_QUEUE = "content.deleted.queue";
+    // File propre au service pour les événements de contenu (chaque service déclare la sienne)
+    public static final String CONTENT_EVENTS_QUEUE = "community.content.events";
+    public static final String CONTENT_CREATED_ROUTING_KEY = "content.created";
+    public static final String CONTENT_UPDATED_ROUTING_KEY = "content.updated";
+    public static final String CONTENT_DELETED_ROUTING_KEY = "content.deleted";
 
     // Nom de l'exchange
     public static final String COMMUNITY_EXCHANGE = "community.exchange";
@@ -52,6 +54,26 @@ public class RabbitMQConfig {
         return factory;
     }
 
+    /**
+     * Conteneur du consommateur content.* : prefetch et concurrence réglés indépendamment
+     * des autres files, la diffusion aux followers étant plus lente que l'indexation
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory contentEventsContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${content.events.consumer.prefetch:1}") int prefetch,
+            @Value("${content.events.consumer.concurrency:1}") int concurrency,
+            @Value("${content.events.consumer.max-concurrency:4}") int maxConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setPrefetchCount(prefetch);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
     // ================== EXCHANGES ==================
     @Bean
     public TopicExchange communityExchange() {
@@ -85,20 +107,12 @@ public class RabbitMQConfig {
                 .build();
     }
 
-    // Queues pour écouter les événements de contenu (optionnel)
+    // Queue des événements de contenu (diffusion aux followers, projection ContentMeta)
     @Bean
-    public Queue contentCreatedQueue() {
-        return QueueBuilder.durable(CONTENT_CREATED_QUEUE).build();
-    }
-
-    @Bean
-    public Queue contentUpdatedQueue() {
-        return QueueBuilder.durable(CONTENT_UPDATED_QUEUE).build();
-    }
-
-    @Bean
-    public Queue contentDeletedQueue() {
-        return QueueBuilder.durable(CONTENT_DELETED_QUEUE).build();
+    public Queue contentEventsQueue() {
+        return QueueBuilder.durable(CONTENT_EVENTS_QUEUE)
+                .withArgument("x-dead-letter-exchange", "dlx.community")
+                .build();
     }
 
     // ================== BINDINGS ==================
@@ -126,29 +140,29 @@ public class RabbitMQConfig {
                 .with("follow.created");
     }
 
-    // Bindings pour les événements de contenu
+    // Bindings des événements de contenu
     @Bean
     public Binding contentCreatedBinding() {
         return BindingBuilder
-                .bind(contentCreatedQueue())
+                .bind(contentEventsQueue())
                 .to(contentExchange())
-                .with("content.created");
+                .with(CONTENT_CREATED_ROUTING_KEY);
     }
 
     @Bean
     public Binding contentUpdatedBinding() {
         return BindingBuilder
-                .bind(contentUpdatedQueue())
+                .bind(contentEventsQueue())
                 .to(contentExchange())
-                .with("content.updated");
+                .with(CONTENT_UPDATED_ROUTING_KEY);
     }
 
     @Bean
     public Binding contentDeletedBinding() {
         return BindingBuilder
-                .bind(contentDeletedQueue())
+                .bind(contentEventsQueue())
                 .to(contentExchange())
-                .with("content.deleted");
+                .with(CONTENT_DELETED_ROUTING_KEY);
     }
 
     // ================== DEAD LETTER EXCHANGE ==================
@@ -19,12 +19,8 @@ import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBr
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import com.move.security.JwtTokenVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-
-import java.security.Key;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -32,12 +28,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     @Value("${websocket.allowed-origins:*}")
     private String allowedOrigins;
 
+    public WebSocketConfig(JwtTokenVerifier jwtTokenVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+    }
+
     @Bean(name = "customWebSocketTaskScheduler")
     public TaskScheduler customWebSocketTaskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
@@ -112,9 +111,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
             token = token.substring(7);
 
-            if (validateToken(token)) {
-                String userId = extractUserId(token);
-                String username = extractUsername(token);
+            // Un seul parsing du token pour la validation et l'extraction des informations
+            Claims claims = validateToken(token);
+            if (claims != null) {
+                String userId = extractUserId(claims);
+                String username = extractUsername(claims);
 
                 if (userId != null) {
                     accessor.setUser(() -> userId);
@@ -179,71 +180,34 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         return null;
     }
 
-    private boolean validateToken(String token) {
+    private Claims validateToken(String token) {
         try {
-            Claims claims = parseClaims(token);
-            return claims != null && !claims.getExpiration().before(new java.util.Date());
+            return jwtTokenVerifier.verify(token);
         } catch (Exception e) {
             log.error("Erreur validation token WebSocket: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
-    private String extractUserId(String token) {
-        try {
-            Claims claims = parseClaims(token);
-
-            // Priorité au userId exact du token
-            String userId = null;
+    private String extractUserId(Claims claims) {
+        // Priorité au userId exact du token
+        String userId = null;
 
-            if (claims.containsKey("userId")) {
-                userId = claims.get("userId", String.class);
-            } else if (claims.containsKey("id")) {
-                userId = claims.get("id", String.class);
-            } else {
-                userId = claims.getSubject(); // Fallback sur le subject
-            }
-
-            log.debug("UserId extrait du token WebSocket: {}", userId);
-            return userId;
-        } catch (Exception e) {
-            log.error("Erreur extraction userId du token WebSocket: {}", e.getMessage());
-            return null;
+        if (claims.containsKey("userId")) {
+            userId = claims.get("userId", String.class);
+        } else if (claims.containsKey("id")) {
+            userId = claims.get("id", String.class);
+        } else {
+            userId = claims.getSubject(); // Fallback sur le subject
         }
-    }
 
-    private String extractUsername(String token) {
-        try {
-            Claims claims = parseClaims(token);
-            String username = claims.getSubject(); // Le subject contient généralement le username
-            log.debug("Username extrait du token WebSocket: {}", username);
-            return username;
-        } catch (Exception e) {
-            log.error("Erreur extraction username du token WebSocket: {}", e.getMessage());
-            return null;
-        }
+        log.debug("UserId extrait du token WebSocket: {}", userId);
+        return userId;
     }
 
-    private Claims parseClaims(String token) {
-        try {
-            byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-
-            if (keyBytes.length < 32) {
-                byte[] paddedKey = new byte[32];
-                System.arraycopy(keyBytes, 0, paddedKey, 0, Math.min(keyBytes.length, 32));
-                keyBytes = paddedKey;
-            }
-
-            Key key = Keys.hmacShaKeyFor(keyBytes);
-
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            log.error("Erreur parsing claims WebSocket: {}", e.getMessage());
-            throw e;
-        }
+    private String extractUsername(Claims claims) {
+        String username = claims.getSubject(); // Le subject contient généralement le username
+        log.debug("Username extrait du token WebSocket: {}", username);
+        return username;
     }
-}
\ No newline at end of file
+}
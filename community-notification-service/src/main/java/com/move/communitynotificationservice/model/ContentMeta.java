@@ -15,6 +15,12 @@ public class ContentMeta {
 
     private String title;
 
+    // Séquence du dernier événement content.* appliqué
+    private Long sequence;
+
+    // Notification de création déjà envoyée (propriétaire et followers), indépendamment de la séquence
+    private boolean createdNotified;
+
     // Constructeurs
     public ContentMeta() {}
 
@@ -50,12 +56,32 @@ public class ContentMeta {
         this.title = title;
     }
 
+    // Getter et Setter pour sequence
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    // Getter et Setter pour createdNotified
+    public boolean isCreatedNotified() {
+        return createdNotified;
+    }
+
+    public void setCreatedNotified(boolean createdNotified) {
+        this.createdNotified = createdNotified;
+    }
+
     @Override
     public String toString() {
         return "ContentMeta{" +
                 "id='" + id + '\'' +
                 ", userId='" + userId + '\'' +
                 ", title='" + title + '\'' +
+                ", sequence=" + sequence +
+                ", createdNotified=" + createdNotified +
                 '}';
     }
 }
\ No newline at end of file
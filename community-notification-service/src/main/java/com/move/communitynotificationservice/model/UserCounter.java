@@ -0,0 +1,46 @@
+package com.move.communitynotificationservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs matérialisés d'un utilisateur (id = userId), mis à jour par $inc
+ */
+@Document(collection = "user_counters")
+public class UserCounter {
+
+    @Id
+    private String id;
+
+    private long unreadNotifications;
+
+    private LocalDateTime updatedAt;
+
+    public UserCounter() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getUnreadNotifications() {
+        return unreadNotifications;
+    }
+
+    public void setUnreadNotifications(long unreadNotifications) {
+        this.unreadNotifications = unreadNotifications;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
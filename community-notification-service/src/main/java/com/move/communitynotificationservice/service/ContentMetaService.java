@@ -0,0 +1,86 @@
+package com.move.communitynotificationservice.service;
+
+import com.move.communitynotificationservice.model.ContentMeta;
+import com.move.communitynotificationservice.repository.ContentMetaRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Projection locale des contenus (propriétaire, titre) alimentée par les événements content.*.
+ * <p>
+ * Les notifications de like y lisent le propriétaire et le titre au lieu d'appeler CONTENT-SERVICE.
+ * Une écriture n'est appliquée que si sa séquence dépasse celle déjà enregistrée : un événement en retard
+ * (redelivery, consommateurs concurrents) ne remplace jamais un état plus récent.
+ * Les notifications de création sont dédupliquées à part (createdNotified) : un content.created arrivé après
+ * un content.updated plus récent ne modifie pas la projection mais doit tout de même être notifié.
+ */
+@Service
+public class ContentMetaService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentMetaRepository contentMetaRepository;
+
+    public ContentMetaService(MongoTemplate mongoTemplate, ContentMetaRepository contentMetaRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentMetaRepository = contentMetaRepository;
+    }
+
+    public Optional<ContentMeta> find(String contentId) {
+        return contentMetaRepository.findById(contentId);
+    }
+
+    /**
+     * Enregistre le propriétaire et le titre ; retourne false si l'événement est plus ancien que la projection
+     */
+    public boolean apply(String contentId, String userId, String title, Long sequence) {
+        Update update = new Update().set("userId", userId).set("title", title);
+        if (sequence == null) {
+            // Événement sans séquence (ancien producteur) : appliqué sans contrôle d'ordre
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(contentId)), update, ContentMeta.class);
+            return true;
+        }
+        try {
+            mongoTemplate.upsert(newerThanStored(contentId, sequence), update.set("sequence", sequence),
+                    ContentMeta.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Le document existe déjà avec une séquence supérieure ou égale
+            return false;
+        }
+    }
+
+    /**
+     * Réserve l'envoi des notifications de création ; retourne false si elles ont déjà été envoyées
+     */
+    public boolean claimCreatedNotification(String contentId) {
+        try {
+            UpdateResult result = mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(contentId).and("createdNotified").ne(true)),
+                    new Update().set("createdNotified", true), ContentMeta.class);
+            return result.getModifiedCount() == 1 || result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Le document existe déjà avec createdNotified=true
+            return false;
+        }
+    }
+
+    public void delete(String contentId, Long sequence) {
+        Query query = sequence == null
+                ? Query.query(Criteria.where("_id").is(contentId))
+                : newerThanStored(contentId, sequence);
+        mongoTemplate.remove(query, ContentMeta.class);
+    }
+
+    private static Query newerThanStored(String contentId, long sequence) {
+        return Query.query(Criteria.where("_id").is(contentId).orOperator(
+                Criteria.where("sequence").lt(sequence),
+                Criteria.where("sequence").exists(false)));
+    }
+}
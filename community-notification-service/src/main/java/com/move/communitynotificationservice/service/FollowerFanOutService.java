@@ -0,0 +1,159 @@
+package com.move.communitynotificationservice.service;
+
+import com.move.communitynotificationservice.model.Notification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion des notifications de nouveau contenu aux followers du créateur.
+ * <p>
+ * Les followers sont lus page par page depuis AUTH-SERVICE ; chaque page est traitée par un pool borné :
+ * une écriture insertMany pour toute la page, puis un envoi WebSocket aux seuls followers connectés.
+ * Quand la file du pool est pleine, le thread appelant (consommateur RabbitMQ) traite lui-même la page,
+ * ce qui ralentit la consommation au lieu de saturer la mémoire.
+ * <p>
+ * Si AUTH-SERVICE ignore le paramètre page (même première entrée que la page précédente), la lecture s'arrête ;
+ * le nombre de pages lues est de toute façon plafonné à max-pages.
+ */
+@Service
+public class FollowerFanOutService {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowerFanOutService.class);
+
+    private final RestTemplate restTemplate;
+    private final NotificationService notificationService;
+    private final SimpUserRegistry simpUserRegistry;
+    private final ThreadPoolExecutor workers;
+    private final int pageSize;
+    private final int maxPages;
+
+    public FollowerFanOutService(RestTemplate restTemplate,
+                                 NotificationService notificationService,
+                                 SimpUserRegistry simpUserRegistry,
+                                 @Value("${notifications.fan-out.page-size:500}") int pageSize,
+                                 @Value("${notifications.fan-out.workers:4}") int workerCount,
+                                 @Value("${notifications.fan-out.queue-capacity:20}") int queueCapacity,
+                                 @Value("${notifications.fan-out.max-pages:200}") int maxPages) {
+        this.restTemplate = restTemplate;
+        this.notificationService = notificationService;
+        this.simpUserRegistry = simpUserRegistry;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "follower-fan-out-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Notifie tous les followers du créateur ; retourne le nombre de followers lus
+     */
+    public int notifyFollowers(String creatorId, String creatorName, String contentId, String contentTitle) {
+        int total = 0;
+        String previousFirst = null;
+        int page = 0;
+        for (; page < maxPages; page++) {
+            String[] followers = fetchFollowers(creatorId, page);
+            if (followers == null || followers.length == 0) {
+                break;
+            }
+            if (previousFirst != null && previousFirst.equals(followers[0])) {
+                // Page identique à la précédente : pagination ignorée, la liste a déjà été diffusée
+                log.warn("AUTH-SERVICE ignore la pagination des followers de {}, arrêt à la page {}", creatorId, page);
+                break;
+            }
+            total += followers.length;
+
+            if (followers.length > pageSize) {
+                // AUTH-SERVICE a ignoré la pagination et renvoyé toute la liste : découpage local
+                for (int from = 0; from < followers.length; from += pageSize) {
+                    submit(Arrays.asList(followers).subList(from, Math.min(from + pageSize, followers.length)),
+                            creatorId, creatorName, contentId, contentTitle);
+                }
+                break;
+            }
+
+            submit(Arrays.asList(followers), creatorId, creatorName, contentId, contentTitle);
+            if (followers.length < pageSize) {
+                break;
+            }
+            previousFirst = followers[0];
+        }
+        if (page == maxPages) {
+            log.warn("Diffusion du contenu {} limitée à {} pages de followers de {}", contentId, maxPages, creatorId);
+        }
+
+        log.info("Diffusion du contenu {} planifiée pour {} followers de {}", contentId, total, creatorId);
+        return total;
+    }
+
+    private String[] fetchFollowers(String creatorId, int page) {
+        String url = "http://AUTH-SERVICE/api/users/{userId}/followers?page={page}&size={size}";
+        return restTemplate.getForObject(url, String[].class, creatorId, page, pageSize);
+    }
+
+    private void submit(List<String> followers, String creatorId, String creatorName,
+                        String contentId, String contentTitle) {
+        // Copie : la page source peut être une vue sur un tableau plus grand
+        List<String> batch = new ArrayList<>(followers.size());
+        for (String followerId : followers) {
+            if (followerId != null && !followerId.equals(creatorId)) {
+                batch.add(followerId);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (workers.isShutdown()) {
+            log.warn("Pool de diffusion arrêté, {} notifications du contenu {} non créées", batch.size(), contentId);
+            return;
+        }
+        workers.execute(() -> deliver(batch, creatorName, contentId, contentTitle));
+    }
+
+    private void deliver(List<String> followers, String creatorName, String contentId, String contentTitle) {
+        try {
+            List<Notification> saved = notificationService.createContentNotifications(
+                    followers, creatorName, contentId, contentTitle);
+
+            int pushed = 0;
+            for (Notification notification : saved) {
+                // Les followers hors ligne retrouveront la notification au prochain chargement
+                if (simpUserRegistry.getUser(notification.getUserId()) != null) {
+                    notificationService.sendRealTimeNotification(notification.getUserId(), notification);
+                    pushed++;
+                }
+            }
+            log.debug("Lot de {} notifications du contenu {} écrit, {} envoyées en temps réel",
+                    saved.size(), contentId, pushed);
+        } catch (Exception e) {
+            log.error("Échec de la diffusion d'un lot de {} notifications du contenu {}: {}",
+                    followers.size(), contentId, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} lot(s) de notifications abandonné(s) à l'arrêt", workers.shutdownNow().size());
+        }
+    }
+}
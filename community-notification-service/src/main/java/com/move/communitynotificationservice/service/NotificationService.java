@@ -3,6 +3,7 @@ package com.move.communitynotificationservice.service;
 import com.move.communitynotificationservice.model.Comment;
 import com.move.communitynotificationservice.model.Notification;
 import com.move.communitynotificationservice.repository.NotificationRepository;
+import com.mongodb.client.result.UpdateResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,11 +11,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -31,6 +39,12 @@ public class NotificationService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     // Enum pour les types de notifications
     public enum NotificationType {
         COMMENT("COMMENT"),
@@ -103,6 +117,7 @@ public class NotificationService {
 
             Notification saved = notificationRepository.save(notification);
             log.info("Notification sauvegardée avec l'ID: {}", saved.getId());
+            unreadCounterService.add(saved.getUserId(), 1);
 
             // Envoyer la notification en temps réel via WebSocket de manière asynchrone
             sendRealTimeNotificationAsync(userId.trim(), saved);
@@ -154,7 +169,7 @@ public class NotificationService {
     /**
      * Envoi synchrone des notifications WebSocket
      */
-    private void sendRealTimeNotification(String userId, Notification notification) {
+    void sendRealTimeNotification(String userId, Notification notification) {
         try {
             // Vérifier que le template est disponible
             if (messagingTemplate == null) {
@@ -233,7 +248,8 @@ public class NotificationService {
             return 0;
         }
         try {
-            return notificationRepository.countByUserIdAndReadFalse(userId.trim());
+            // Compteur matérialisé (user_counters) : pas de count sur notifications
+            return unreadCounterService.get(userId.trim());
         } catch (Exception e) {
             log.error("Erreur lors du comptage des notifications non lues pour {}: {}", userId, e.getMessage(), e);
             return 0;
@@ -260,32 +276,34 @@ public class NotificationService {
 
         log.info("Marquage de la notification comme lue: {}", notificationId);
         try {
-            Optional<Notification> notificationOpt = notificationRepository.findById(notificationId.trim());
-
-            if (notificationOpt.isPresent()) {
-                Notification notification = notificationOpt.get();
-                if (!notification.isRead()) {
-                    notification.markAsRead(); // Utilise la méthode de la classe Notification
-                    Notification updated = notificationRepository.save(notification);
+            // Passage non lue -> lue conditionnel : une seule requête concurrente décrémente le compteur
+            Notification updated = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(notificationId.trim()).and("read").is(false)),
+                    new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Notification.class);
+
+            if (updated == null) {
+                // Déjà lue (éventuellement par une requête concurrente) ou inexistante
+                return notificationRepository.findById(notificationId.trim()).orElseThrow(() -> {
+                    log.warn("Notification non trouvée avec l'ID: {}", notificationId);
+                    return new RuntimeException("Notification non trouvée");
+                });
+            }
 
-                    // Envoyer le nouveau compte de notifications non lues de manière asynchrone
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            long unreadCount = getUnreadCount(notification.getUserId());
-                            String countDestination = "/topic/notifications/" + notification.getUserId() + "/count";
-                            messagingTemplate.convertAndSend(countDestination, unreadCount);
-                        } catch (Exception e) {
-                            log.error("Erreur lors de l'envoi du count via WebSocket après marquage comme lu: {}", e.getMessage());
-                        }
-                    });
+            long unreadCount = unreadCounterService.add(updated.getUserId(), -1);
 
-                    return updated;
+            // Envoyer le nouveau compte de notifications non lues de manière asynchrone
+            CompletableFuture.runAsync(() -> {
+                try {
+                    String countDestination = "/topic/notifications/" + updated.getUserId() + "/count";
+                    messagingTemplate.convertAndSend(countDestination, unreadCount);
+                } catch (Exception e) {
+                    log.error("Erreur lors de l'envoi du count via WebSocket après marquage comme lu: {}", e.getMessage());
                 }
-                return notification;
-            } else {
-                log.warn("Notification non trouvée avec l'ID: {}", notificationId);
-                throw new RuntimeException("Notification non trouvée");
-            }
+            });
+
+            return updated;
         } catch (Exception e) {
             log.error("Erreur lors du marquage de la notification comme lue {}: {}", notificationId, e.getMessage(), e);
             throw new RuntimeException("Impossible de marquer la notification comme lue", e);
@@ -299,23 +317,26 @@ public class NotificationService {
 
         log.info("Marquage de toutes les notifications comme lues pour l'utilisateur: {}", userId);
         try {
-            List<Notification> notifications = notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId.trim());
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("userId").is(userId.trim()).and("read").is(false)),
+                    new Update().set("read", true).set("readAt", LocalDateTime.now()),
+                    Notification.class);
+            long marked = result.getModifiedCount();
 
-            if (!notifications.isEmpty()) {
-                notifications.forEach(Notification::markAsRead); // Utilise la méthode de la classe
-                notificationRepository.saveAll(notifications);
+            if (marked > 0) {
+                // Décrément du nombre réellement marqué : les notifications créées entre-temps restent comptées
+                long unreadCount = unreadCounterService.add(userId.trim(), -marked);
 
-                // Envoyer le nouveau compte (qui devrait être 0) de manière asynchrone
                 CompletableFuture.runAsync(() -> {
                     try {
                         String countDestination = "/topic/notifications/" + userId.trim() + "/count";
-                        messagingTemplate.convertAndSend(countDestination, 0L);
+                        messagingTemplate.convertAndSend(countDestination, unreadCount);
                     } catch (Exception e) {
                         log.error("Erreur lors de l'envoi du count via WebSocket après markAllAsRead: {}", e.getMessage());
                     }
                 });
 
-                log.info("Toutes les notifications marquées comme lues pour l'utilisateur: {} ({} notifications)", userId, notifications.size());
+                log.info("Toutes les notifications marquées comme lues pour l'utilisateur: {} ({} notifications)", userId, marked);
             } else {
                 log.debug("Aucune notification non lue trouvée pour l'utilisateur: {}", userId);
             }
@@ -332,20 +353,18 @@ public class NotificationService {
 
         log.info("Suppression de la notification: {}", notificationId);
         try {
-            Optional<Notification> notificationOpt = notificationRepository.findById(notificationId.trim());
+            // Suppression atomique : seule la requête qui retire le document voit son état au moment du retrait
+            Notification removed = mongoTemplate.findAndRemove(
+                    Query.query(Criteria.where("_id").is(notificationId.trim())), Notification.class);
 
-            if (notificationOpt.isPresent()) {
-                Notification notification = notificationOpt.get();
-                boolean wasUnread = !notification.isRead();
-                String userId = notification.getUserId();
-
-                notificationRepository.deleteById(notificationId.trim());
+            if (removed != null) {
+                String userId = removed.getUserId();
 
                 // Mettre à jour le compte si c'était une notification non lue
-                if (wasUnread) {
+                if (!removed.isRead()) {
+                    long unreadCount = unreadCounterService.add(userId, -1);
                     CompletableFuture.runAsync(() -> {
                         try {
-                            long unreadCount = getUnreadCount(userId);
                             String countDestination = "/topic/notifications/" + userId + "/count";
                             messagingTemplate.convertAndSend(countDestination, unreadCount);
                         } catch (Exception e) {
@@ -372,14 +391,22 @@ public class NotificationService {
 
         log.info("Suppression de toutes les notifications pour l'utilisateur: {}", userId);
         try {
-            long deletedCount = notificationRepository.countByUserId(userId.trim());
-            notificationRepository.deleteByUserId(userId.trim());
+            // Non lues d'abord, pour décrémenter du nombre réellement supprimé plutôt que remettre à zéro
+            long unreadDeleted = mongoTemplate.remove(
+                    Query.query(Criteria.where("userId").is(userId.trim()).and("read").is(false)),
+                    Notification.class).getDeletedCount();
+            long readDeleted = mongoTemplate.remove(
+                    Query.query(Criteria.where("userId").is(userId.trim()).and("read").is(true)),
+                    Notification.class).getDeletedCount();
+            long deletedCount = unreadDeleted + readDeleted;
+            long unreadCount = unreadDeleted > 0
+                    ? unreadCounterService.add(userId.trim(), -unreadDeleted)
+                    : unreadCounterService.get(userId.trim());
 
-            // Envoyer le nouveau compte (qui devrait être 0) de manière asynchrone
             CompletableFuture.runAsync(() -> {
                 try {
                     String countDestination = "/topic/notifications/" + userId.trim() + "/count";
-                    messagingTemplate.convertAndSend(countDestination, 0L);
+                    messagingTemplate.convertAndSend(countDestination, unreadCount);
                 } catch (Exception e) {
                     log.error("Erreur lors de l'envoi du count via WebSocket après suppression de toutes les notifications: {}", e.getMessage());
                 }
@@ -478,6 +505,48 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Crée en une seule écriture (insertMany) les notifications de nouveau contenu d'un lot de followers.
+     * L'envoi WebSocket est laissé à l'appelant, qui ne cible que les utilisateurs connectés.
+     */
+    public List<Notification> createContentNotifications(Collection<String> userIds, String creatorName,
+                                                         String contentId, String contentTitle) {
+        if (userIds.isEmpty() || creatorName == null || creatorName.trim().isEmpty()) {
+            return List.of();
+        }
+
+        String safeContentTitle = sanitizeContentTitle(contentTitle, "nouveau contenu");
+        String message = String.format("%s a publié un nouveau contenu: '%s'", creatorName, safeContentTitle);
+        String metadata = buildMetadata("contentId", contentId, "creatorName", creatorName, "contentTitle", safeContentTitle);
+        String type = NotificationType.CONTENT_CREATED.getValue();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Notification> notifications = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            if (userId == null || userId.trim().isEmpty()) {
+                continue;
+            }
+            Notification notification = new Notification();
+            notification.setUserId(userId.trim());
+            notification.setMessage(message);
+            notification.setType(type);
+            notification.setSourceId(contentId);
+            notification.setSourceName(creatorName.trim());
+            notification.setRead(false);
+            notification.setCreatedAt(now);
+            notification.setMetadata(metadata);
+            notification.setPriority(determinePriority(type));
+            notifications.add(notification);
+        }
+
+        if (notifications.isEmpty()) {
+            return List.of();
+        }
+        List<Notification> saved = notificationRepository.insert(notifications);
+        unreadCounterService.incrementAll(saved.stream().map(Notification::getUserId).toList());
+        return saved;
+    }
+
     /**
      * Crée une notification de mention
      */
@@ -629,6 +698,8 @@ public class NotificationService {
 
         try {
             notificationRepository.deleteByCreatedAtBefore(cutoffDate);
+            // Des notifications non lues ont pu être supprimées
+            unreadCounterService.reconcile();
             log.info("Nettoyage des anciennes notifications terminé");
         } catch (Exception e) {
             log.error("Erreur lors du nettoyage des anciennes notifications: {}", e.getMessage(), e);
@@ -666,6 +737,9 @@ public class NotificationService {
         notification.setTimestamp(LocalDateTime.now());
 
         notificationRepository.save(notification);
+        if (targetUserId != null) {
+            unreadCounterService.add(targetUserId, 1);
+        }
 
         // ⚡ Diffuser via WebSocket STOMP
         messagingTemplate.convertAndSend("/topic/notifications/" + targetUserId, notification);
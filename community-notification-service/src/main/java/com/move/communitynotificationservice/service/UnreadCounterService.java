@@ -0,0 +1,335 @@
+package com.move.communitynotificationservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.move.communitynotificationservice.model.Notification;
+import com.move.communitynotificationservice.model.UserCounter;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nombre de notifications non lues par utilisateur, matérialisé dans user_counters.
+ * <p>
+ * Chaque création, lecture ou suppression de notification applique un $inc atomique ; la valeur renvoyée
+ * par findAndModify alimente un cache mémoire, ce qui évite un count sur notifications à chaque badge.
+ * Les mises à jour d'un même utilisateur sont sérialisées par un verrou choisi parmi un ensemble fixe
+ * (striping), pour que le cache ne reçoive jamais une valeur plus ancienne que celle qu'il contient.
+ * Le cache expire vite (autres instances) et une réconciliation périodique, sous bail, corrige les dérives.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    private static final String UNREAD = "unreadNotifications";
+    private static final String LEASES = "job_leases";
+    private static final String RECONCILE_LEASE_ID = "unread-counter-reconciliation";
+
+    private final MongoTemplate mongoTemplate;
+    private final Object[] stripes;
+    private final Cache<String, Long> cache;
+    private final int reconcilePageSize;
+    private final Duration reconcileLease;
+    private final Duration reconcileSettle;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "unread-counter-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UnreadCounterService(MongoTemplate mongoTemplate,
+                                @Value("${notifications.counters.stripes:64}") int stripeCount,
+                                @Value("${notifications.counters.cache-size:50000}") long cacheSize,
+                                @Value("${notifications.counters.cache-ttl:30s}") Duration cacheTtl,
+                                @Value("${notifications.counters.reconcile-interval:1h}") Duration reconcileInterval,
+                                @Value("${notifications.counters.reconcile-page-size:500}") int reconcilePageSize,
+                                @Value("${notifications.counters.reconcile-lease:10m}") Duration reconcileLease,
+                                @Value("${notifications.counters.reconcile-settle:1m}") Duration reconcileSettle) {
+        this.mongoTemplate = mongoTemplate;
+        this.reconcilePageSize = reconcilePageSize;
+        this.reconcileLease = reconcileLease;
+        this.reconcileSettle = reconcileSettle;
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+
+        if (!reconcileInterval.isZero() && !reconcileInterval.isNegative()) {
+            reconciler.scheduleWithFixedDelay(this::reconcileSafely, reconcileInterval.toMillis(),
+                    reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public long get(String userId) {
+        Long cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (stripe(userId)) {
+            UserCounter counter = mongoTemplate.findById(userId, UserCounter.class);
+            long value = counter != null ? counter.getUnreadNotifications() : initialize(userId);
+            cache.put(userId, value);
+            return value;
+        }
+    }
+
+    /**
+     * Applique delta au compteur (après l'écriture de la notification) et retourne la nouvelle valeur
+     */
+    public long add(String userId, long delta) {
+        synchronized (stripe(userId)) {
+            UserCounter counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(userId)),
+                    new Update().inc(UNREAD, delta).set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    UserCounter.class);
+            // Sans compteur, le calcul initial inclut déjà la modification qui vient d'être écrite
+            long value = counter != null ? Math.max(0, counter.getUnreadNotifications()) : initialize(userId);
+            cache.put(userId, value);
+            return value;
+        }
+    }
+
+    /**
+     * +1 pour chaque utilisateur en une seule requête bulk (diffusion à des followers)
+     */
+    public void incrementAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCounter.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (String userId : userIds) {
+            // Pas d'upsert : un compteur absent sera calculé à la première lecture, notification comprise
+            bulk.updateOne(Query.query(Criteria.where("_id").is(userId)),
+                    new Update().inc(UNREAD, 1).set("updatedAt", now));
+        }
+        bulk.execute();
+        // Valeurs exactes inconnues : relues depuis user_counters à la prochaine demande
+        cache.invalidateAll(userIds);
+    }
+
+    /**
+     * Recalcule les compteurs depuis notifications et corrige ceux qui ont dérivé.
+     * Une seule instance l'exécute à la fois (bail dans job_leases) ; les compteurs sont parcourus par pages
+     * d'utilisateurs triées par _id, et seules les notifications non lues de la page sont agrégées.
+     * <p>
+     * La notification est écrite avant l'application du $inc : un écart constaté peut donc être une mise à jour
+     * en cours, qu'une correction immédiate doublerait. Les écarts sont revus après reconcile-settle et ne sont
+     * corrigés que si le compteur et le recalcul n'ont pas bougé entre-temps ; la correction reste conditionnée
+     * à la valeur relue.
+     *
+     * @return le nombre de compteurs corrigés, 0 si une autre instance détient le bail
+     */
+    public int reconcile() {
+        if (!acquireLease()) {
+            log.debug("Réconciliation des compteurs prise en charge par une autre instance");
+            return 0;
+        }
+        try {
+            int checked = 0;
+            Map<String, Drift> drifts = new LinkedHashMap<>();
+            String lastId = null;
+            while (true) {
+                Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(reconcilePageSize);
+                if (lastId != null) {
+                    page.addCriteria(Criteria.where("_id").gt(lastId));
+                }
+                List<UserCounter> counters = mongoTemplate.find(page, UserCounter.class);
+                if (counters.isEmpty()) {
+                    break;
+                }
+                collectDrifts(counters, drifts);
+                checked += counters.size();
+                lastId = counters.get(counters.size() - 1).getId();
+                renewLease();
+                if (counters.size() < reconcilePageSize) {
+                    break;
+                }
+            }
+
+            int corrections = 0;
+            if (!drifts.isEmpty()) {
+                // Laisse aux $inc en cours le temps d'être appliqués
+                sleep(reconcileSettle);
+                renewLease();
+                corrections = correctStableDrifts(drifts);
+            }
+
+            log.info("Réconciliation des compteurs non lus : {} compteur(s) vérifié(s), {} écart(s), {} corrigé(s)",
+                    checked, drifts.size(), corrections);
+            return corrections;
+        } finally {
+            releaseLease();
+        }
+    }
+
+    /**
+     * Écart constaté lors du premier passage : valeur du compteur et nombre réel de notifications non lues
+     */
+    private record Drift(long counted, long actual) {
+    }
+
+    private void collectDrifts(List<UserCounter> counters, Map<String, Drift> drifts) {
+        Map<String, Long> actual = unreadCounts(counters.stream().map(UserCounter::getId).toList());
+        for (UserCounter counter : counters) {
+            long expected = actual.getOrDefault(counter.getId(), 0L);
+            if (counter.getUnreadNotifications() != expected) {
+                drifts.put(counter.getId(), new Drift(counter.getUnreadNotifications(), expected));
+            }
+        }
+    }
+
+    private int correctStableDrifts(Map<String, Drift> drifts) {
+        int corrections = 0;
+        List<String> userIds = new ArrayList<>(drifts.keySet());
+        for (int from = 0; from < userIds.size(); from += reconcilePageSize) {
+            List<String> chunk = userIds.subList(from, Math.min(from + reconcilePageSize, userIds.size()));
+            Map<String, Long> actual = unreadCounts(chunk);
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserCounter.class);
+            int pending = 0;
+            for (UserCounter counter : mongoTemplate.find(Query.query(Criteria.where("_id").in(chunk)), UserCounter.class)) {
+                Drift drift = drifts.get(counter.getId());
+                long expected = actual.getOrDefault(counter.getId(), 0L);
+                // Compteur ou notifications modifiés depuis : activité récente, revue au passage suivant
+                if (counter.getUnreadNotifications() != drift.counted() || expected != drift.actual()) {
+                    continue;
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(counter.getId())
+                                .and(UNREAD).is(counter.getUnreadNotifications())),
+                        new Update().set(UNREAD, expected).set("updatedAt", LocalDateTime.now()));
+                cache.invalidate(counter.getId());
+                pending++;
+            }
+            if (pending > 0) {
+                bulk.execute();
+                corrections += pending;
+            }
+            renewLease();
+        }
+        return corrections;
+    }
+
+    private Map<String, Long> unreadCounts(List<String> userIds) {
+        Map<String, Long> actual = new HashMap<>();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("read").is(false).and("userId").in(userIds)),
+                Aggregation.group("userId").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(aggregation, Notification.class, Document.class)) {
+            actual.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        return actual;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Réconciliation interrompue", e);
+        }
+    }
+
+    private boolean acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(RECONCILE_LEASE_ID).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("lockedUntil").is(null),
+                Criteria.where("owner").is(instanceId)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("lockedUntil", new Date(now.getTime() + reconcileLease.toMillis()));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, LEASES) != null;
+        } catch (DuplicateKeyException e) {
+            // Le document existe et le bail est détenu par une autre instance
+            return false;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException si le bail a été repris par une autre instance
+     */
+    private void renewLease() {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(RECONCILE_LEASE_ID).and("owner").is(instanceId)),
+                new Update().set("lockedUntil", new Date(System.currentTimeMillis() + reconcileLease.toMillis())),
+                LEASES);
+        if (result.getMatchedCount() == 0) {
+            throw new IllegalStateException("Bail de réconciliation perdu, réconciliation interrompue");
+        }
+    }
+
+    private void releaseLease() {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(RECONCILE_LEASE_ID).and("owner").is(instanceId)),
+                new Update().set("lockedUntil", new Date()),
+                LEASES);
+    }
+
+    /**
+     * Premier accès d'un utilisateur sans compteur : valeur calculée une fois depuis notifications.
+     * $setOnInsert laisse intact un compteur créé entre-temps par un $inc concurrent.
+     */
+    private long initialize(String userId) {
+        long unread = mongoTemplate.count(
+                Query.query(Criteria.where("userId").is(userId).and("read").is(false)), Notification.class);
+        UserCounter counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().setOnInsert(UNREAD, unread).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UserCounter.class);
+        return counter != null ? counter.getUnreadNotifications() : unread;
+    }
+
+    private Object stripe(String userId) {
+        return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Échec de la réconciliation des compteurs non lus: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.move.communitynotificationservice.config;
+
+import com.move.communitynotificationservice.service.ContentMetaService;
+import com.move.communitynotificationservice.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentEventListenerTest {
+
+    private ContentMetaService contentMetaService;
+    private NotificationService notificationService;
+    private EventListeners eventListeners;
+    private ContentEventListener listener;
+
+    private final Map<String, Object> created = Map.of(
+            "id", "c1", "userId", "owner", "title", "Voyage", "sequence", 1L);
+
+    @BeforeEach
+    void setUp() {
+        contentMetaService = mock(ContentMetaService.class);
+        notificationService = mock(NotificationService.class);
+        eventListeners = mock(EventListeners.class);
+        listener = new ContentEventListener(contentMetaService, notificationService, eventListeners);
+    }
+
+    @Test
+    void notifiesACreationReceivedAfterANewerUpdate() {
+        // content.updated (sequence 2) déjà appliqué : la projection refuse le content.created (sequence 1)
+        when(contentMetaService.apply("c1", "owner", "Voyage", 1L)).thenReturn(false);
+        when(contentMetaService.claimCreatedNotification("c1")).thenReturn(true);
+
+        listener.handleContentEvent(created, RabbitMQConfig.CONTENT_CREATED_ROUTING_KEY);
+
+        verify(notificationService).createNotification(eq("owner"), contains("Voyage"));
+        verify(eventListeners).onContentCreated(created);
+    }
+
+    @Test
+    void doesNotNotifyARedeliveredCreationTwice() {
+        when(contentMetaService.apply("c1", "owner", "Voyage", 1L)).thenReturn(true, false);
+        when(contentMetaService.claimCreatedNotification("c1")).thenReturn(true, false);
+
+        listener.handleContentEvent(created, RabbitMQConfig.CONTENT_CREATED_ROUTING_KEY);
+        listener.handleContentEvent(created, RabbitMQConfig.CONTENT_CREATED_ROUTING_KEY);
+
+        verify(notificationService, times(1)).createNotification(anyString(), anyString());
+        verify(eventListeners, times(1)).onContentCreated(created);
+    }
+
+    @Test
+    void updatesAreGatedBySequenceWithoutNotifying() {
+        listener.handleContentEvent(Map.of("id", "c1", "userId", "owner", "title", "Nouveau", "sequence", 2),
+                RabbitMQConfig.CONTENT_UPDATED_ROUTING_KEY);
+
+        verify(contentMetaService).apply("c1", "owner", "Nouveau", 2L);
+        verify(contentMetaService, never()).claimCreatedNotification(anyString());
+        verifyNoInteractions(notificationService, eventListeners);
+    }
+
+    @Test
+    void aFailedUpdateIsNotAcknowledged() {
+        when(contentMetaService.apply("c1", "owner", "Nouveau", 2L))
+                .thenThrow(new DataAccessResourceFailureException("mongo indisponible"));
+
+        // L'exception remonte au conteneur : rejet vers la DLX au lieu d'un ack silencieux
+        assertThrows(DataAccessResourceFailureException.class, () -> listener.handleContentEvent(
+                Map.of("id", "c1", "userId", "owner", "title", "Nouveau", "sequence", 2),
+                RabbitMQConfig.CONTENT_UPDATED_ROUTING_KEY));
+    }
+
+    @Test
+    void aFailedDeletionIsNotAcknowledged() {
+        doThrow(new DataAccessResourceFailureException("mongo indisponible"))
+                .when(contentMetaService).delete("c1", 3L);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> listener.handleContentEvent(
+                Map.of("id", "c1", "sequence", 3L), RabbitMQConfig.CONTENT_DELETED_ROUTING_KEY));
+    }
+
+    @Test
+    void anUnknownRoutingKeyIsIgnored() {
+        listener.handleContentEvent(created, "content.archived");
+
+        verifyNoInteractions(contentMetaService, notificationService, eventListeners);
+    }
+}
@@ -0,0 +1,82 @@
+package com.move.communitynotificationservice.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.move.communitynotificationservice.model.ContentMeta;
+import com.move.communitynotificationservice.repository.ContentMetaRepository;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentMetaServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private ContentMetaService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new ContentMetaService(mongoTemplate, mock(ContentMetaRepository.class));
+    }
+
+    @Test
+    void appliesAnEventOnlyOverAnOlderSequence() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ContentMeta.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(service.apply("c1", "owner", "Titre", 5L));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(ContentMeta.class));
+        Document guard = (Document) query.getValue().getQueryObject().getList("$or", Document.class).get(0);
+        assertEquals(new Document("$lt", 5L), guard.get("sequence"));
+        assertEquals(5L, update.getValue().getUpdateObject().get("$set", Document.class).get("sequence"));
+    }
+
+    @Test
+    void rejectsAStaleEvent() {
+        // Document existant avec une séquence >= : l'upsert tente une insertion sur le même _id
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ContentMeta.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertFalse(service.apply("c1", "owner", "Ancien titre", 3L));
+    }
+
+    @Test
+    void appliesLegacyEventsWithoutOrderingGuard() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ContentMeta.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(service.apply("c1", "owner", "Titre", null));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).upsert(query.capture(), any(Update.class), eq(ContentMeta.class));
+        assertEquals(new Document("_id", "c1"), query.getValue().getQueryObject());
+    }
+
+    @Test
+    void claimsTheCreatedNotificationOnce() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ContentMeta.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("c2")))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        // Projection existante, puis projection absente (créée par l'upsert), puis déjà notifié
+        assertEquals(List.of(true, true, false), List.of(
+                service.claimCreatedNotification("c1"),
+                service.claimCreatedNotification("c2"),
+                service.claimCreatedNotification("c1")));
+    }
+}
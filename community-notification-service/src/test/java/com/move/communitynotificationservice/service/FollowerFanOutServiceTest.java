@@ -0,0 +1,104 @@
+package com.move.communitynotificationservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FollowerFanOutServiceTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final int MAX_PAGES = 5;
+
+    private RestTemplate restTemplate;
+    private NotificationService notificationService;
+    private final List<List<String>> deliveredBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        notificationService = mock(NotificationService.class);
+        when(notificationService.createContentNotifications(anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            synchronized (deliveredBatches) {
+                deliveredBatches.add(List.copyOf(invocation.<List<String>>getArgument(0)));
+            }
+            return List.of();
+        });
+    }
+
+    @Test
+    void followsPagesUntilAShortPage() throws InterruptedException {
+        givenPages(page -> switch (page) {
+            case 0 -> new String[]{"a", "b"};
+            case 1 -> new String[]{"c", "d"};
+            case 2 -> new String[]{"e"};
+            default -> new String[0];
+        });
+
+        int total = fanOut();
+
+        assertEquals(5, total);
+        assertEquals(3, deliveredBatches.size());
+        verify(restTemplate, times(3)).getForObject(anyString(), eq(String[].class), eq("creator"), anyInt(), anyInt());
+    }
+
+    @Test
+    void stopsWhenPaginationIsIgnoredAndListIsAnExactMultipleOfThePageSize() throws InterruptedException {
+        // AUTH-SERVICE renvoie toujours la même liste, de la taille exacte d'une page
+        givenPages(page -> new String[]{"a", "b"});
+
+        int total = fanOut();
+
+        assertEquals(2, total);
+        assertEquals(List.of(List.of("a", "b")), deliveredBatches);
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(String[].class), eq("creator"), anyInt(), anyInt());
+    }
+
+    @Test
+    void splitsLocallyWhenTheWholeListIsReturned() throws InterruptedException {
+        givenPages(page -> new String[]{"a", "b", "c", "d", "e"});
+
+        int total = fanOut();
+
+        assertEquals(5, total);
+        assertEquals(3, deliveredBatches.size());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(String[].class), eq("creator"), anyInt(), anyInt());
+    }
+
+    @Test
+    void capsTheNumberOfPages() throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        givenPages(page -> new String[]{"u" + next.incrementAndGet(), "u" + next.incrementAndGet()});
+
+        int total = fanOut();
+
+        assertEquals(MAX_PAGES * PAGE_SIZE, total);
+        assertEquals(MAX_PAGES, deliveredBatches.size());
+    }
+
+    private interface Pages {
+        String[] page(int page);
+    }
+
+    private void givenPages(Pages pages) {
+        when(restTemplate.getForObject(anyString(), eq(String[].class), eq("creator"), anyInt(), anyInt()))
+                .thenAnswer(invocation -> pages.page(invocation.<Integer>getArgument(3)));
+    }
+
+    private int fanOut() throws InterruptedException {
+        FollowerFanOutService service = new FollowerFanOutService(restTemplate, notificationService,
+                mock(SimpUserRegistry.class), PAGE_SIZE, 1, 100, MAX_PAGES);
+        int total = service.notifyFollowers("creator", "Creator", "content-1", "Titre");
+        // Attend la fin des lots planifiés
+        service.shutdown();
+        return total;
+    }
+}
@@ -0,0 +1,116 @@
+package com.move.communitynotificationservice.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.move.communitynotificationservice.model.Notification;
+import com.move.communitynotificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String NOTIFICATION_ID = "n-1";
+
+    private MongoTemplate mongoTemplate;
+    private NotificationRepository notificationRepository;
+    private UnreadCounterService unreadCounterService;
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        notificationRepository = mock(NotificationRepository.class);
+        unreadCounterService = mock(UnreadCounterService.class);
+
+        service = new NotificationService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(service, "unreadCounterService", unreadCounterService);
+        ReflectionTestUtils.setField(service, "messagingTemplate", mock(SimpMessagingTemplate.class));
+    }
+
+    @Test
+    void concurrentMarkAsReadDecrementsTheCounterOnce() throws Exception {
+        AtomicBoolean read = new AtomicBoolean(false);
+        // Mise à jour conditionnelle {_id, read:false} : seul le premier appel trouve le document non lu
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Notification.class))).thenAnswer(invocation ->
+                read.compareAndSet(false, true) ? notification(true) : null);
+        when(notificationRepository.findById(NOTIFICATION_ID)).thenReturn(Optional.of(notification(true)));
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Notification>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.markAsRead(NOTIFICATION_ID);
+            }));
+        }
+        start.countDown();
+        for (Future<Notification> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS).isRead());
+        }
+        executor.shutdown();
+
+        verify(unreadCounterService, times(1)).add(USER_ID, -1);
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void markAllAsReadDecrementsByTheModifiedCountInsteadOfResetting() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Notification.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        service.markAllAsRead(USER_ID);
+
+        verify(unreadCounterService).add(USER_ID, -3);
+    }
+
+    @Test
+    void deletingAReadNotificationLeavesTheCounterUntouched() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Notification.class))).thenReturn(notification(true));
+
+        service.deleteNotification(NOTIFICATION_ID);
+
+        verify(unreadCounterService, never()).add(anyString(), anyLong());
+    }
+
+    @Test
+    void deletingAnUnreadNotificationDecrementsTheCounter() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Notification.class))).thenReturn(notification(false));
+
+        service.deleteNotification(NOTIFICATION_ID);
+
+        verify(unreadCounterService).add(USER_ID, -1);
+    }
+
+    private static Notification notification(boolean read) {
+        Notification notification = new Notification();
+        notification.setId(NOTIFICATION_ID);
+        notification.setUserId(USER_ID);
+        notification.setRead(read);
+        return notification;
+    }
+}
@@ -0,0 +1,114 @@
+package com.move.communitynotificationservice.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.move.communitynotificationservice.model.Notification;
+import com.move.communitynotificationservice.model.UserCounter;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UnreadCounterServiceTest {
+
+    private static final String USER_ID = "user-1";
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private UnreadCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(UserCounter.class))).thenReturn(bulk);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("job_leases"))).thenReturn(new Document("_id", "unread-counter-reconciliation"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("job_leases")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Pas de réconciliation planifiée ; délai de stabilisation nul
+        service = new UnreadCounterService(mongoTemplate, 4, 100, Duration.ofSeconds(30), Duration.ZERO,
+                500, Duration.ofMinutes(10), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void aDriftCausedByAPendingIncrementIsNotCorrected() {
+        // Notification écrite, $inc pas encore appliqué : 3 au compteur pour 4 non lues
+        givenCounters(counter(3), counter(4));
+        givenUnread(4, 4);
+
+        assertEquals(0, service.reconcile());
+
+        verify(bulk, never()).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, never()).execute();
+    }
+
+    @Test
+    void aStableDriftIsCorrected() {
+        givenCounters(counter(7), counter(7));
+        givenUnread(4, 4);
+
+        assertEquals(1, service.reconcile());
+
+        verify(bulk).updateOne(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+    }
+
+    @Test
+    void aCounterInLineIsNotRechecked() {
+        givenCounters(counter(4));
+        givenUnread(4);
+
+        assertEquals(0, service.reconcile());
+
+        // Une seule lecture des compteurs : aucun écart à revoir
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(UserCounter.class));
+        verify(bulk, never()).execute();
+    }
+
+    private void givenCounters(UserCounter first, UserCounter... next) {
+        List<UserCounter>[] pages = Arrays.stream(next).map(List::of).toArray(List[]::new);
+        when(mongoTemplate.find(any(Query.class), eq(UserCounter.class))).thenReturn(List.of(first), pages);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenUnread(long first, long... next) {
+        AggregationResults<Document>[] results = Arrays.stream(next)
+                .mapToObj(UnreadCounterServiceTest::unread)
+                .toArray(AggregationResults[]::new);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Notification.class), eq(Document.class)))
+                .thenReturn(unread(first), results);
+    }
+
+    private static AggregationResults<Document> unread(long count) {
+        return new AggregationResults<>(List.of(new Document("_id", USER_ID).append("count", count)), new Document());
+    }
+
+    private static UserCounter counter(long unread) {
+        UserCounter counter = new UserCounter();
+        counter.setId(USER_ID);
+        counter.setUnreadNotifications(unread);
+        return counter;
+    }
+}
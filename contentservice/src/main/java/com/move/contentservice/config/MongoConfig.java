@@ -1,10 +1,12 @@
 package com.move.contentservice.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.core.convert.DbRefResolver;
 import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
 import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
@@ -27,4 +29,14 @@ public class MongoConfig {
         converter.setTypeMapper(new DefaultMongoTypeMapper(null));
         return converter;
     }
-}
\ No newline at end of file
+
+    /**
+     * Rend effectifs les @Transactional de ContentService : contenu et entrée d'outbox écrits atomiquement.
+     * Nécessite un replica set (désactivé par défaut, l'instance Mongo de docker-compose est autonome).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "content.events.outbox.transactions", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
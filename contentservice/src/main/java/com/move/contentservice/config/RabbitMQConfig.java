@@ -1,10 +1,12 @@
 package com.move.contentservice.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,39 +25,52 @@ public class RabbitMQConfig {
     @Value("${content.events.content-deleted-routing-key}")
     private String contentDeletedRoutingKey;
 
+    // File propre à ce service : chaque service consommateur déclare la sienne sur le même exchange
+    @Value("${content.events.queue}")
+    private String contentEventsQueue;
+
     @Bean
     public TopicExchange contentExchange() {
         return new TopicExchange(exchange);
     }
 
     @Bean
-    public Queue contentCreatedQueue() {
-        return new Queue("content.created.queue", true);
-    }
-
-    @Bean
-    public Queue contentUpdatedQueue() {
-        return new Queue("content.updated.queue", true);
+    public Queue contentEventsQueue() {
+        return new Queue(contentEventsQueue, true);
     }
 
     @Bean
-    public Queue contentDeletedQueue() {
-        return new Queue("content.deleted.queue", true);
+    public Binding bindingCreatedQueue(Queue contentEventsQueue, TopicExchange contentExchange) {
+        return BindingBuilder.bind(contentEventsQueue).to(contentExchange).with(contentCreatedRoutingKey);
     }
 
     @Bean
-    public Binding bindingCreatedQueue(Queue contentCreatedQueue, TopicExchange contentExchange) {
-        return BindingBuilder.bind(contentCreatedQueue).to(contentExchange).with(contentCreatedRoutingKey);
+    public Binding bindingUpdatedQueue(Queue contentEventsQueue, TopicExchange contentExchange) {
+        return BindingBuilder.bind(contentEventsQueue).to(contentExchange).with(contentUpdatedRoutingKey);
     }
 
     @Bean
-    public Binding bindingUpdatedQueue(Queue contentUpdatedQueue, TopicExchange contentExchange) {
-        return BindingBuilder.bind(contentUpdatedQueue).to(contentExchange).with(contentUpdatedRoutingKey);
+    public Binding bindingDeletedQueue(Queue contentEventsQueue, TopicExchange contentExchange) {
+        return BindingBuilder.bind(contentEventsQueue).to(contentExchange).with(contentDeletedRoutingKey);
     }
 
+    /**
+     * Conteneur du consommateur content.* : prefetch et nombre de consommateurs réglables pour ce service seul
+     */
     @Bean
-    public Binding bindingDeletedQueue(Queue contentDeletedQueue, TopicExchange contentExchange) {
-        return BindingBuilder.bind(contentDeletedQueue).to(contentExchange).with(contentDeletedRoutingKey);
+    public SimpleRabbitListenerContainerFactory contentEventsContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${content.events.consumer.prefetch:50}") int prefetch,
+            @Value("${content.events.consumer.concurrency:1}") int concurrency,
+            @Value("${content.events.consumer.max-concurrency:1}") int maxConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setPrefetchCount(prefetch);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        return factory;
     }
 
     @Bean
@@ -63,8 +78,9 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter();
     }
 
+    // Type RabbitTemplate : le relais de l'outbox publie par lots avec confirmations (invoke / waitForConfirms)
     @Bean
-    public AmqpTemplate amqpTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate amqpTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(messageConverter());
         return rabbitTemplate;
@@ -0,0 +1,28 @@
+package com.move.contentservice.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+/**
+ * MultipartResolver standard, sauf pour l'upload en flux dont le corps doit rester intact :
+ * lu directement par MediaStreamUploadService ici, relayé tel quel par MediaUploadStreamProxy dans la gateway
+ * (qui importe cette configuration).
+ */
+@Configuration
+public class StreamingMultipartConfig {
+
+    public static final String STREAM_UPLOAD_PATH = "/api/media/upload/stream";
+
+    @Bean(name = "multipartResolver")
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                return !STREAM_UPLOAD_PATH.equals(request.getRequestURI()) && super.isMultipart(request);
+            }
+        };
+    }
+}
@@ -1,7 +1,6 @@
 package com.move.contentservice.controller;
 
 import com.move.contentservice.dto.ContentDTO;
-import com.move.contentservice.event.ContentEventPublisher;
 import com.move.contentservice.mapper.ContentMapper;
 import com.move.contentservice.model.Content;
 import com.move.contentservice.model.ContentType;
@@ -33,7 +32,6 @@ public class ContentController {
     private final ContentRepository contentRepository;
 
     private final ContentService contentService;
-    private final ContentEventPublisher contentEventPublisher;
 
     /**
      * Extracts user ID from request attributes and ensures it's properly formatted.
@@ -98,17 +96,9 @@ public class ContentController {
 
         contentDTO.setUserId(userId);
 
-        // 1️⃣ Créer le contenu
+        // Crée le contenu ; l'événement content.created est publié par ContentService
         ContentDTO createdContent = contentService.createContent(contentDTO);
 
-        // 2️⃣ Publier l'événement vers RabbitMQ (clé: content.created)
-        try {
-            contentEventPublisher.publishContentCreated(createdContent);
-            log.info("📤 Événement 'content.created' publié pour l'ID: {}", createdContent.getId());
-        } catch (Exception e) {
-            log.error("❌ Échec de publication de l'événement RabbitMQ", e);
-        }
-
         return ResponseEntity.ok(createdContent);
     }
 
@@ -138,9 +128,6 @@ public class ContentController {
         contentDTO.setUserId(userId);
 
         ContentDTO updated = contentService.updateContent(id, contentDTO);
-
-        // Publish the event after updating
-        contentEventPublisher.publishContentUpdated(updated);
         log.debug("Content updated successfully");
 
         return ResponseEntity.ok(updated);
@@ -195,9 +182,6 @@ public class ContentController {
             return ResponseEntity.status(403).build();
         }
 
-        // Publish the event before deleting
-        contentEventPublisher.publishContentDeleted(content);
-
         contentService.deleteContent(id);
         log.debug("Content deleted successfully");
 
@@ -262,13 +246,15 @@ public class ContentController {
     @PreAuthorize("isAuthenticated()")
     @PostMapping("/{id}/like")
     public ResponseEntity<ContentDTO> likeContent(@PathVariable String id) {
-        return ResponseEntity.ok(contentService.likeContent(id));
+        ContentDTO liked = contentService.likeContent(id);
+        return ResponseEntity.ok(liked);
     }
 
     @PreAuthorize("isAuthenticated()")
     @PostMapping("/{id}/unlike")
     public ResponseEntity<ContentDTO> unlikeContent(@PathVariable String id) {
-        return ResponseEntity.ok(contentService.unlikeContent(id));
+        ContentDTO unliked = contentService.unlikeContent(id);
+        return ResponseEntity.ok(unliked);
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -1,8 +1,11 @@
 package com.move.contentservice.controller;
 
 import com.move.contentservice.dto.MediaDTO;
+import com.move.contentservice.service.MediaDeliveryService;
 import com.move.contentservice.service.MediaService;
+import com.move.contentservice.service.MediaStreamUploadService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 @RestController
@@ -21,6 +25,8 @@ import java.util.List;
 public class MediaController {
 
     private final MediaService mediaService;
+    private final MediaDeliveryService mediaDeliveryService;
+    private final MediaStreamUploadService mediaStreamUploadService;
 
     /**
      * Upload d'un média général (photo, vidéo, etc.)
@@ -78,6 +84,17 @@ public class MediaController {
         return ResponseEntity.ok(uploaded);
     }
 
+    /**
+     * Upload en flux d'un média volumineux : le corps multipart n'est pas mis en tampon,
+     * le fichier est écrit directement dans le dossier du contenu
+     */
+    @PreAuthorize("hasAnyRole('TRAVELER', 'ADMIN', 'MASTERADMIN')")
+    @PostMapping("/upload/stream")
+    public ResponseEntity<MediaDTO> uploadMediaStream(HttpServletRequest request) throws IOException {
+        MediaDTO uploaded = mediaStreamUploadService.upload(request);
+        return ResponseEntity.ok(uploaded);
+    }
+
     /**
      * Récupérer l'image de couverture d'un contenu
      */
@@ -126,19 +143,13 @@ public class MediaController {
      * Cette méthode est plus pratique pour le frontend car elle utilise directement l'ID du média
      */
     @GetMapping("/file/{mediaId}")
-    public ResponseEntity<Resource> getFileByMediaId(@PathVariable String mediaId, HttpServletRequest request) {
+    public void getFileByMediaId(@PathVariable String mediaId,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
         MediaDTO media = mediaService.getMediaById(mediaId);
-        Resource resource = mediaService.loadFileAsResourceByContentId(media.getContentId(), media.getFileName());
-
-        String contentType = media.getFileType();
-        if (contentType == null) {
-            contentType = "application/octet-stream";
-        }
+        Path file = mediaService.resolveStoredFile(media.getContentId(), media.getFileName());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        mediaDeliveryService.serve(file, media.getFileType(), request, response);
     }
 
     /**
@@ -146,27 +157,16 @@ public class MediaController {
      * Cette méthode permet d'accéder aux fichiers organisés par dossier contentId
      */
     @GetMapping("/files/{contentId}/{fileName:.+}")
-    public ResponseEntity<Resource> getFileByContentId(@PathVariable String contentId,
-                                                       @PathVariable String fileName,
-                                                       HttpServletRequest request) {
-        Resource resource = mediaService.loadFileAsResourceByContentId(contentId, fileName);
+    public void getFileByContentId(@PathVariable String contentId,
+                                   @PathVariable String fileName,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        Path file = mediaService.resolveStoredFile(contentId, fileName);
 
         // Déterminer le type de contenu
-        String contentType;
-        try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            contentType = "application/octet-stream";
-        }
-
-        if (contentType == null) {
-            contentType = "application/octet-stream";
-        }
+        String contentType = request.getServletContext().getMimeType(file.toString());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        mediaDeliveryService.serve(file, contentType, request, response);
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.move.contentservice.controller;
+
+import com.move.contentservice.event.ContentOutboxRelay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/outbox")
+@RequiredArgsConstructor
+public class OutboxController {
+
+    private final ContentOutboxRelay contentOutboxRelay;
+
+    /**
+     * Rejoue les événements écartés vers content_event_outbox_dead, à lancer une fois la cause du refus corrigée
+     */
+    @PostMapping("/dead-letters/replay")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MASTERADMIN')")
+    public ResponseEntity<String> replayDeadLetters() {
+        int replayed = contentOutboxRelay.replayDeadLetters();
+        return ResponseEntity.ok(replayed + " événement(s) remis dans l'outbox.");
+    }
+}
@@ -18,6 +18,7 @@ public class MediaDTO {
     private String fileSize;
     private String fileName;
     private String thumbnailName;  // Nom du fichier miniature
+    private String mediumName;     // Nom de la version moyenne
     private String mediaType;
     private Integer displayOrder;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX", timezone = "UTC")
@@ -31,4 +32,5 @@ public class MediaDTO {
     private String fileUrl;           // URL d'accès par mediaId
     private String alternativeUrl;    // URL d'accès par contentId/fileName
     private String thumbnailUrl;      // URL d'accès à la miniature
+    private String mediumUrl;         // URL d'accès à la version moyenne
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.move.contentservice.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.move.contentservice.dto.ContentDTO;
+import com.move.contentservice.dto.DayProgramDTO;
+import com.move.contentservice.dto.LocationDTO;
+import com.move.contentservice.model.ContentType;
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement publié sur content.events.exchange pour chaque création, modification ou suppression de contenu.
+ * <p>
+ * Il porte tout ce dont l'indexation et les notifications ont besoin, sans rappel REST vers ce service.
+ * Les champs du contenu gardent les noms de ContentDTO : un consommateur qui désérialise en ContentDTO
+ * continue de fonctionner. Le schéma n'évolue que par ajout de champs (ignorés par les anciens consommateurs) ;
+ * SCHEMA_VERSION n'est incrémenté que pour un changement incompatible.
+ * sequence (Content.version au moment de l'écriture) croît strictement pour un même contenu :
+ * un consommateur ignore tout événement plus ancien que le dernier appliqué.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentEvent {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    // Enveloppe
+    private int schemaVersion;
+    private String eventId;
+    private String eventType;
+    private long sequence;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX", timezone = "UTC")
+    private Date occurredAt;
+
+    // Contenu
+    private String id;
+    private String title;
+    private String description;
+    private String userId;
+    private ContentType type;
+    private Double budget;
+    private int rating;
+    private int likeCount;
+    private Boolean isPublished;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX", timezone = "UTC")
+    private Date creationDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX", timezone = "UTC")
+    private Date lastModified;
+
+    private List<LocationDTO> locations;
+    private List<DayProgramDTO> dayPrograms;
+
+    public static ContentEvent of(String eventType, long sequence, ContentDTO content) {
+        return ContentEvent.builder()
+                .schemaVersion(SCHEMA_VERSION)
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .sequence(sequence)
+                .occurredAt(new Date())
+                .id(content.getId())
+                .title(content.getTitle())
+                .description(content.getDescription())
+                .userId(content.getUserId())
+                .type(content.getType())
+                .budget(content.getBudget())
+                .rating(content.getRating())
+                .likeCount(content.getLikeCount())
+                .isPublished(content.getIsPublished())
+                .creationDate(content.getCreationDate())
+                .lastModified(content.getLastModified())
+                .locations(content.getLocations())
+                .dayPrograms(content.getDayPrograms())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.move.contentservice.event;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Événement content.* en attente de publication, supprimé une fois confirmé par RabbitMQ.
+ * attempts compte les publications refusées de cette entrée ; au-delà du maximum elle est déplacée,
+ * avec lastError, dans content_event_outbox_dead.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "content_event_outbox")
+public class ContentOutboxEntry {
+
+    @Id
+    private String id;
+    private String routingKey;
+    private ContentEvent event;
+    private Date createdAt;
+    private int attempts;
+    private String lastError;
+}
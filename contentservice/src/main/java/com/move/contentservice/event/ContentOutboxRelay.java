@@ -0,0 +1,287 @@
+package com.move.contentservice.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relais de l'outbox content_event_outbox vers content.events.exchange.
+ * <p>
+ * Une seule instance relaie à la fois (bail dans job_leases, renouvelé à chaque lot) : les entrées sont
+ * publiées dans l'ordre de leur _id. Chaque lot est publié sur un même canal puis confirmé par le broker en une fois ;
+ * les entrées ne sont supprimées qu'après confirmation.
+ * <p>
+ * Si le broker refuse le lot (nack), ses entrées sont republiées une par une pour isoler celles qu'il refuse :
+ * seule une entrée refusée par le broker (ou non sérialisable) voit attempts incrémenté et, au-delà de max-attempts,
+ * part dans content_event_outbox_dead pour ne plus bloquer les suivantes ; replayDeadLetters les remet dans l'outbox.
+ * Délai de confirmation dépassé, canal ou connexion perdus sont une panne du broker : rien n'est imputé aux entrées
+ * et le relais réessaie après retry-delay-ms. La livraison est « au moins une fois » :
+ * les consommateurs écartent doublons et événements en retard grâce à la séquence de ContentEvent.
+ */
+@Component
+public class ContentOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentOutboxRelay.class);
+
+    static final String DEAD_LETTER_COLLECTION = "content_event_outbox_dead";
+    private static final String LEASES = "job_leases";
+    private static final String LEASE_ID = "content-outbox-relay";
+
+    private final MongoTemplate mongoTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long leaseMs;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+
+    // Identifiant de cette instance pour le bail
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService relay = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "content-outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final Counter publishedCounter;
+    private final Counter failureCounter;
+    private final Counter deadLetterCounter;
+
+    // Accédé uniquement depuis le thread du relais
+    private long pausedUntil;
+    private volatile boolean leaseHeld;
+
+    public ContentOutboxRelay(MongoTemplate mongoTemplate,
+                              RabbitTemplate rabbitTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${content.events.exchange}") String exchange,
+                              @Value("${content.events.outbox.batch-size:100}") int batchSize,
+                              @Value("${content.events.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                              @Value("${content.events.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                              @Value("${content.events.outbox.lease-ms:30000}") long leaseMs,
+                              @Value("${content.events.outbox.retry-delay-ms:5000}") long retryDelayMs,
+                              @Value("${content.events.outbox.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.leaseMs = leaseMs;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.publishedCounter = Counter.builder("content.events.outbox.published").register(meterRegistry);
+        this.failureCounter = Counter.builder("content.events.outbox.failures").register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("content.events.outbox.dead-lettered").register(meterRegistry);
+
+        // Le passage périodique prend le relais d'une instance arrêtée et reprend les publications en échec
+        relay.scheduleWithFixedDelay(this::drainSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Demande un passage immédiat (appelé après l'écriture d'une entrée) ; les demandes rapprochées sont regroupées
+     */
+    public void wakeUp() {
+        if (!relay.isShutdown() && wakeUpPending.compareAndSet(false, true)) {
+            relay.execute(() -> {
+                wakeUpPending.set(false);
+                drainSafely();
+            });
+        }
+    }
+
+    void drainSafely() {
+        if (System.currentTimeMillis() < pausedUntil) {
+            return;
+        }
+        try {
+            // Lots successifs tant qu'ils sont complets : il reste probablement des entrées
+            int processed;
+            do {
+                if (!acquireLease()) {
+                    return;
+                }
+                processed = publishBatch();
+            } while (processed == batchSize);
+        } catch (Exception e) {
+            failureCounter.increment();
+            pausedUntil = System.currentTimeMillis() + retryDelayMs;
+            log.warn("Publication de l'outbox interrompue, nouvel essai dans {} ms: {}", retryDelayMs, e.getMessage());
+        }
+    }
+
+    /**
+     * Publie et supprime un lot ; retourne le nombre d'entrées publiées.
+     * Toute exception autre qu'un refus des entrées (panne du broker) remonte à drainSafely.
+     */
+    private int publishBatch() {
+        List<ContentOutboxEntry> entries = mongoTemplate.find(
+                new Query().with(Sort.by("_id")).limit(batchSize), ContentOutboxEntry.class);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        boolean confirmed;
+        try {
+            confirmed = publish(entries);
+        } catch (MessageConversionException e) {
+            confirmed = false;
+        }
+        if (!confirmed) {
+            log.warn("Lot de {} événement(s) refusé par le broker, publication entrée par entrée", entries.size());
+            // Lot incomplet : les entrées refusées seront retentées au passage suivant
+            return publishOneByOne(entries);
+        }
+
+        remove(entries);
+        publishedCounter.increment(entries.size());
+        log.debug("{} événement(s) de l'outbox publié(s) et confirmé(s)", entries.size());
+        return entries.size();
+    }
+
+    private int publishOneByOne(List<ContentOutboxEntry> entries) {
+        int published = 0;
+        boolean refused = false;
+        for (ContentOutboxEntry entry : entries) {
+            String error;
+            try {
+                if (publish(List.of(entry))) {
+                    remove(List.of(entry));
+                    publishedCounter.increment();
+                    published++;
+                    continue;
+                }
+                error = "Refusé par le broker (nack)";
+            } catch (MessageConversionException e) {
+                error = e.getMessage();
+            }
+            recordFailure(entry, error);
+            refused = true;
+        }
+        if (refused) {
+            // Espace les tentatives : un refus passager du broker ne doit pas épuiser max-attempts en quelques secondes
+            pausedUntil = System.currentTimeMillis() + retryDelayMs;
+        }
+        return published;
+    }
+
+    /**
+     * Retourne false si le broker refuse (nack) au moins un message ; un délai dépassé
+     * (AmqpTimeoutException) ou un canal fermé lèvent une exception
+     */
+    private boolean publish(List<ContentOutboxEntry> entries) {
+        return Boolean.TRUE.equals(rabbitTemplate.invoke(operations -> {
+            for (ContentOutboxEntry entry : entries) {
+                operations.convertAndSend(exchange, entry.getRoutingKey(), entry.getEvent());
+            }
+            return operations.waitForConfirms(confirmTimeoutMs);
+        }));
+    }
+
+    private void recordFailure(ContentOutboxEntry entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts < maxAttempts) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(entry.getId())),
+                    new Update().set("attempts", attempts).set("lastError", error), ContentOutboxEntry.class);
+            return;
+        }
+        entry.setAttempts(attempts);
+        entry.setLastError(error);
+        mongoTemplate.insert(entry, DEAD_LETTER_COLLECTION);
+        remove(List.of(entry));
+        deadLetterCounter.increment();
+        log.error("Événement {} ({}) écarté vers {} après {} tentative(s): {}",
+                entry.getId(), entry.getRoutingKey(), DEAD_LETTER_COLLECTION, attempts, error);
+    }
+
+    /**
+     * Remet dans l'outbox les entrées écartées vers content_event_outbox_dead (tentatives remises à zéro) ;
+     * retourne le nombre d'entrées rejouées
+     */
+    public int replayDeadLetters() {
+        List<ContentOutboxEntry> dead = mongoTemplate.find(new Query().with(Sort.by("_id")),
+                ContentOutboxEntry.class, DEAD_LETTER_COLLECTION);
+        for (ContentOutboxEntry entry : dead) {
+            entry.setAttempts(0);
+            entry.setLastError(null);
+            // save par _id : rejouer deux fois la même entrée ne la duplique pas
+            mongoTemplate.save(entry);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(entry.getId())), DEAD_LETTER_COLLECTION);
+        }
+        if (!dead.isEmpty()) {
+            log.info("{} événement(s) de {} remis dans l'outbox", dead.size(), DEAD_LETTER_COLLECTION);
+            wakeUp();
+        }
+        return dead.size();
+    }
+
+    private void remove(List<ContentOutboxEntry> entries) {
+        List<String> ids = entries.stream().map(ContentOutboxEntry::getId).toList();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), ContentOutboxEntry.class);
+    }
+
+    /**
+     * Prend ou prolonge le bail du relais ; retourne false si une autre instance le détient
+     */
+    private boolean acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("lockedUntil").is(null),
+                Criteria.where("owner").is(owner)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", new Date(now.getTime() + leaseMs));
+        try {
+            leaseHeld = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, LEASES) != null;
+        } catch (DuplicateKeyException e) {
+            // Le document existe et le bail est détenu par une autre instance
+            leaseHeld = false;
+        }
+        return leaseHeld;
+    }
+
+    private void releaseLease() {
+        if (!leaseHeld) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(owner)),
+                    new Update().set("lockedUntil", new Date()), LEASES);
+        } catch (Exception e) {
+            // Le bail expirera de lui-même
+            log.warn("Libération du bail du relais impossible: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+        releaseLease();
+    }
+}
@@ -0,0 +1,54 @@
+package com.move.contentservice.event;
+
+import com.move.contentservice.model.Content;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Initialise Content.version à 1 pour les contenus écrits avant son introduction.
+ * <p>
+ * Un contenu lu avec la version 0 est considéré comme nouveau par Spring Data : save() tenterait une insertion
+ * et échouerait sur la clé dupliquée. L'initialisation a donc lieu pendant le démarrage du contexte, avant que
+ * le serveur web et les listeners n'acceptent des écritures, et un échec interrompt le démarrage.
+ * Idempotent : seuls les documents sans version sont modifiés.
+ */
+@Component
+public class ContentVersionInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentVersionInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public ContentVersionInitializer(MongoTemplate mongoTemplate,
+                                     @Value("${content.versions.initialize-on-startup:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void initializeVersions() {
+        if (!enabled) {
+            log.info("Initialisation des versions de contenu désactivée (content.versions.initialize-on-startup)");
+            return;
+        }
+        UpdateResult result;
+        try {
+            result = mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 1L), Content.class);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Initialisation des versions de contenu impossible, démarrage interrompu", e);
+        }
+        if (result.getModifiedCount() > 0) {
+            log.info("Versions de contenu initialisées à 1 : {} contenu(s)", result.getModifiedCount());
+        }
+    }
+}
@@ -1,29 +1,54 @@
 package com.move.contentservice.listener;
 
 import com.move.contentservice.dto.ContentDTO;
-import com.move.contentservice.model.Content;
 import com.move.contentservice.repository.ContentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+/**
+ * Unique consommateur de la file content.* du service : l'événement est aiguillé selon sa clé de routage
+ */
 @Component
 @Slf4j
 public class ContentEventListener {
 
     private final ContentRepository contentRepository;
 
+    @Value("${content.events.content-created-routing-key}")
+    private String contentCreatedRoutingKey;
+
+    @Value("${content.events.content-updated-routing-key}")
+    private String contentUpdatedRoutingKey;
+
+    @Value("${content.events.content-deleted-routing-key}")
+    private String contentDeletedRoutingKey;
+
     public ContentEventListener(ContentRepository contentRepository) {
         this.contentRepository = contentRepository;
     }
 
-    @RabbitListener(queues = "content.created.queue")
-    public void handleContentCreated(ContentDTO dto) {
+    @RabbitListener(queues = "${content.events.queue}", containerFactory = "contentEventsContainerFactory")
+    public void handleContentEvent(ContentDTO dto, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        if (contentCreatedRoutingKey.equals(routingKey)) {
+            handleContentCreated(dto);
+        } else if (contentUpdatedRoutingKey.equals(routingKey)) {
+            handleContentUpdatedEvent(dto);
+        } else if (contentDeletedRoutingKey.equals(routingKey)) {
+            handleContentDeletedEvent(dto);
+        } else {
+            log.warn("⚠️ Clé de routage inattendue ignorée: {}", routingKey);
+        }
+    }
+
+    private void handleContentCreated(ContentDTO dto) {
         log.info("📨 Event reçu — ID: {}, Titre: {}", dto.getId(), dto.getTitle());
     }
 
-    @RabbitListener(queues = "content.updated.queue")
-    public void handleContentUpdatedEvent(ContentDTO dto) {
+    private void handleContentUpdatedEvent(ContentDTO dto) {
         log.info("📨 Event reçu — Type: updated, ID: {}, Titre: {}", dto.getId(), dto.getTitle());
 
         contentRepository.findById(dto.getId()).ifPresentOrElse(
@@ -32,9 +57,8 @@ public class ContentEventListener {
         );
     }
 
-    @RabbitListener(queues = "content.deleted.queue")
-    public void handleContentDeletedEvent(ContentDTO dto) {
+    private void handleContentDeletedEvent(ContentDTO dto) {
         log.info("📨 Event reçu — Type: deleted, ID: {}, User ID: {}", dto.getId(), dto.getUserId());
         log.info("🗑️ Content deleted — ID: {}", dto.getId());
     }
-}
\ No newline at end of file
+}
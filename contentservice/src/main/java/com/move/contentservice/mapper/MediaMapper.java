@@ -24,6 +24,7 @@ public class MediaMapper {
                 .displayOrder(media.getDisplayOrder())
                 .fileName(media.getFileName())
                 .thumbnailName(media.getThumbnailName())
+                .mediumName(media.getMediumName())
                 .build();
     }
 
@@ -44,6 +45,7 @@ public class MediaMapper {
                 .displayOrder(dto.getDisplayOrder())
                 .fileName(dto.getFileName())
                 .thumbnailName(dto.getThumbnailName())
+                .mediumName(dto.getMediumName())
                 .build();
     }
 }
\ No newline at end of file
@@ -23,6 +23,8 @@ public class Media {
     private String fileSize;
     private String fileName;
     private String thumbnailName;  // Nom du fichier miniature
+    private String mediumName;     // Nom de la version moyenne (images uniquement)
+    private String derivativeError; // Cause de l'abandon des déclinaisons, le rattrapage ignore ce média
     private String mediaType;      // "COVER", "ALBUM", "VIDEO"
     private Integer displayOrder;
 
@@ -1,15 +1,14 @@
 package com.move.contentservice.security;
 
+import com.move.security.IdentityHeaderVerifier;
+import com.move.security.JwtTokenVerifier;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,7 +17,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Key;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -30,19 +28,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final IdentityHeaderVerifier identityHeaderVerifier;
+
+    public JwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier, IdentityHeaderVerifier identityHeaderVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.identityHeaderVerifier = identityHeaderVerifier;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        // Requête relayée par la gateway : l'identité signée suffit, pas de re-validation du JWT
+        IdentityHeaderVerifier.Identity identity = identityHeaderVerifier.verify(request.getHeader(IdentityHeaderVerifier.HEADER));
+        if (identity != null) {
+            logger.debug("Identité gateway vérifiée: {}, ID: {}", identity.username(), identity.userId());
+            authenticate(request, response, identity.username(), identity.userId(), identity.roles());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         try {
             String token = extractToken(request);
 
-            if (StringUtils.hasText(token) && validateToken(token)) {
-                Claims claims = parseClaims(token);
+            // Un seul parsing du token par requête (et aucun si déjà vérifié récemment)
+            Claims claims = StringUtils.hasText(token) ? validateToken(token) : null;
 
+            if (claims != null) {
                 String username = claims.getSubject();
 
                 // CORRECTION: Priorité au userId exact du token
@@ -84,28 +97,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             .collect(Collectors.toList());
                 }
 
-                logger.debug("Utilisateur authentifié: {}, ID: {}, Rôles: {}", username, userId, authorities);
-
-                List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, grantedAuthorities);
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                // Injecter l'ID de l'utilisateur dans la requête
-                request.setAttribute("userId", userId);
-                request.setAttribute("username", username);
-                request.setAttribute("roles", String.join(",", authorities));
-
-                // Ajouter également les headers pour forwarding
-                // Ces headers ne seront pas utilisés dans ce service mais peuvent être
-                // utiles lors du forward vers d'autres services
-                response.setHeader("X-User-Id", userId);
-                response.setHeader("X-Username", username);
-                response.setHeader("X-User-Roles", String.join(",", authorities));
+                authenticate(request, response, username, userId, authorities);
             }
 
         } catch (ExpiredJwtException e) {
@@ -122,6 +114,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(HttpServletRequest request, HttpServletResponse response,
+                              String username, String userId, List<String> authorities) {
+        logger.debug("Utilisateur authentifié: {}, ID: {}, Rôles: {}", username, userId, authorities);
+
+        List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(username, null, grantedAuthorities);
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        // Injecter l'ID de l'utilisateur dans la requête
+        request.setAttribute("userId", userId);
+        request.setAttribute("username", username);
+        request.setAttribute("roles", String.join(",", authorities));
+
+        // Ajouter également les headers pour forwarding
+        // Ces headers ne seront pas utilisés dans ce service mais peuvent être
+        // utiles lors du forward vers d'autres services
+        response.setHeader("X-User-Id", userId);
+        response.setHeader("X-Username", username);
+        response.setHeader("X-User-Roles", String.join(",", authorities));
+    }
+
     private String extractToken(HttpServletRequest request) {
         String bearer = request.getHeader("Authorization");
         return (StringUtils.hasText(bearer) && bearer.startsWith("Bearer "))
@@ -129,31 +148,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 : null;
     }
 
-    private boolean validateToken(String token) {
+    private Claims validateToken(String token) {
         try {
-            parseClaims(token); // tentative de parsing, lèvera une exception si invalide
-            return true;
+            return jwtTokenVerifier.verify(token);
         } catch (JwtException | IllegalArgumentException e) {
             logger.warn("Échec validation token JWT : {}", e.getMessage());
-            return false;
+            return null;
         }
     }
-
-    private Claims parseClaims(String token) {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-
-        if (keyBytes.length < 32) {
-            byte[] paddedKey = new byte[32];
-            System.arraycopy(keyBytes, 0, paddedKey, 0, Math.min(keyBytes.length, 32));
-            keyBytes = paddedKey;
-        }
-
-        Key key = Keys.hmacShaKeyFor(keyBytes);
-
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-}
\ No newline at end of file
+}
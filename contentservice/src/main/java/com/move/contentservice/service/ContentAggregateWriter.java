@@ -0,0 +1,147 @@
+package com.move.contentservice.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.move.contentservice.model.ActivityPoint;
+import com.move.contentservice.model.Content;
+import com.move.contentservice.model.DayProgram;
+import com.move.contentservice.model.Location;
+import com.move.contentservice.model.Media;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Persists the children of a Content aggregate (Media, Location, DayProgram, ActivityPoint)
+ * with one unordered bulk write per collection instead of one save() per document.
+ * Ids are generated client-side so that parent references can be set before anything is written.
+ */
+@Component
+public class ContentAggregateWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentAggregateWriter.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public ContentAggregateWriter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Génère les ObjectId manquants et renseigne les références parent (contentId, dayProgramId)
+     */
+    public void assignIds(Content content) {
+        if (content.getId() == null) {
+            content.setId(newId());
+        }
+
+        content.getMedia().forEach(media -> {
+            if (media.getId() == null) {
+                media.setId(newId());
+            }
+            media.setContentId(content.getId());
+        });
+
+        content.getLocations().forEach(location -> {
+            if (location.getId() == null) {
+                location.setId(newId());
+            }
+        });
+
+        content.getDayPrograms().forEach(day -> {
+            if (day.getId() == null) {
+                day.setId(newId());
+            }
+            day.setContentId(content.getId());
+
+            day.getActivities().forEach(activity -> {
+                if (activity.getId() == null) {
+                    activity.setId(newId());
+                }
+                activity.setDayProgramId(day.getId());
+            });
+        });
+    }
+
+    /**
+     * Insère toutes les entités enfants d'un nouveau contenu (ids déjà assignés)
+     */
+    public void insertChildren(Content content) {
+        write(Media.class, content.getMedia(), Media::getId, Mode.INSERT);
+        write(Location.class, content.getLocations(), Location::getId, Mode.INSERT);
+        write(DayProgram.class, content.getDayPrograms(), DayProgram::getId, Mode.INSERT);
+        write(ActivityPoint.class, activitiesOf(content), ActivityPoint::getId, Mode.INSERT);
+    }
+
+    /**
+     * Remplace (ou crée) toutes les entités enfants d'un contenu existant (ids déjà assignés)
+     */
+    public void upsertChildren(Content content) {
+        write(Media.class, content.getMedia(), Media::getId, Mode.UPSERT);
+        write(Location.class, content.getLocations(), Location::getId, Mode.UPSERT);
+        write(DayProgram.class, content.getDayPrograms(), DayProgram::getId, Mode.UPSERT);
+        write(ActivityPoint.class, activitiesOf(content), ActivityPoint::getId, Mode.UPSERT);
+    }
+
+    private enum Mode { INSERT, UPSERT }
+
+    private <T> void write(Class<T> type, List<T> documents, Function<T, String> idOf, Mode mode) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        String collection = mongoTemplate.getCollectionName(type);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+
+        if (mode == Mode.INSERT) {
+            bulk.insert(documents);
+        } else {
+            FindAndReplaceOptions upsert = FindAndReplaceOptions.options().upsert();
+            for (T document : documents) {
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(idOf.apply(document))), document, upsert);
+            }
+        }
+
+        long start = System.nanoTime();
+        BulkWriteResult result = bulk.execute();
+        long elapsed = System.nanoTime() - start;
+
+        Timer.builder("content.aggregate.bulk.latency")
+                .tag("collection", collection)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("content.aggregate.bulk.size")
+                .tag("collection", collection)
+                .register(meterRegistry)
+                .record(documents.size());
+
+        log.debug("Bulk {} {} : {} documents ({} insérés, {} modifiés, {} upserts) en {} ms",
+                mode, collection, documents.size(), result.getInsertedCount(), result.getModifiedCount(),
+                result.getUpserts().size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private List<ActivityPoint> activitiesOf(Content content) {
+        List<ActivityPoint> activities = new ArrayList<>();
+        content.getDayPrograms().forEach(day -> activities.addAll(day.getActivities()));
+        return activities;
+    }
+
+    private String newId() {
+        return new ObjectId().toHexString();
+    }
+}
@@ -5,13 +5,17 @@ import com.move.contentservice.exception.ResourceNotFoundException;
 import com.move.contentservice.mapper.ContentMapper;
 import com.move.contentservice.model.Content;
 import com.move.contentservice.model.ContentType;
-import com.move.contentservice.model.DayProgram;
 import com.move.contentservice.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,16 +34,10 @@ public class ContentService {
     private static final Logger log = LoggerFactory.getLogger(ContentService.class);
 
     @Autowired
-    private MediaRepository mediaRepository;
+    private ContentAggregateWriter contentAggregateWriter;
 
     @Autowired
-    private LocationRepository locationRepository;
-
-    @Autowired
-    private DayProgramRepository dayProgramRepository;
-
-    @Autowired
-    private ActivityPointRepository activityPointRepository;
+    private MongoTemplate mongoTemplate;
 
     @Autowired
     public ContentService(ContentRepository contentRepository,
@@ -71,35 +69,11 @@ public class ContentService {
         }
 
         Content content = contentMapper.toEntity(contentDTO);
-        Content savedContent = contentRepository.save(content);
 
-        // Save media
-        if (savedContent.getMedia() != null) {
-            savedContent.getMedia().forEach(media -> {
-                media.setContentId(savedContent.getId());
-                mediaRepository.save(media);
-            });
-        }
-
-        // Save locations
-        if (savedContent.getLocations() != null) {
-            savedContent.getLocations().forEach(location -> locationRepository.save(location));
-        }
-
-        // Save day programs and their activities
-        if (savedContent.getDayPrograms() != null) {
-            savedContent.getDayPrograms().forEach(day -> {
-                day.setContentId(savedContent.getId());
-                DayProgram savedDay = dayProgramRepository.save(day);
-
-                if (day.getActivities() != null) {
-                    day.getActivities().forEach(activity -> {
-                        activity.setDayProgramId(savedDay.getId());
-                        activityPointRepository.save(activity);
-                    });
-                }
-            });
-        }
+        // Ids générés côté client : le contenu puis chaque collection enfant en un seul aller-retour
+        contentAggregateWriter.assignIds(content);
+        Content savedContent = contentRepository.insert(content);
+        contentAggregateWriter.insertChildren(savedContent);
 
         eventPublisherService.publishContentCreated(savedContent);
         return contentMapper.toDTO(savedContent);
@@ -107,40 +81,18 @@ public class ContentService {
 
     @Transactional
     public ContentDTO updateContent(String id, ContentDTO contentDTO) {
-        contentRepository.findById(id)
+        Content existing = contentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + id));
 
         contentDTO.setId(id);
         contentDTO.setLastModified(new Date());
         Content updatedContent = contentMapper.toEntity(contentDTO);
+        // Écriture conditionnée à la version lue (OptimisticLockingFailureException si modifié entre-temps)
+        updatedContent.setVersion(existing.getVersion());
 
-        // Save updated media
-        if (updatedContent.getMedia() != null) {
-            updatedContent.getMedia().forEach(media -> {
-                media.setContentId(id);
-                mediaRepository.save(media);
-            });
-        }
-
-        // Save updated locations
-        if (updatedContent.getLocations() != null) {
-            updatedContent.getLocations().forEach(location -> locationRepository.save(location));
-        }
-
-        // Save updated day programs and their activities
-        if (updatedContent.getDayPrograms() != null) {
-            updatedContent.getDayPrograms().forEach(day -> {
-                day.setContentId(id);
-                DayProgram savedDay = dayProgramRepository.save(day);
-
-                if (day.getActivities() != null) {
-                    day.getActivities().forEach(activity -> {
-                        activity.setDayProgramId(savedDay.getId());
-                        activityPointRepository.save(activity);
-                    });
-                }
-            });
-        }
+        // Remplacement des entités enfants par lots (un bulk non ordonné par collection)
+        contentAggregateWriter.assignIds(updatedContent);
+        contentAggregateWriter.upsertChildren(updatedContent);
 
         Content savedContent = contentRepository.save(updatedContent);
         eventPublisherService.publishContentUpdated(savedContent);
@@ -151,7 +103,8 @@ public class ContentService {
     public void deleteContent(String id) {
         Content content = contentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + id));
-        contentRepository.deleteById(id);
+        // Suppression conditionnée à la version lue : l'événement deleted succède à la dernière écriture
+        contentRepository.delete(content);
         eventPublisherService.publishContentDeleted(content);
     }
 
@@ -231,22 +184,32 @@ public class ContentService {
 
     @Transactional
     public ContentDTO likeContent(String id) {
-        Content content = contentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + id));
-        content.setLikeCount(content.getLikeCount() + 1);
-        Content saved = contentRepository.save(content);
+        // $inc du compteur et de la version dans la même écriture : pas de like perdu entre likes concurrents
+        Content saved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update().inc("likeCount", 1).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Content.class);
+        if (saved == null) {
+            throw new ResourceNotFoundException("Content not found with id: " + id);
+        }
+        // Maintient le likeCount de l'index de recherche à jour
+        eventPublisherService.publishContentUpdated(saved);
         return contentMapper.toDTO(saved);
     }
     @Transactional
     public ContentDTO unlikeContent(String id) {
-        Content content = contentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + id));
-        int currentLikes = content.getLikeCount();
-        if (currentLikes > 0) {
-            content.setLikeCount(currentLikes - 1);
+        Content saved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("likeCount").gt(0)),
+                new Update().inc("likeCount", -1).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                Content.class);
+        if (saved == null) {
+            // Aucun like à retirer : rien n'a changé, rien à publier
+            return getContentById(id);
         }
 
-        Content saved = contentRepository.save(content);
+        eventPublisherService.publishContentUpdated(saved);
         return contentMapper.toDTO(saved);
     }
 
@@ -287,7 +250,9 @@ public class ContentService {
 
         log.info("🔒 MASTERADMIN blocked content ID: {}", contentId);
 
-        return contentRepository.save(content);
+        Content saved = contentRepository.save(content);
+        eventPublisherService.publishContentStatusChanged(saved, "blocked");
+        return saved;
     }
     @Transactional
 
@@ -303,14 +268,18 @@ public class ContentService {
 
         log.info("🔒 ADMIN blocked content ID: {}", contentId);
 
-        return contentRepository.save(content);
+        Content saved = contentRepository.save(content);
+        eventPublisherService.publishContentStatusChanged(saved, "blocked");
+        return saved;
     }
     @Transactional
     public Content approveContent(String id) {
         Content content = contentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Content not found"));
         content.setIsPublished(true);
-        return contentRepository.save(content);
+        Content saved = contentRepository.save(content);
+        eventPublisherService.publishContentStatusChanged(saved, "approved");
+        return saved;
     }
 
 
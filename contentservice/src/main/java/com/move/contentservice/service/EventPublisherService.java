@@ -1,20 +1,35 @@
 package com.move.contentservice.service;
 
+import com.move.contentservice.event.ContentEvent;
+import com.move.contentservice.event.ContentOutboxEntry;
+import com.move.contentservice.event.ContentOutboxRelay;
+import com.move.contentservice.mapper.ContentMapper;
 import com.move.contentservice.model.Content;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Date;
 
+/**
+ * Point unique de publication des événements content.* (enveloppe ContentEvent complète et versionnée).
+ * <p>
+ * L'événement n'est pas envoyé directement : il est écrit dans l'outbox content_event_outbox juste après
+ * la modification du contenu, puis publié avec confirmation par ContentOutboxRelay. Une indisponibilité de
+ * RabbitMQ retarde donc l'indexation sans perdre d'événement. Avec content.events.outbox.transactions=true
+ * (replica set requis), l'entrée est écrite dans la même transaction que le contenu.
+ * <p>
+ * La sequence publiée est Content.version, incrémentée par l'écriture même du contenu (@Version) :
+ * l'ordre des séquences suit celui des écritures, sans compteur tiré séparément.
+ */
 @Service
 public class EventPublisherService {
 
-    private final AmqpTemplate amqpTemplate;
-
-    @Value("${content.events.exchange}")
-    private String exchange;
+    private final MongoTemplate mongoTemplate;
+    private final ContentMapper contentMapper;
+    private final ContentOutboxRelay outboxRelay;
 
     @Value("${content.events.content-created-routing-key}")
     private String contentCreatedRoutingKey;
@@ -25,30 +40,54 @@ public class EventPublisherService {
     @Value("${content.events.content-deleted-routing-key}")
     private String contentDeletedRoutingKey;
 
-    public EventPublisherService(AmqpTemplate amqpTemplate) {
-        this.amqpTemplate = amqpTemplate;
+    public EventPublisherService(MongoTemplate mongoTemplate,
+                                 ContentMapper contentMapper,
+                                 ContentOutboxRelay outboxRelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentMapper = contentMapper;
+        this.outboxRelay = outboxRelay;
     }
 
     public void publishContentCreated(Content content) {
-        sendEvent(content, "created", contentCreatedRoutingKey);
+        sendEvent(content, content.getVersion(), "created", contentCreatedRoutingKey);
     }
 
     public void publishContentUpdated(Content content) {
-        sendEvent(content, "updated", contentUpdatedRoutingKey);
+        sendEvent(content, content.getVersion(), "updated", contentUpdatedRoutingKey);
     }
 
+    /**
+     * content est l'état supprimé : la suppression succède à sa dernière écriture
+     */
     public void publishContentDeleted(Content content) {
-        sendEvent(content, "deleted", contentDeletedRoutingKey);
+        sendEvent(content, content.getVersion() + 1, "deleted", contentDeletedRoutingKey);
     }
 
-    private void sendEvent(Content content, String operation, String routingKey) {
-        Map<String, Object> event = new HashMap<>();
-        event.put("id", content.getId());
-        event.put("userId", content.getUserId());
-        event.put("operation", operation);
-        amqpTemplate.convertAndSend(exchange, routingKey, event);
+    /**
+     * Publication, blocage, approbation : l'état de publication voyage dans un content.updated
+     */
+    public void publishContentStatusChanged(Content content, String status) {
+        sendEvent(content, content.getVersion(), "updated", contentUpdatedRoutingKey);
     }
 
-    public void publishContentStatusChanged(Content savedContent, String blocked) {
+    private void sendEvent(Content content, long sequence, String operation, String routingKey) {
+        ContentEvent event = ContentEvent.of(operation, sequence, contentMapper.toDTO(content));
+        mongoTemplate.insert(ContentOutboxEntry.builder()
+                .routingKey(routingKey)
+                .event(event)
+                .createdAt(new Date())
+                .build());
+
+        // Dans une transaction, l'entrée n'est visible par le relais qu'après le commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        } else {
+            outboxRelay.wakeUp();
+        }
     }
 }
@@ -0,0 +1,254 @@
+package com.move.contentservice.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Envoi des fichiers média avec support HTTP des requêtes partielles (Range, single et multipart)
+ * et des requêtes conditionnelles (If-None-Match / If-Modified-Since / If-Range).
+ * Les octets sont copiés avec FileChannel.transferTo, sans passer par un Resource en mémoire.
+ */
+@Service
+public class MediaDeliveryService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // Au-delà, une requête multi-range est servie en entier (protection contre les requêtes abusives)
+    private static final int MAX_RANGES = 16;
+
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * Écrit le fichier dans la réponse en tenant compte des en-têtes Range et conditionnels
+     */
+    public void serve(Path file, String contentType, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        // Les dates HTTP ont une précision à la seconde
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+        String mimeType = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getFileName() + "\"");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<ByteRange> ranges = List.of();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && isRangeApplicable(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(mimeType);
+                response.setContentLengthLong(length);
+                transfer(channel, 0, length, response);
+            } else if (ranges.size() == 1) {
+                ByteRange range = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(mimeType);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+                response.setContentLengthLong(range.length());
+                transfer(channel, range.start(), range.length(), response);
+            } else {
+                writeMultipart(channel, ranges, length, mimeType, response);
+            }
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match prime sur If-Modified-Since (RFC 9110 §13.2.2), comparaison faible
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            // If-Range exige une comparaison forte
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date != -1 && lastModified == date;
+    }
+
+    /**
+     * Analyse un en-tête "bytes=a-b,c-,-n".
+     * Retourne une liste vide si l'en-tête doit être ignoré, null si aucune plage n'est satisfaisable
+     * ou si des plages se chevauchent.
+     */
+    private List<ByteRange> parseRanges(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return List.of();
+        }
+
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return List.of();
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : specs) {
+            String part = spec.trim();
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                return List.of();
+            }
+            try {
+                String first = part.substring(0, dash).trim();
+                String last = part.substring(dash + 1).trim();
+                long start;
+                long end;
+                if (first.isEmpty()) {
+                    // suffixe : les n derniers octets
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(first);
+                    end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                    if (end < start) {
+                        if (!last.isEmpty() && Long.parseLong(last) < start) {
+                            return List.of(); // syntaxe invalide : on ignore l'en-tête
+                        }
+                        continue;
+                    }
+                }
+                if (start < length) {
+                    ranges.add(new ByteRange(start, end));
+                }
+            } catch (NumberFormatException e) {
+                return List.of();
+            }
+        }
+
+        if (ranges.isEmpty() || overlaps(ranges)) {
+            return null;
+        }
+        return ranges;
+    }
+
+    /**
+     * Des plages qui se chevauchent feraient renvoyer plusieurs fois les mêmes octets : la requête est refusée
+     */
+    private boolean overlaps(List<ByteRange> ranges) {
+        List<ByteRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ByteRange::start));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).start() <= sorted.get(i - 1).end()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeMultipart(FileChannel channel, List<ByteRange> ranges, long length, String mimeType,
+                                HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        long contentLength = closing.length;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + mimeType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.length();
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        for (int i = 0; i < ranges.size(); i++) {
+            response.getOutputStream().write(partHeaders.get(i));
+            ByteRange range = ranges.get(i);
+            transfer(channel, range.start(), range.length(), out);
+        }
+        response.getOutputStream().write(closing);
+    }
+
+    private void transfer(FileChannel channel, long position, long count, HttpServletResponse response) throws IOException {
+        transfer(channel, position, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private void transfer(FileChannel channel, long position, long count, WritableByteChannel out) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long n = channel.transferTo(position + transferred, count - transferred, out);
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+    }
+
+    private String contentRange(ByteRange range, long length) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + length;
+    }
+
+    private long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.move.contentservice.service;
+
+import com.move.contentservice.model.Content;
+import com.move.contentservice.model.Media;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génération asynchrone des déclinaisons d'une image (miniature et version moyenne),
+ * écrites à côté de l'original dans uploads/{contentId}.
+ * <p>
+ * Les tâches passent par une file bornée traitée par un pool fixe de workers. Le thread appelant ne traite
+ * jamais l'image lui-même : une tâche refusée (file pleine) n'est pas perdue, le média reste sans miniature
+ * et un rattrapage périodique le resoumet dès qu'il y a de la place dans la file.
+ * Une tâche en échec est replanifiée avec un délai croissant jusqu'à max-attempts, puis le média est marqué
+ * (derivativeError) pour ne plus être repris ; une image non décodable ou trop grande est marquée d'emblée.
+ * Une soumission faite dans une transaction n'est planifiée qu'après le commit, pour que le média soit visible.
+ */
+@Service
+public class MediaDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaDerivativeService.class);
+
+    static final String THUMBNAIL_SUFFIX = "_thumb";
+    static final String MEDIUM_SUFFIX = "_medium";
+
+    private final MongoTemplate mongoTemplate;
+    private final Path uploadRoot;
+    private final int thumbnailSize;
+    private final int mediumSize;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long maxPixels;
+    private final long sweepIntervalMs;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+    // Médias en file, en cours ou en attente d'un nouvel essai sur cette instance
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Timer processingTimer;
+    private final Counter failureCounter;
+    private final Counter retryCounter;
+    private final Counter deferredCounter;
+
+    public MediaDerivativeService(MongoTemplate mongoTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${file.upload-dir}") String uploadDir,
+                                  @Value("${media.derivatives.workers:2}") int workerCount,
+                                  @Value("${media.derivatives.queue-capacity:100}") int queueCapacity,
+                                  @Value("${media.derivatives.thumbnail-size:320}") int thumbnailSize,
+                                  @Value("${media.derivatives.medium-size:1280}") int mediumSize,
+                                  @Value("${media.derivatives.max-attempts:3}") int maxAttempts,
+                                  @Value("${media.derivatives.retry-delay-ms:2000}") long retryDelayMs,
+                                  @Value("${media.derivatives.max-pixels:40000000}") long maxPixels,
+                                  @Value("${media.derivatives.sweep-interval-ms:300000}") long sweepIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.thumbnailSize = thumbnailSize;
+        this.mediumSize = mediumSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.maxPixels = maxPixels;
+        this.sweepIntervalMs = sweepIntervalMs;
+
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("media-derivative-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("media-derivative-retry-"));
+
+        Gauge.builder("media.derivatives.queue.depth", workers, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("media.derivatives.active", workers, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("media.derivatives.processing").register(meterRegistry);
+        this.failureCounter = Counter.builder("media.derivatives.failures").register(meterRegistry);
+        this.retryCounter = Counter.builder("media.derivatives.retries").register(meterRegistry);
+        this.deferredCounter = Counter.builder("media.derivatives.deferred").register(meterRegistry);
+
+        // Reprend les médias refusés faute de place, ou dont la tâche a été perdue à l'arrêt d'une instance
+        retryScheduler.scheduleWithFixedDelay(this::sweepSafely, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Planifie la génération des déclinaisons d'un média image (les vidéos sont ignorées)
+     */
+    public void submit(Media media) {
+        if (media.getFileType() == null || !media.getFileType().startsWith("image/")) {
+            return;
+        }
+        DerivativeTask task = new DerivativeTask(media.getId(), media.getContentId(), media.getFileName());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Le worker ne doit pas lire le média avant le commit de la transaction qui l'a créé
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(task);
+                }
+            });
+        } else {
+            enqueue(task);
+        }
+    }
+
+    /**
+     * Resoumet les images sans miniature ni échec enregistré, dans la limite de la place libre dans la file.
+     * Seuls les médias plus anciens qu'un intervalle sont repris, les plus récents pouvant être en file ailleurs.
+     */
+    void sweep() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0 || workers.isShutdown()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("fileType").regex("^image/")
+                        .and("thumbnailName").is(null)
+                        .and("derivativeError").is(null)
+                        .and("uploadDate").lt(new Date(System.currentTimeMillis() - sweepIntervalMs))
+                        .and("_id").nin(new ArrayList<>(pending)))
+                .with(Sort.by(Sort.Direction.ASC, "uploadDate"))
+                .limit(capacity);
+        query.fields().include("contentId", "fileName");
+
+        int resubmitted = 0;
+        for (Media media : mongoTemplate.find(query, Media.class)) {
+            if (enqueue(new DerivativeTask(media.getId(), media.getContentId(), media.getFileName()))) {
+                resubmitted++;
+            }
+        }
+        if (resubmitted > 0) {
+            log.info("Rattrapage : déclinaisons resoumises pour {} média(s)", resubmitted);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.warn("Rattrapage des déclinaisons en échec : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les déclinaisons associées à un fichier original
+     */
+    public void deleteDerivatives(String contentId, String fileName) throws IOException {
+        Path directory = uploadRoot.resolve(contentId);
+        for (String suffix : new String[]{THUMBNAIL_SUFFIX, MEDIUM_SUFFIX}) {
+            for (String format : new String[]{"jpg", "png"}) {
+                Files.deleteIfExists(directory.resolve(derivativeName(fileName, suffix, format)));
+            }
+        }
+    }
+
+    private record DerivativeTask(String mediaId, String contentId, String fileName) {
+    }
+
+    /**
+     * Image que l'on ne pourra jamais décliner (format inconnu, dimensions excessives) : pas de nouvel essai
+     */
+    private static class UnprocessableImageException extends IOException {
+        UnprocessableImageException(String message) {
+            super(message);
+        }
+    }
+
+    private boolean enqueue(DerivativeTask task) {
+        return pending.add(task.mediaId()) && schedule(task, 1);
+    }
+
+    private boolean schedule(DerivativeTask task, int attempt) {
+        try {
+            workers.execute(() -> run(task, attempt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Le média reste sans miniature : le rattrapage le resoumettra
+            pending.remove(task.mediaId());
+            deferredCounter.increment();
+            log.warn("File des déclinaisons pleine ou arrêtée, média {} reporté au prochain rattrapage", task.mediaId());
+            return false;
+        }
+    }
+
+    private void run(DerivativeTask task, int attempt) {
+        long start = System.nanoTime();
+        try {
+            process(task);
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            pending.remove(task.mediaId());
+        } catch (UnprocessableImageException e) {
+            giveUp(task, attempt, e.getMessage());
+        } catch (Exception e) {
+            retryOrGiveUp(task, attempt, e.getMessage());
+        }
+    }
+
+    private void retryOrGiveUp(DerivativeTask task, int attempt, String reason) {
+        if (retryScheduler.isShutdown()) {
+            // Arrêt en cours : rien d'enregistré, le rattrapage reprendra le média au redémarrage
+            pending.remove(task.mediaId());
+        } else if (attempt < maxAttempts) {
+            retryCounter.increment();
+            long delay = retryDelayMs * attempt;
+            log.warn("Échec des déclinaisons du média {} (tentative {}/{}), nouvel essai dans {} ms : {}",
+                    task.mediaId(), attempt, maxAttempts, delay, reason);
+            retryScheduler.schedule(() -> schedule(task, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } else {
+            giveUp(task, attempt, reason);
+        }
+    }
+
+    private void giveUp(DerivativeTask task, int attempt, String reason) {
+        failureCounter.increment();
+        log.error("Abandon des déclinaisons du média {} après {} tentative(s) : {}", task.mediaId(), attempt, reason);
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(task.mediaId())),
+                    new Update().set("derivativeError", reason), Media.class);
+        } finally {
+            pending.remove(task.mediaId());
+        }
+    }
+
+    private void process(DerivativeTask task) throws IOException {
+        Path directory = uploadRoot.resolve(task.contentId()).normalize();
+        Path original = directory.resolve(task.fileName()).normalize();
+        if (!original.startsWith(uploadRoot)) {
+            throw new IOException("Invalid media path: " + original);
+        }
+
+        BufferedImage source = decode(original);
+
+        String format = source.getColorModel().hasAlpha() ? "png" : "jpg";
+        String thumbnailName = derivativeName(task.fileName(), THUMBNAIL_SUFFIX, format);
+        String mediumName = derivativeName(task.fileName(), MEDIUM_SUFFIX, format);
+
+        write(resize(source, thumbnailSize), format, directory.resolve(thumbnailName));
+        write(resize(source, mediumSize), format, directory.resolve(mediumName));
+
+        // Mise à jour ciblée : le document Media et sa copie embarquée dans Content
+        Update update = new Update().set("thumbnailName", thumbnailName).set("mediumName", mediumName);
+        if (mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(task.mediaId())), update, Media.class)
+                .getMatchedCount() == 0) {
+            // Média supprimé entre-temps
+            deleteDerivatives(task.contentId(), task.fileName());
+            return;
+        }
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(task.contentId()).and("media._id").is(task.mediaId())),
+                new Update().set("media.$.thumbnailName", thumbnailName).set("media.$.mediumName", mediumName),
+                Content.class);
+
+        log.debug("Déclinaisons générées pour le média {} : {}, {}", task.mediaId(), thumbnailName, mediumName);
+    }
+
+    /**
+     * Décode l'original après avoir lu ses dimensions dans l'en-tête : une image trop grande est refusée avant
+     * toute allocation (bombe de décompression), et une grande image est sous-échantillonnée dès le décodage.
+     */
+    private BufferedImage decode(Path original) throws IOException {
+        if (!Files.isReadable(original)) {
+            throw new NoSuchFileException(original.toString());
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                // Format non supporté par ImageIO (svg, heic...)
+                throw new UnprocessableImageException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width * height > maxPixels) {
+                    throw new UnprocessableImageException("Image too large: " + width + "x" + height);
+                }
+                // Le pas garde au moins deux fois la taille de la version moyenne
+                int step = (int) Math.max(1, Math.max(width, height) / (2L * mediumSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Réduit l'image pour que son plus grand côté tienne dans maxSide (jamais d'agrandissement)
+     */
+    private BufferedImage resize(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1d, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        // Écriture dans un fichier temporaire puis renommage : jamais de miniature tronquée servie
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", "." + format);
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                throw new IOException("No ImageIO writer for format " + format);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static String derivativeName(String fileName, String suffix, String format) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return base + suffix + "." + format;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} tâche(s) de déclinaison abandonnée(s) à l'arrêt", workers.shutdownNow().size());
+        }
+    }
+}
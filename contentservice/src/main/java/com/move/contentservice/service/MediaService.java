@@ -1,6 +1,7 @@
 package com.move.contentservice.service;
 
 import com.move.contentservice.dto.MediaDTO;
+import com.move.contentservice.exception.FileNotFoundException;
 import com.move.contentservice.exception.ResourceNotFoundException;
 import com.move.contentservice.mapper.MediaMapper;
 import com.move.contentservice.model.Content;
@@ -31,6 +32,7 @@ public class MediaService {
     private final MediaRepository mediaRepository;
     private final ContentRepository contentRepository;
     private final MediaMapper mediaMapper;
+    private final MediaDerivativeService mediaDerivativeService;
     private final Path fileStorageLocation;
 
     @Value("${server.servlet.context-path:}")
@@ -44,10 +46,11 @@ public class MediaService {
 
     @Autowired
     public MediaService(MediaRepository mediaRepository, ContentRepository contentRepository, MediaMapper mediaMapper,
-                        @Value("${file.upload-dir}") String uploadDir) {
+                        MediaDerivativeService mediaDerivativeService, @Value("${file.upload-dir}") String uploadDir) {
         this.mediaRepository = mediaRepository;
         this.contentRepository = contentRepository;
         this.mediaMapper = mediaMapper;
+        this.mediaDerivativeService = mediaDerivativeService;
         this.uploadDir = uploadDir;
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
 
@@ -143,9 +146,16 @@ public class MediaService {
             thumbnailUrl = getBaseUrl() + "/api/media/files/" + mediaDTO.getContentId() + "/" + mediaDTO.getThumbnailName();
         }
 
+        // URL pour accéder à la version moyenne si elle existe
+        String mediumUrl = null;
+        if (mediaDTO.getMediumName() != null && !mediaDTO.getMediumName().isEmpty()) {
+            mediumUrl = getBaseUrl() + "/api/media/files/" + mediaDTO.getContentId() + "/" + mediaDTO.getMediumName();
+        }
+
         mediaDTO.setFileUrl(fileUrl);
         mediaDTO.setAlternativeUrl(alternativeUrl);
         mediaDTO.setThumbnailUrl(thumbnailUrl);
+        mediaDTO.setMediumUrl(mediumUrl);
     }
 
     /**
@@ -176,24 +186,10 @@ public class MediaService {
             Integer displayOrder
     ) throws IOException {
         // Vérifier si le contenu existe
-        Content content = contentRepository.findById(contentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + contentId));
-
-        // Si c'est une couverture et qu'il en existe déjà une, la supprimer
-        if ("COVER".equals(mediaType)) {
-            List<Media> existingCovers = mediaRepository.findByContentIdAndMediaType(contentId, "COVER");
-            if (!existingCovers.isEmpty()) {
-                // Supprime l'ancienne couverture
-                deleteMedia(existingCovers.get(0).getId());
-            }
-        }
+        Content content = requireContent(contentId);
 
         // Créer un dossier pour le contenu si nécessaire
-        String contentDir = uploadDir + "/" + contentId;
-        Path contentDirPath = Paths.get(contentDir);
-        if (!Files.exists(contentDirPath)) {
-            Files.createDirectories(contentDirPath);
-        }
+        Path contentDirPath = resolveContentDirectory(contentId);
 
         // Générer un nom de fichier unique
         String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
@@ -202,8 +198,49 @@ public class MediaService {
         // Copier le fichier
         Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
 
+        return registerUploadedMedia(content, fileName, file.getContentType(), file.getSize(),
+                title, description, mediaType, displayOrder);
+    }
+
+    /**
+     * Récupère le contenu cible d'un upload
+     */
+    public Content requireContent(String contentId) {
+        return contentRepository.findById(contentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + contentId));
+    }
+
+    /**
+     * Retourne (en le créant si nécessaire) le dossier uploads/{contentId}
+     */
+    public Path resolveContentDirectory(String contentId) throws IOException {
+        Path contentDirPath = Paths.get(uploadDir + "/" + contentId);
+        if (!Files.exists(contentDirPath)) {
+            Files.createDirectories(contentDirPath);
+        }
+        return contentDirPath;
+    }
+
+    /**
+     * Enregistre le média correspondant à un fichier déjà écrit dans uploads/{contentId}
+     */
+    @Transactional
+    public MediaDTO registerUploadedMedia(Content content, String fileName, String fileType, long fileSize,
+                                          String title, String description, String mediaType, Integer displayOrder)
+            throws IOException {
+        String contentId = content.getId();
+
+        // Si c'est une couverture et qu'il en existe déjà une, la supprimer
+        if ("COVER".equals(mediaType)) {
+            List<Media> existingCovers = mediaRepository.findByContentIdAndMediaType(contentId, "COVER");
+            if (!existingCovers.isEmpty()) {
+                // Supprime l'ancienne couverture
+                String oldCoverId = existingCovers.get(0).getId();
+                deleteMedia(oldCoverId);
+            }
+        }
+
         // Déterminer si c'est une photo ou une vidéo en fonction du type MIME
-        String fileType = file.getContentType();
         if (mediaType == null || mediaType.isEmpty()) {
             if (fileType != null && fileType.startsWith("video/")) {
                 mediaType = "VIDEO";
@@ -219,7 +256,7 @@ public class MediaService {
                 .title(title)
                 .description(description)
                 .fileType(fileType)
-                .fileSize(String.valueOf(file.getSize()))
+                .fileSize(String.valueOf(fileSize))
                 .uploadDate(new Date())
                 .contentId(contentId)
                 .fileName(fileName)
@@ -230,9 +267,14 @@ public class MediaService {
         // Sauvegarder l'entité
         Media savedMedia = mediaRepository.save(media);
 
-        // Ajouter le média à la liste des médias du contenu
-        content.getMedia().add(savedMedia);
-        contentRepository.save(content);
+        // Ajouter le média à la liste des médias du contenu, relu juste avant l'écriture : l'upload a pu durer
+        // et la suppression de l'ancienne couverture a déjà modifié le document (Content.version)
+        Content current = requireContent(contentId);
+        current.getMedia().add(savedMedia);
+        contentRepository.save(current);
+
+        // Miniature et version moyenne générées en arrière-plan
+        mediaDerivativeService.submit(savedMedia);
 
         MediaDTO dto = mediaMapper.toDTO(savedMedia);
         enrichMediaWithUrl(dto);
@@ -289,6 +331,7 @@ public class MediaService {
         if (Files.exists(mediaFilePath)) {
             Files.delete(mediaFilePath);
         }
+        mediaDerivativeService.deleteDerivatives(media.getContentId(), fileName);
 
         Content content = contentRepository.findById(media.getContentId())
                 .orElseThrow(() -> new ResourceNotFoundException("Content not found with id: " + media.getContentId()));
@@ -384,4 +427,17 @@ public class MediaService {
             throw new RuntimeException("File not found: " + contentId + "/" + fileName, ex);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Résout le chemin d'un fichier stocké dans uploads/{contentId}
+     * Utilisé pour l'envoi direct (Range, transferTo) sans passer par un Resource
+     */
+    public Path resolveStoredFile(String contentId, String fileName) {
+        Path contentDirPath = this.fileStorageLocation.resolve(contentId).normalize();
+        Path filePath = contentDirPath.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStorageLocation) || !Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
+            throw new FileNotFoundException("File not found: " + contentId + "/" + fileName);
+        }
+        return filePath;
+    }
+}
@@ -0,0 +1,216 @@
+package com.move.contentservice.service;
+
+import com.move.contentservice.dto.MediaDTO;
+import com.move.contentservice.exception.FileStorageException;
+import com.move.contentservice.model.Content;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload de média en flux : le corps multipart est lu directement depuis la requête
+ * (sans MultipartResolver ni fichier temporaire du conteneur) et la partie fichier est écrite
+ * dans uploads/{contentId} via un FileChannel. La taille maximale est vérifiée au fil de l'eau.
+ * <p>
+ * Le contentId doit être fourni en paramètre d'URL ou dans un champ placé avant la partie fichier.
+ */
+@Service
+public class MediaStreamUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaStreamUploadService.class);
+
+    private static final int MAX_FIELD_BYTES = 4 * 1024;
+    // Un corps chunked n'a pas de longueur annoncée : le nombre de parties borne ce qui est lu hors fichier
+    static final int MAX_PARTS = 16;
+
+    private final MediaService mediaService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${media.upload.stream.max-file-size:50MB}")
+    private DataSize maxFileSize;
+
+    @Value("${media.upload.stream.buffer-size:65536}")
+    private int bufferSize;
+
+    public MediaStreamUploadService(MediaService mediaService, MeterRegistry meterRegistry) {
+        this.mediaService = mediaService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Lit la requête multipart et enregistre le fichier reçu comme média du contenu
+     */
+    public MediaDTO upload(HttpServletRequest request) throws IOException {
+        String boundary = MultipartStreamReader.boundaryOf(request.getContentType());
+        if (boundary == null) {
+            throw new FileStorageException("Requête multipart/form-data attendue");
+        }
+
+        long limit = maxFileSize.toBytes();
+        long declaredLength = request.getContentLengthLong();
+        if (declaredLength > 0 && declaredLength > limit + (long) MAX_PARTS * MAX_FIELD_BYTES) {
+            // Rejet immédiat : inutile de lire le corps
+            throw new MaxUploadSizeExceededException(limit);
+        }
+
+        // getParameter() déclencherait l'analyse complète du corps par le conteneur : on lit la query string
+        Map<String, String> fields = new HashMap<>();
+        UriComponentsBuilder.newInstance().query(request.getQueryString()).build().getQueryParams()
+                .forEach((key, values) -> {
+                    if (values.get(0) != null) {
+                        fields.put(key, URLDecoder.decode(values.get(0), StandardCharsets.UTF_8));
+                    }
+                });
+
+        MultipartStreamReader reader = new MultipartStreamReader(request.getInputStream(), boundary, bufferSize);
+        StoredFile stored = null;
+        int parts = 0;
+        try {
+            while (reader.nextPart()) {
+                if (++parts > MAX_PARTS) {
+                    throw new FileStorageException("Trop de parties dans la requête multipart (max " + MAX_PARTS + ")");
+                }
+                Map<String, String> headers = reader.readHeaders();
+                String disposition = headers.get("content-disposition");
+                String name = dispositionParam(disposition, "name");
+                String originalFilename = dispositionParam(disposition, "filename");
+
+                if (originalFilename == null) {
+                    // Lu même sans nom : la taille d'un champ reste bornée
+                    String value = reader.readBodyAsString(MAX_FIELD_BYTES);
+                    if (name != null) {
+                        fields.put(name, value);
+                    }
+                    continue;
+                }
+                if (stored != null) {
+                    throw new FileStorageException("Un seul fichier est accepté par requête");
+                }
+
+                String contentId = fields.get("contentId");
+                if (!StringUtils.hasText(contentId)) {
+                    throw new FileStorageException("Le contentId doit précéder la partie fichier");
+                }
+                Content content = mediaService.requireContent(contentId);
+                stored = store(reader, content, originalFilename, headers.get("content-type"), limit);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (stored != null) {
+                Files.deleteIfExists(stored.path());
+            }
+            throw e;
+        }
+
+        if (stored == null) {
+            throw new FileStorageException("Aucun fichier dans la requête");
+        }
+
+        try {
+            return mediaService.registerUploadedMedia(stored.content(), stored.path().getFileName().toString(),
+                    stored.contentType(), stored.size(), fields.get("title"), fields.get("description"),
+                    fields.getOrDefault("mediaType", "ALBUM"), parseOrder(fields.get("displayOrder")));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stored.path());
+            throw e;
+        }
+    }
+
+    private record StoredFile(Content content, Path path, String contentType, long size) {
+    }
+
+    private StoredFile store(MultipartStreamReader reader, Content content, String originalFilename,
+                             String contentType, long limit) throws IOException {
+        Path directory = mediaService.resolveContentDirectory(content.getId());
+        String fileName = UUID.randomUUID() + "_" + StringUtils.getFilename(StringUtils.cleanPath(originalFilename));
+        Path target = directory.resolve(fileName).normalize();
+        if (!target.startsWith(directory.normalize())) {
+            throw new FileStorageException("Nom de fichier invalide : " + originalFilename);
+        }
+
+        long start = System.nanoTime();
+        long size;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            size = reader.transferBody(channel, written -> {
+                if (written > limit) {
+                    throw new MaxUploadSizeExceededException(limit);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        recordThroughput(size, elapsed);
+        return new StoredFile(content, target, contentType, size);
+    }
+
+    private void recordThroughput(long size, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000d;
+        double bytesPerSecond = size / seconds;
+
+        Timer.builder("media.upload.stream.duration")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("media.upload.stream.throughput")
+                .baseUnit("bytes/s")
+                .register(meterRegistry)
+                .record(bytesPerSecond);
+
+        log.info("Upload en flux : {} octets en {} ms ({} Ko/s)",
+                size, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(bytesPerSecond / 1024));
+    }
+
+    private Integer parseOrder(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new FileStorageException("displayOrder invalide : " + value);
+        }
+    }
+
+    /**
+     * Extrait un paramètre (name, filename) d'un en-tête Content-Disposition
+     */
+    private String dispositionParam(String disposition, String param) {
+        if (disposition == null) {
+            return null;
+        }
+        for (String token : disposition.split(";")) {
+            String part = token.trim();
+            int eq = part.indexOf('=');
+            if (eq > 0 && part.substring(0, eq).trim().equalsIgnoreCase(param)) {
+                String value = part.substring(eq + 1).trim();
+                if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+}
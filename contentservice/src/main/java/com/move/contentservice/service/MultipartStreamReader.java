@@ -0,0 +1,214 @@
+package com.move.contentservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Lecteur multipart/form-data en flux : les parties sont lues l'une après l'autre
+ * directement depuis le corps de la requête, avec un seul buffer de taille fixe.
+ */
+class MultipartStreamReader {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    MultipartStreamReader(InputStream in, String boundary, int bufferSize) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.buffer = new byte[Math.max(bufferSize, delimiter.length * 2)];
+        // Le premier délimiteur n'est pas précédé de CRLF : on l'ajoute pour n'avoir qu'un seul motif à chercher
+        System.arraycopy(CRLF, 0, buffer, 0, CRLF.length);
+        this.limit = CRLF.length;
+    }
+
+    /**
+     * Extrait le boundary d'un en-tête Content-Type multipart, ou null
+     */
+    static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String p = param.trim();
+            if (p.toLowerCase(Locale.ROOT).startsWith("boundary=")) {
+                String value = p.substring(9).trim();
+                if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Avance jusqu'à la partie suivante (en ignorant le reste de la partie courante).
+     * Retourne false lorsque le délimiteur final a été atteint.
+     */
+    boolean nextPart() throws IOException {
+        while (true) {
+            int idx = indexOfDelimiter();
+            if (idx >= 0) {
+                pos = idx + delimiter.length;
+                break;
+            }
+            pos = Math.max(pos, limit - delimiter.length + 1);
+            if (!fill()) {
+                throw new IOException("Malformed multipart body: missing boundary");
+            }
+        }
+
+        require(2);
+        byte first = buffer[pos];
+        byte second = buffer[pos + 1];
+        pos += 2;
+        if (first == '-' && second == '-') {
+            return false;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("Malformed multipart body: invalid boundary line");
+        }
+        return true;
+    }
+
+    /**
+     * Lit les en-têtes de la partie courante (noms en minuscules)
+     */
+    Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int total = 0;
+        while (true) {
+            require(1);
+            byte b = buffer[pos++];
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers too large");
+            }
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.UTF_8).stripTrailing();
+                line.reset();
+                if (text.isEmpty()) {
+                    return headers;
+                }
+                int colon = text.indexOf(':');
+                if (colon > 0) {
+                    headers.put(text.substring(0, colon).trim().toLowerCase(Locale.ROOT), text.substring(colon + 1).trim());
+                }
+            } else {
+                line.write(b);
+            }
+        }
+    }
+
+    /**
+     * Copie le corps de la partie courante vers le canal, en signalant la progression cumulée
+     */
+    long transferBody(WritableByteChannel out, LongConsumer progress) throws IOException {
+        long total = 0;
+        while (true) {
+            int idx = indexOfDelimiter();
+            int end = idx >= 0 ? idx : Math.max(pos, limit - delimiter.length + 1);
+            if (end > pos) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, pos, end - pos);
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+                total += end - pos;
+                pos = end;
+                progress.accept(total);
+            }
+            if (idx >= 0) {
+                return total;
+            }
+            if (!fill()) {
+                throw new IOException("Malformed multipart body: unexpected end of stream");
+            }
+        }
+    }
+
+    /**
+     * Lit le corps de la partie courante comme texte (champs de formulaire)
+     */
+    String readBodyAsString(int maxBytes) throws IOException {
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        transferBody(new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int n = src.remaining();
+                if (value.size() + n > maxBytes) {
+                    throw new IOException("Multipart form field too large");
+                }
+                value.write(src.array(), src.arrayOffset() + src.position(), n);
+                src.position(src.limit());
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        }, total -> { });
+        return value.toString(StandardCharsets.UTF_8);
+    }
+
+    private int indexOfDelimiter() {
+        outer:
+        for (int i = pos; i <= limit - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private void require(int count) throws IOException {
+        while (limit - pos < count) {
+            if (!fill()) {
+                throw new IOException("Malformed multipart body: unexpected end of stream");
+            }
+        }
+    }
+
+    /**
+     * Compacte le buffer puis lit davantage de données ; false en fin de flux
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
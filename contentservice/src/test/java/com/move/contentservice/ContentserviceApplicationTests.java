@@ -3,7 +3,8 @@ package com.move.contentservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Pas de MongoDB dans l'environnement de test : l'initialisation des versions ferait échouer le démarrage
+@SpringBootTest(properties = "content.versions.initialize-on-startup=false")
 class ContentserviceApplicationTests {
 
 	@Test
@@ -0,0 +1,206 @@
+package com.move.contentservice.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ContentOutboxRelayTest {
+
+    private static final String EXCHANGE = "content.events.exchange";
+    private static final long CONFIRM_TIMEOUT_MS = 5000;
+
+    private MongoTemplate mongoTemplate;
+    private RabbitTemplate rabbitTemplate;
+    private RabbitOperations operations;
+    private SimpleMeterRegistry meterRegistry;
+    private ContentOutboxRelay relay;
+    // Entrées refusées (nack) par le broker et entrées envoyées sur le canal en cours
+    private final Set<String> nacked = new HashSet<>();
+    private final List<String> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        operations = mock(RabbitOperations.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        doAnswer(invocation -> sent.add(invocation.<ContentEvent>getArgument(2).getEventId()))
+                .when(operations).convertAndSend(anyString(), anyString(), any(Object.class));
+        when(operations.waitForConfirms(CONFIRM_TIMEOUT_MS)).thenAnswer(invocation -> {
+            boolean confirmed = sent.stream().noneMatch(nacked::contains);
+            sent.clear();
+            return confirmed;
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("job_leases"))).thenReturn(new Document("_id", "content-outbox-relay"));
+
+        // Passage périodique désactivé : les tests déclenchent drainSafely eux-mêmes
+        relay = new ContentOutboxRelay(mongoTemplate, rabbitTemplate, meterRegistry, EXCHANGE,
+                100, 3_600_000, CONFIRM_TIMEOUT_MS, 30_000, 60_000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void removesABatchOnceTheBrokerConfirmsIt() {
+        ContentOutboxEntry first = entry("e1", 0);
+        ContentOutboxEntry second = entry("e2", 0);
+        givenOutbox(first, second);
+
+        relay.drainSafely();
+
+        verify(operations).convertAndSend(EXCHANGE, "content.updated", first.getEvent());
+        verify(operations).convertAndSend(EXCHANGE, "content.updated", second.getEvent());
+        verify(operations).waitForConfirms(CONFIRM_TIMEOUT_MS);
+        assertEquals(List.of("e1", "e2"), removedIds().get(0));
+        assertEquals(2, meterRegistry.counter("content.events.outbox.published").count());
+    }
+
+    @Test
+    void aRefusedEntryDoesNotBlockTheOthersAndCountsAnAttempt() {
+        ContentOutboxEntry poison = entry("e1", 0);
+        ContentOutboxEntry next = entry("e2", 0);
+        givenOutbox(poison, next);
+        refuse(poison);
+
+        relay.drainSafely();
+
+        // Lot refusé, puis republication entrée par entrée : e2 passe, e1 reste avec une tentative de plus
+        assertEquals(List.of("e2"), removedIds().get(0));
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(ContentOutboxEntry.class));
+        assertEquals(1, update.getValue().getUpdateObject().get("$set", Document.class).get("attempts"));
+        verify(mongoTemplate, never()).insert(any(ContentOutboxEntry.class), anyString());
+    }
+
+    @Test
+    void anEntryRefusedMaxAttemptsTimesIsDeadLettered() {
+        ContentOutboxEntry poison = entry("e1", 4);
+        givenOutbox(poison, entry("e2", 0));
+        refuse(poison);
+
+        relay.drainSafely();
+
+        verify(mongoTemplate).insert(poison, ContentOutboxRelay.DEAD_LETTER_COLLECTION);
+        assertEquals(5, poison.getAttempts());
+        assertEquals(List.of(List.of("e1"), List.of("e2")), removedIds());
+        assertEquals(1, meterRegistry.counter("content.events.outbox.dead-lettered").count());
+    }
+
+    @Test
+    void aBrokerOutageIsNotChargedToTheEntries() {
+        givenOutbox(entry("e1", 4), entry("e2", 4));
+        doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+                .when(operations).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        relay.drainSafely();
+        // Relais en pause pendant retry-delay-ms
+        relay.drainSafely();
+
+        verify(rabbitTemplate, times(1)).invoke(any(RabbitOperations.OperationsCallback.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ContentOutboxEntry.class));
+        verify(mongoTemplate, never()).insert(any(ContentOutboxEntry.class), anyString());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(ContentOutboxEntry.class));
+        assertEquals(1, meterRegistry.counter("content.events.outbox.failures").count());
+    }
+
+    @Test
+    void aConfirmTimeoutOnASingleEntryIsABrokerOutage() {
+        givenOutbox(entry("e1", 4));
+        when(operations.waitForConfirms(CONFIRM_TIMEOUT_MS))
+                .thenThrow(new AmqpTimeoutException(new TimeoutException()));
+
+        relay.drainSafely();
+
+        // Ni tentative comptée ni mise à l'écart : l'entrée reste dans l'outbox et le relais se met en pause
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(ContentOutboxEntry.class));
+        verify(mongoTemplate, never()).insert(any(ContentOutboxEntry.class), anyString());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(ContentOutboxEntry.class));
+        assertEquals(1, meterRegistry.counter("content.events.outbox.failures").count());
+        relay.drainSafely();
+        verify(rabbitTemplate, times(1)).invoke(any(RabbitOperations.OperationsCallback.class));
+    }
+
+    @Test
+    void deadLettersAreReplayedIntoTheOutbox() {
+        ContentOutboxEntry dead = entry("e1", 5);
+        dead.setLastError("Refusé par le broker (nack)");
+        when(mongoTemplate.find(any(Query.class), eq(ContentOutboxEntry.class), eq(ContentOutboxRelay.DEAD_LETTER_COLLECTION)))
+                .thenReturn(List.of(dead));
+
+        assertEquals(1, relay.replayDeadLetters());
+
+        verify(mongoTemplate).save(dead);
+        assertEquals(0, dead.getAttempts());
+        assertTrue(dead.getLastError() == null);
+        verify(mongoTemplate).remove(any(Query.class), eq(ContentOutboxRelay.DEAD_LETTER_COLLECTION));
+    }
+
+    @Test
+    void onlyTheLeaseHolderPublishes() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("job_leases"))).thenThrow(new DuplicateKeyException("E11000"));
+        givenOutbox(entry("e1", 0));
+
+        relay.drainSafely();
+
+        verifyNoInteractions(rabbitTemplate);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ContentOutboxEntry.class));
+    }
+
+    private void givenOutbox(ContentOutboxEntry... entries) {
+        when(mongoTemplate.find(any(Query.class), eq(ContentOutboxEntry.class))).thenReturn(List.of(entries));
+    }
+
+    private void refuse(ContentOutboxEntry entry) {
+        nacked.add(entry.getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> removedIds() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).remove(query.capture(), eq(ContentOutboxEntry.class));
+        return query.getAllValues().stream()
+                .map(q -> (List<String>) q.getQueryObject().get("_id", Document.class).get("$in"))
+                .toList();
+    }
+
+    private static ContentOutboxEntry entry(String id, int attempts) {
+        return ContentOutboxEntry.builder()
+                .id(id)
+                .routingKey("content.updated")
+                .event(ContentEvent.builder().eventId(id).id("content-" + id).sequence(1).build())
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.move.contentservice.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaDeliveryServiceTest {
+
+    // 100 octets lisibles : l'octet i vaut le caractère CONTENT.charAt(i)
+    private static final String CONTENT = "0123456789".repeat(10);
+
+    @TempDir
+    Path directory;
+
+    private final MediaDeliveryService service = new MediaDeliveryService();
+    private Path file;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(directory.resolve("video.mp4"), CONTENT);
+        etag = serve(new MockHttpServletRequest()).getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void servesTheWholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = serve(new MockHttpServletRequest());
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void servesASingleRange() throws IOException {
+        MockHttpServletResponse response = serve(range("bytes=10-19"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(CONTENT.substring(10, 20), response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+    }
+
+    @Test
+    void servesASuffixRange() throws IOException {
+        MockHttpServletResponse response = serve(range("bytes=-5"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(CONTENT.substring(95), response.getContentAsString());
+    }
+
+    @Test
+    void aSuffixLongerThanTheFileServesTheWholeFile() throws IOException {
+        MockHttpServletResponse response = serve(range("bytes=-500"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 0-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void anOpenRangeAndAnEndPastTheFileAreClamped() throws IOException {
+        assertEquals("bytes 90-99/100", serve(range("bytes=90-")).getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("bytes 90-99/100", serve(range("bytes=90-500")).getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void aRangeStartingPastTheFileIsNotSatisfiable() throws IOException {
+        MockHttpServletResponse response = serve(range("bytes=100-200"));
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void overlappingRangesAreNotSatisfiable() throws IOException {
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                serve(range("bytes=0-49,40-59")).getStatus());
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                serve(range("bytes=0-9,0-9")).getStatus());
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                serve(range("bytes=-10,80-")).getStatus());
+    }
+
+    @Test
+    void multipleRangesAreServedAsMultipartByteranges() throws IOException {
+        MockHttpServletResponse response = serve(range("bytes=0-1, 50-52"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+
+        String expected = "\r\n--" + boundary + "\r\n"
+                + "Content-Type: video/mp4\r\n"
+                + "Content-Range: bytes 0-1/100\r\n\r\n"
+                + "01"
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: video/mp4\r\n"
+                + "Content-Range: bytes 50-52/100\r\n\r\n"
+                + "012"
+                + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, response.getContentAsString());
+        assertEquals(expected.getBytes(StandardCharsets.US_ASCII).length, response.getContentLengthLong());
+    }
+
+    @Test
+    void aMalformedRangeHeaderIsIgnored() throws IOException {
+        assertEquals(HttpServletResponse.SC_OK, serve(range("bytes=abc")).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, serve(range("bytes=20-10")).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, serve(range("items=0-10")).getStatus());
+    }
+
+    @Test
+    void tooManyRangesServeTheWholeFile() throws IOException {
+        StringBuilder header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= 16; i++) {
+            header.append(',').append(i * 2).append('-').append(i * 2);
+        }
+
+        assertEquals(HttpServletResponse.SC_OK, serve(range(header.toString())).getStatus());
+    }
+
+    @Test
+    void aMatchingIfNoneMatchReturnsNotModified() throws IOException {
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"autre\", " + etag, "*"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+
+            MockHttpServletResponse response = serve(request);
+
+            assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus(), ifNoneMatch);
+            assertEquals(0, response.getContentAsByteArray().length);
+            assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        }
+    }
+
+    @Test
+    void aDifferentIfNoneMatchWinsOverIfModifiedSince() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"autre\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000);
+
+        assertEquals(HttpServletResponse.SC_OK, serve(request).getStatus());
+    }
+
+    @Test
+    void ifModifiedSinceReturnsNotModifiedForAnUnchangedFile() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, Files.getLastModifiedTime(file).toMillis());
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, serve(request).getStatus());
+    }
+
+    @Test
+    void aMatchingIfRangeServesTheRange() throws IOException {
+        MockHttpServletRequest request = range("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, serve(request).getStatus());
+    }
+
+    @Test
+    void aWeakIfRangeServesTheWholeFile() throws IOException {
+        MockHttpServletRequest request = range("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + etag);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void aMismatchedIfRangeServesTheWholeFile() throws IOException {
+        MockHttpServletRequest request = range("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"0-0\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void aMismatchedIfRangeIgnoresAnUnsatisfiableRange() throws IOException {
+        MockHttpServletRequest request = range("bytes=500-600");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"0-0\"");
+
+        assertEquals(HttpServletResponse.SC_OK, serve(request).getStatus());
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve(file, "video/mp4", request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest range(String header) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, header);
+        return request;
+    }
+}
@@ -0,0 +1,116 @@
+package com.move.contentservice.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.move.contentservice.model.Content;
+import com.move.contentservice.model.Media;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MediaDerivativeServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private MediaDerivativeService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void generatesTheDerivativesOfASmallImage() throws IOException {
+        service = service(1_000_000);
+        givenImage("photo.png", 40, 20);
+        givenMatched(1);
+
+        service.submit(media("m-1", "photo.png"));
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Content.class));
+        assertTrue(Files.exists(uploads.resolve("c-1").resolve("photo_thumb.jpg")));
+        assertTrue(Files.exists(uploads.resolve("c-1").resolve("photo_medium.jpg")));
+    }
+
+    @Test
+    void anImageOverThePixelLimitIsRecordedAsFailedWithoutRetry() throws IOException {
+        service = service(100);
+        givenImage("huge.png", 40, 20);
+
+        service.submit(media("m-2", "huge.png"));
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class),
+                argThat((UpdateDefinition update) -> update.getUpdateObject().toJson().contains("Image too large: 40x20")),
+                eq(Media.class));
+        assertFalse(Files.exists(uploads.resolve("c-1").resolve("huge_thumb.jpg")));
+    }
+
+    @Test
+    void anUnsupportedFileIsRecordedAsFailed() throws IOException {
+        service = service(1_000_000);
+        Files.createDirectories(uploads.resolve("c-1"));
+        Files.writeString(uploads.resolve("c-1").resolve("vector.svg"), "<svg/>");
+
+        service.submit(media("m-3", "vector.svg"));
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class),
+                argThat((UpdateDefinition update) -> update.getUpdateObject().toJson().contains("Unsupported image format")),
+                eq(Media.class));
+    }
+
+    @Test
+    void theSweepResubmitsImagesLeftWithoutThumbnail() throws IOException {
+        service = service(1_000_000);
+        givenImage("missed.png", 40, 20);
+        givenMatched(1);
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("m-4", "missed.png")));
+
+        service.sweep();
+
+        verify(mongoTemplate, timeout(2000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Content.class));
+        assertTrue(Files.exists(uploads.resolve("c-1").resolve("missed_thumb.jpg")));
+    }
+
+    private MediaDerivativeService service(long maxPixels) {
+        // Rattrapage périodique lointain : les tests l'appellent directement
+        return new MediaDerivativeService(mongoTemplate, new SimpleMeterRegistry(), uploads.toString(),
+                1, 10, 16, 32, 1, 10, maxPixels, 3_600_000);
+    }
+
+    private void givenMatched(long matched) {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(matched, matched, null));
+    }
+
+    private void givenImage(String fileName, int width, int height) throws IOException {
+        Path directory = Files.createDirectories(uploads.resolve("c-1"));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        assertTrue(ImageIO.write(image, "png", directory.resolve(fileName).toFile()));
+    }
+
+    private static Media media(String id, String fileName) {
+        return Media.builder()
+                .id(id)
+                .contentId("c-1")
+                .fileName(fileName)
+                .fileType("image/png")
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.move.contentservice.service;
+
+import com.move.contentservice.exception.FileStorageException;
+import com.move.contentservice.model.Content;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MediaStreamUploadServiceTest {
+
+    private static final String BOUNDARY = "xyzBoundary";
+
+    @TempDir
+    Path uploads;
+
+    private MediaService mediaService;
+    private MediaStreamUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mediaService = mock(MediaService.class);
+        Content content = new Content();
+        content.setId("c-1");
+        when(mediaService.requireContent("c-1")).thenReturn(content);
+        when(mediaService.resolveContentDirectory("c-1")).thenReturn(uploads);
+
+        service = new MediaStreamUploadService(mediaService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxFileSize", DataSize.ofBytes(1024));
+        ReflectionTestUtils.setField(service, "bufferSize", 256);
+    }
+
+    @Test
+    void rejectsAChunkedBodyWithTooManyFields() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= MediaStreamUploadService.MAX_PARTS; i++) {
+            body.append(field("f" + i, "v"));
+        }
+        body.append("--").append(BOUNDARY).append("--");
+
+        assertThrows(FileStorageException.class, () -> service.upload(request(body.toString())));
+        verify(mediaService, never()).registerUploadedMedia(any(), any(), any(), anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsAnOversizedNamelessPart() {
+        String body = "--" + BOUNDARY + "\r\n\r\n" + "n".repeat(5000) + "\r\n--" + BOUNDARY + "--";
+
+        assertThrows(IOException.class, () -> service.upload(request(body)));
+    }
+
+    @Test
+    void anOversizedFileIsRejectedAndRemoved() throws IOException {
+        String body = field("contentId", "c-1")
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"big.bin\"\r\n\r\n"
+                + "b".repeat(4096) + "\r\n"
+                + "--" + BOUNDARY + "--";
+
+        assertThrows(MaxUploadSizeExceededException.class, () -> service.upload(request(body)));
+        try (var files = Files.list(uploads)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void storesTheFileAndRegistersIt() throws IOException {
+        String body = field("contentId", "c-1")
+                + field("title", "Titre")
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n"
+                + "jpeg-bytes\r\n"
+                + "--" + BOUNDARY + "--";
+
+        service.upload(request(body));
+
+        verify(mediaService).registerUploadedMedia(any(Content.class), endsWith("_photo.jpg"), eq("image/jpeg"),
+                eq(10L), eq("Titre"), isNull(), eq("ALBUM"), isNull());
+    }
+
+    private static String field(String name, String value) {
+        return "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n";
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/media/upload/stream");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
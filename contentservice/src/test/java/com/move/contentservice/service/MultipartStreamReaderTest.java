@@ -0,0 +1,206 @@
+package com.move.contentservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartStreamReaderTest {
+
+    private static final String BOUNDARY = "----MoveBoundary7MA4YWxk";
+
+    @Test
+    void readsFieldsAndFileWhenEveryReadReturnsOneByte() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"contentId\"\r\n\r\n"
+                + "c-42\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"photo.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n"
+                + "binary-data\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+        // Buffer minimal et lectures d'un octet : le délimiteur arrive toujours à cheval sur deux lectures
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 1), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        assertEquals("form-data; name=\"contentId\"", reader.readHeaders().get("content-disposition"));
+        assertEquals("c-42", reader.readBodyAsString(64));
+
+        assertTrue(reader.nextPart());
+        Map<String, String> headers = reader.readHeaders();
+        assertEquals("image/jpeg", headers.get("content-type"));
+        assertEquals("binary-data", transfer(reader));
+
+        assertFalse(reader.nextPart());
+    }
+
+    @Test
+    void keepsDataThatOnlyLooksLikeTheStartOfADelimiter() throws IOException {
+        String content = "ligne 1\r\n--" + BOUNDARY.substring(0, 10) + "\r\n\r\r\n-fin\r";
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n\r\n"
+                + content + "\r\n"
+                + "--" + BOUNDARY + "--";
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 3), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        reader.readHeaders();
+        assertEquals(content, transfer(reader));
+        assertFalse(reader.nextPart());
+    }
+
+    @Test
+    void acceptsBareLfHeaderLinesAndAnEmptyBody() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\n\n"
+                + "\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        assertEquals("form-data; name=\"title\"", reader.readHeaders().get("content-disposition"));
+        assertEquals("", reader.readBodyAsString(64));
+        assertFalse(reader.nextPart());
+    }
+
+    @Test
+    void skipsThePreambleAndTheUnreadRestOfAPart() throws IOException {
+        String body = "préambule ignoré\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"skipped\"\r\n\r\n"
+                + "jamais lu\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"kept\"\r\n\r\n"
+                + "valeur\r\n"
+                + "--" + BOUNDARY + "--";
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 5), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        reader.readHeaders();
+        assertTrue(reader.nextPart());
+        assertEquals("form-data; name=\"kept\"", reader.readHeaders().get("content-disposition"));
+        assertEquals("valeur", reader.readBodyAsString(64));
+    }
+
+    @Test
+    void failsWhenTheFinalBoundaryIsMissing() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n\r\n"
+                + "tronqué";
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 2), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        reader.readHeaders();
+        IOException error = assertThrows(IOException.class, () -> transfer(reader));
+        assertTrue(error.getMessage().contains("unexpected end of stream"));
+    }
+
+    @Test
+    void failsWhenTheBodyEndsRightAfterADelimiter() {
+        String body = "--" + BOUNDARY;
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), BOUNDARY, 0);
+
+        assertThrows(IOException.class, reader::nextPart);
+    }
+
+    @Test
+    void failsWhenNoBoundaryIsFound() {
+        MultipartStreamReader reader = new MultipartStreamReader(stream("pas de multipart ici"), BOUNDARY, 0);
+
+        IOException error = assertThrows(IOException.class, reader::nextPart);
+        assertTrue(error.getMessage().contains("missing boundary"));
+    }
+
+    @Test
+    void rejectsCharactersAfterADelimiter() {
+        String body = "--" + BOUNDARY + "X\r\n";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), BOUNDARY, 0);
+
+        IOException error = assertThrows(IOException.class, reader::nextPart);
+        assertTrue(error.getMessage().contains("invalid boundary line"));
+    }
+
+    @Test
+    void rejectsAFieldLargerThanItsLimit() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+                + "x".repeat(100) + "\r\n"
+                + "--" + BOUNDARY + "--";
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 7), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        reader.readHeaders();
+        IOException error = assertThrows(IOException.class, () -> reader.readBodyAsString(64));
+        assertTrue(error.getMessage().contains("too large"));
+    }
+
+    @Test
+    void rejectsOversizedPartHeaders() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "X-Padding: " + "y".repeat(9 * 1024) + "\r\n\r\n"
+                + "--" + BOUNDARY + "--";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), BOUNDARY, 0);
+
+        assertTrue(reader.nextPart());
+        IOException error = assertThrows(IOException.class, reader::readHeaders);
+        assertTrue(error.getMessage().contains("headers too large"));
+    }
+
+    @Test
+    void reportsCumulativeProgressSoTheCallerCanStopAnOversizedFile() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"big.bin\"\r\n\r\n"
+                + "z".repeat(1000) + "\r\n"
+                + "--" + BOUNDARY + "--";
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body, 50), BOUNDARY, 64);
+
+        assertTrue(reader.nextPart());
+        reader.readHeaders();
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                reader.transferBody(Channels.newChannel(new ByteArrayOutputStream()), written -> {
+                    if (written > 500) {
+                        throw new IllegalStateException("limite dépassée à " + written);
+                    }
+                }));
+        assertTrue(error.getMessage().startsWith("limite dépassée"));
+    }
+
+    @Test
+    void extractsTheBoundaryFromTheContentType() {
+        assertEquals("abc", MultipartStreamReader.boundaryOf("multipart/form-data; boundary=abc"));
+        assertEquals("a b", MultipartStreamReader.boundaryOf("Multipart/Form-Data; charset=UTF-8; BOUNDARY=\"a b\""));
+        assertNull(MultipartStreamReader.boundaryOf("multipart/form-data"));
+        assertNull(MultipartStreamReader.boundaryOf("multipart/form-data; boundary=\"\""));
+        assertNull(MultipartStreamReader.boundaryOf("application/json; boundary=abc"));
+        assertNull(MultipartStreamReader.boundaryOf(null));
+    }
+
+    private static String transfer(MultipartStreamReader reader) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reader.transferBody(Channels.newChannel(out), written -> { });
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Flux qui ne rend jamais plus de maxRead octets par lecture (corps chunked, réseau lent)
+     */
+    private static InputStream trickle(String body, int maxRead) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, maxRead));
+            }
+        };
+    }
+}
@@ -1,10 +1,12 @@
 package com.move.searchrecommendationservice.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,14 +25,9 @@ public class RabbitMQConfig {
     @Value("${content.events.content-deleted-routing-key}")
     private String contentDeletedRoutingKey;
 
-    @Value("${content.events.content-created-queue}")
-    private String contentCreatedQueue;
-
-    @Value("${content.events.content-updated-queue}")
-    private String contentUpdatedQueue;
-
-    @Value("${content.events.content-deleted-queue}")
-    private String contentDeletedQueue;
+    // File propre au service : chaque service consommateur déclare la sienne sur le même exchange
+    @Value("${content.events.queue}")
+    private String contentEventsQueue;
 
     @Bean
     public TopicExchange contentExchange() {
@@ -38,37 +35,27 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Queue contentCreatedQueue() {
-        return new Queue(contentCreatedQueue, true);
-    }
-
-    @Bean
-    public Queue contentUpdatedQueue() {
-        return new Queue(contentUpdatedQueue, true);
-    }
-
-    @Bean
-    public Queue contentDeletedQueue() {
-        return new Queue(contentDeletedQueue, true);
+    public Queue contentEventsQueue() {
+        return new Queue(contentEventsQueue, true);
     }
 
     @Bean
     public Binding bindingContentCreated() {
-        return BindingBuilder.bind(contentCreatedQueue())
+        return BindingBuilder.bind(contentEventsQueue())
                 .to(contentExchange())
                 .with(contentCreatedRoutingKey);
     }
 
     @Bean
     public Binding bindingContentUpdated() {
-        return BindingBuilder.bind(contentUpdatedQueue())
+        return BindingBuilder.bind(contentEventsQueue())
                 .to(contentExchange())
                 .with(contentUpdatedRoutingKey);
     }
 
     @Bean
     public Binding bindingContentDeleted() {
-        return BindingBuilder.bind(contentDeletedQueue())
+        return BindingBuilder.bind(contentEventsQueue())
                 .to(contentExchange())
                 .with(contentDeletedRoutingKey);
     }
@@ -78,6 +65,55 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter();
     }
 
+    /**
+     * Conteneur en mode lot : les messages sont livrés par listes d'au plus batch.size éléments,
+     * ou dès que la file reste vide pendant batch.receive-timeout-ms.
+     * Le lot entier est acquitté après le retour du listener, et remis en file s'il lève une exception.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory contentBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${content.events.batch.size:200}") int batchSize,
+            @Value("${content.events.batch.receive-timeout-ms:500}") long receiveTimeout,
+            @Value("${content.events.consumer.prefetch:250}") int prefetch,
+            @Value("${content.events.consumer.concurrency:1}") int concurrency,
+            @Value("${content.events.consumer.max-concurrency:1}") int maxConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        // Le prefetch doit couvrir au moins un lot complet
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
+
+    /**
+     * Conteneur message par message (content.events.batch.enabled=false), mêmes réglages de prefetch et de concurrence
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory contentEventsContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${content.events.consumer.prefetch:250}") int prefetch,
+            @Value("${content.events.consumer.concurrency:1}") int concurrency,
+            @Value("${content.events.consumer.max-concurrency:1}") int maxConcurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setPrefetchCount(prefetch);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        return factory;
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
@@ -1,5 +1,6 @@
 package com.move.searchrecommendationservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
@@ -7,6 +8,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * Configuration class for RestTemplate beans.
  * We need separate RestTemplate instances for service discovery (load-balanced)
@@ -31,7 +34,11 @@ public class RestTemplateConfig {
      * This is used for services not registered with Eureka (like FastAPI)
      */
     @Bean(name = "standardRestTemplate")
-    public RestTemplate standardRestTemplate() {
-        return new RestTemplateBuilder().build();
+    public RestTemplate standardRestTemplate(@Value("${recommendation.fastapi.connect-timeout:2s}") Duration connectTimeout,
+                                             @Value("${recommendation.fastapi.read-timeout:5s}") Duration readTimeout) {
+        return new RestTemplateBuilder()
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
     }
 }
\ No newline at end of file
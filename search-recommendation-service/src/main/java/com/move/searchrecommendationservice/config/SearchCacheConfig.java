@@ -0,0 +1,72 @@
+package com.move.searchrecommendationservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.move.searchrecommendationservice.service.SearchCacheKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache des résultats de recherche : un cache Caffeine par type de requête, borné en taille et en durée.
+ * Les clés sont produites par searchCacheKeyGenerator (forme canonique de la requête) et
+ * l'invalidation est pilotée par les événements de contenu (SearchCacheInvalidator).
+ * Les statistiques sont publiées par l'actuator (cache.gets, cache.evictions) et search.cache.hit.ratio.
+ */
+@Configuration
+@EnableCaching
+public class SearchCacheConfig {
+
+    public static final String KEYWORD_SEARCH = "keywordSearchCache";
+    public static final String ADVANCED_SEARCH = "advancedSearchCache";
+    public static final String USER_CONTENT = "userContentCache";
+    public static final String SUGGESTIONS = "suggestionsCache";
+    public static final String TRENDING = "trendingCache";
+    public static final String LOCATION_SEARCH = "locationSearchCache";
+    public static final String GEO_CLUSTERS = "geoClustersCache";
+
+    public static final List<String> CACHE_NAMES = List.of(
+            KEYWORD_SEARCH, ADVANCED_SEARCH, USER_CONTENT, SUGGESTIONS, TRENDING, LOCATION_SEARCH, GEO_CLUSTERS);
+
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry,
+                                     @Value("${search.cache.enabled:true}") boolean enabled,
+                                     @Value("${search.cache.max-size:10000}") long maxSize,
+                                     @Value("${search.cache.ttl:5m}") Duration ttl) {
+        if (!enabled) {
+            return new NoOpCacheManager();
+        }
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        // Caches déclarés d'avance : pas de création dynamique, métriques enregistrées au démarrage
+        cacheManager.setCacheNames(CACHE_NAMES);
+        cacheManager.setAllowNullValues(false);
+
+        for (String name : CACHE_NAMES) {
+            CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+            Gauge.builder("search.cache.hit.ratio", cache.getNativeCache(), nativeCache -> nativeCache.stats().hitRate())
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public KeyGenerator searchCacheKeyGenerator() {
+        return (target, method, params) -> SearchCacheKey.of(method.getName(), params);
+    }
+}
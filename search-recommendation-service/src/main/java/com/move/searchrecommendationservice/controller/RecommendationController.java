@@ -3,7 +3,6 @@ package com.move.searchrecommendationservice.controller;
 
 import com.move.searchrecommendationservice.model.ContentIndex;
 import com.move.searchrecommendationservice.model.ContentItem;
-import com.move.searchrecommendationservice.model.ContentItemMapper;
 import com.move.searchrecommendationservice.repository.ContentIndexRepository;
 import com.move.searchrecommendationservice.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
@@ -11,7 +10,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.StreamSupport;
 
 @RestController
 @RequiredArgsConstructor
@@ -27,20 +25,8 @@ public class RecommendationController {
         ContentIndex content = contentIndexRepository.findById(contentId).orElse(null);
         if (content == null) return ResponseEntity.notFound().build();
 
-        ContentItem input = ContentItemMapper.fromIndex(content);
-
-        // Récupérer les autres contenus à comparer (en excluant celui en cours)
-        List<ContentItem> candidates = StreamSupport
-                .stream(contentIndexRepository.findAll().spliterator(), false)
-                .filter(c -> !c.getId().equals(contentId))
-                .map(ContentItemMapper::fromIndex)
-                .toList();
-
-        // Construire l'entrée NLP
-        String userInput = input.getTitle() + " " + input.getDescription();
-
-        // Appel à FastAPI
-        List<ContentItem> recommendations = recommendationService.getRecommendations(userInput, candidates);
+        // Index vectoriel en mémoire, ou candidats Elasticsearch classés par FastAPI si activé
+        List<ContentItem> recommendations = recommendationService.recommend(content);
 
         return ResponseEntity.ok(recommendations);
     }
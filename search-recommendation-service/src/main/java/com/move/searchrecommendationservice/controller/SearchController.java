@@ -1,10 +1,15 @@
 package com.move.searchrecommendationservice.controller;
 
 import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.GeoBoundingBox;
+import com.move.searchrecommendationservice.model.GeoCluster;
 import com.move.searchrecommendationservice.model.SearchHistory;
 import com.move.searchrecommendationservice.model.SearchResult;
-import com.move.searchrecommendationservice.repository.SearchHistoryRepository;
 import com.move.searchrecommendationservice.service.AdvancedSearchService;
+import com.move.searchrecommendationservice.service.SearchHistoryRecorder;
+import com.move.searchrecommendationservice.service.SimilarContentService;
+import com.move.searchrecommendationservice.service.SuggestionService;
+import com.move.searchrecommendationservice.service.UserPreferenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -24,9 +29,11 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class SearchController {
-    private final SearchHistoryRepository searchHistoryRepository;
+    private final SearchHistoryRecorder searchHistoryRecorder;
+    private final UserPreferenceService userPreferenceService;
     private final AdvancedSearchService searchService;
-    private static  int suggestMaxResults = 10;
+    private final SimilarContentService similarContentService;
+    private final SuggestionService suggestionService;
 
     /**
      * Public search endpoint for basic keyword search
@@ -40,7 +47,8 @@ public class SearchController {
         // Use searchByKeyword method for simple public search
         return ResponseEntity.ok(searchService.searchByKeyword(
                 keyword,
-                PageRequest.of(page, size)
+                PageRequest.of(page, size),
+                null
         ));
     }
 
@@ -59,7 +67,7 @@ public class SearchController {
 
         // Log search history if userId is available
         if (userId != null) {
-            searchHistoryRepository.save(SearchHistory.builder()
+            searchHistoryRecorder.record(SearchHistory.builder()
                     .userId(userId)
                     .keyword(keyword)
                     .timestamp(new Date())
@@ -68,7 +76,8 @@ public class SearchController {
 
         return ResponseEntity.ok(searchService.searchByKeyword(
                 keyword,
-                PageRequest.of(page, size)
+                PageRequest.of(page, size),
+                userPreferenceService.profileOf(userId)
         ));
     }
 
@@ -87,13 +96,16 @@ public class SearchController {
             @RequestParam(required = false, defaultValue = "desc") String sortDirection,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean useCursor,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request) {
 
         // Extract userId if present (JWT)
         String userId = (String) request.getAttribute("userId");
 
-        if (userId != null) {
-            searchHistoryRepository.save(SearchHistory.builder()
+        // Les pages suivantes d'un parcours par curseur ne sont pas réenregistrées dans l'historique
+        if (userId != null && cursor == null) {
+            searchHistoryRecorder.record(SearchHistory.builder()
                     .userId(userId)
                     .keyword(keyword)
                     .minBudget(minBudget)
@@ -106,9 +118,22 @@ public class SearchController {
         }
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection.toLowerCase()), sortBy);
+
+        // Pagination par curseur (point-in-time + search_after) pour le défilement infini
+        if (useCursor || cursor != null) {
+            try {
+                return ResponseEntity.ok(searchService.advancedSearchAfter(
+                        keyword, minBudget, maxBudget, minRating, type, isPublished, sort, size, cursor,
+                        userPreferenceService.profileOf(userId)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
         return ResponseEntity.ok(searchService.advancedSearch(
                 keyword, minBudget, maxBudget, minRating, type, isPublished,
-                PageRequest.of(page, size, sort)
+                PageRequest.of(page, size, sort),
+                userPreferenceService.profileOf(userId)
         ));
     }
 
@@ -161,10 +186,8 @@ public class SearchController {
             return ResponseEntity.ok(Collections.emptyList());
         }
 
-        // Set the max results to the requested limit
-        suggestMaxResults = Math.min(limit, 20); // Cap at 20 to prevent abuse
-
-        List<String> suggestions = searchService.getSuggestions(prefix);
+        // Limite propre à la requête (plafonnée par search.suggest.max)
+        List<String> suggestions = suggestionService.suggest(prefix, limit);
         return ResponseEntity.ok(suggestions);
     }
     /**
@@ -176,7 +199,8 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
-        return ResponseEntity.ok(searchService.findSimilarContent(
+        // Lecture de la table de voisins précalculée
+        return ResponseEntity.ok(similarContentService.findSimilar(
                 contentId,
                 PageRequest.of(page, size)
         ));
@@ -188,7 +212,17 @@ public class SearchController {
     @GetMapping("/trending")
     public ResponseEntity<SearchResult<ContentIndex>> getTrendingContent(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean useCursor,
+            @RequestParam(required = false) String cursor) {
+
+        if (useCursor || cursor != null) {
+            try {
+                return ResponseEntity.ok(searchService.findTrendingContentAfter(size, cursor));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
 
         return ResponseEntity.ok(searchService.findTrendingContent(
                 PageRequest.of(page, size)
@@ -218,5 +252,55 @@ public class SearchController {
         ));
     }
 
+    /**
+     * Search for content located inside a map viewport
+     */
+    @GetMapping("/location/bbox")
+    public ResponseEntity<SearchResult<ContentIndex>> searchInBoundingBox(
+            @RequestParam Double top,
+            @RequestParam Double left,
+            @RequestParam Double bottom,
+            @RequestParam Double right,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Boolean isPublished,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            return ResponseEntity.ok(searchService.searchInBoundingBox(
+                    new GeoBoundingBox(top, left, bottom, right),
+                    keyword,
+                    isPublished,
+                    PageRequest.of(page, size)
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Clustered markers (geohash cells) for a map viewport, in a single request
+     */
+    @GetMapping("/location/clusters")
+    public ResponseEntity<List<GeoCluster>> findGeoClusters(
+            @RequestParam Double top,
+            @RequestParam Double left,
+            @RequestParam Double bottom,
+            @RequestParam Double right,
+            @RequestParam(defaultValue = "5") int precision,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Boolean isPublished) {
+
+        try {
+            return ResponseEntity.ok(searchService.findGeoClusters(
+                    new GeoBoundingBox(top, left, bottom, right),
+                    precision,
+                    keyword,
+                    isPublished
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
 }
\ No newline at end of file
@@ -1,19 +1,23 @@
 package com.move.searchrecommendationservice.controller;
 
+import com.move.searchrecommendationservice.service.BulkReindexService;
 import com.move.searchrecommendationservice.service.SyncBatchRunner;
 import com.move.searchrecommendationservice.service.SynchronizationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/sync")
 @RequiredArgsConstructor
 public class SyncController {
 
+    private static final String REINDEX_IN_PROGRESS = "Synchronisation ou réindexation déjà en cours, réessayer plus tard.";
+
     private final SyncBatchRunner syncBatchRunner;
     private final SynchronizationService synchronizationService;
 
@@ -48,8 +52,29 @@ public class SyncController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MASTERADMIN')")
     public ResponseEntity<String> reindexWithSuggestField() {
         try {
-            synchronizationService.reindexAllWithSuggestField();
-            return ResponseEntity.ok("All documents reindexed with suggest field");
+            Optional<BulkReindexService.ReindexReport> result = synchronizationService.reindexAllWithSuggestField();
+            if (result.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(REINDEX_IN_PROGRESS);
+            }
+            BulkReindexService.ReindexReport report = result.get();
+            return ResponseEntity.ok("All documents reindexed with suggest field: "
+                    + report.indexed() + "/" + report.total() + " in " + report.elapsedMs() + " ms");
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error reindexing: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Réindexation complète dans un nouvel index versionné, puis bascule atomique de l'alias.
+     * 409 si une migration ou une synchronisation détient le bail.
+     */
+    @PostMapping("/reindex")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MASTERADMIN')")
+    public ResponseEntity<?> reindexIntoNewIndex() {
+        try {
+            return syncBatchRunner.reindexIntoNewIndexExclusive()
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(REINDEX_IN_PROGRESS));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error reindexing: " + e.getMessage());
         }
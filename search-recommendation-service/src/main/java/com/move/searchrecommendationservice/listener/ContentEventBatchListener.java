@@ -0,0 +1,77 @@
+package com.move.searchrecommendationservice.listener;
+
+import com.move.searchrecommendationservice.model.ContentDTO;
+import com.move.searchrecommendationservice.service.SynchronizationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consommation par lots des événements de contenu (content.events.batch.enabled=true).
+ * <p>
+ * La file du service reçoit les trois clés content.* : dans un lot, seul l'événement le plus récent
+ * de chaque contenu est conservé (plus grand sequence, ordre d'arrivée à défaut), puis le lot est appliqué en une seule requête _bulk.
+ * La sequence est aussi la version externe des écritures : un événement plus ancien que le document indexé est refusé.
+ * Les messages ne sont acquittés qu'une fois le _bulk réussi ; en cas d'échec le lot est remis en file.
+ */
+@Component
+@ConditionalOnProperty(name = "content.events.batch.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ContentEventBatchListener {
+
+    private final SynchronizationService syncService;
+
+    @Value("${content.events.content-deleted-routing-key}")
+    private String contentDeletedRoutingKey;
+
+    @RabbitListener(queues = "${content.events.queue}", containerFactory = "contentBatchContainerFactory")
+    public void handleContentEvents(List<Message<ContentDTO>> messages) throws IOException {
+        // Événement le plus récent par contenu
+        Map<String, Message<ContentDTO>> latest = new LinkedHashMap<>();
+        for (Message<ContentDTO> message : messages) {
+            ContentDTO dto = message.getPayload();
+            if (dto == null || dto.getId() == null) {
+                log.warn("⚠️ Événement de contenu sans identifiant ignoré");
+                continue;
+            }
+            Message<ContentDTO> previous = latest.get(dto.getId());
+            if (previous != null && isOlder(dto, previous.getPayload())) {
+                // Événement en retard sur celui déjà retenu
+                continue;
+            }
+            latest.remove(dto.getId());
+            latest.put(dto.getId(), message);
+        }
+
+        List<ContentDTO> upserts = new ArrayList<>();
+        List<ContentDTO> deletes = new ArrayList<>();
+        for (Message<ContentDTO> message : latest.values()) {
+            if (contentDeletedRoutingKey.equals(message.getHeaders().get(AmqpHeaders.RECEIVED_ROUTING_KEY))) {
+                deletes.add(message.getPayload());
+            } else {
+                upserts.add(message.getPayload());
+            }
+        }
+
+        syncService.syncBatch(upserts, deletes);
+        log.info("📥 Lot de {} événements appliqué : {} indexés, {} supprimés",
+                messages.size(), upserts.size(), deletes.size());
+    }
+
+    private static boolean isOlder(ContentDTO candidate, ContentDTO current) {
+        return candidate.getSequence() != null && current.getSequence() != null
+                && candidate.getSequence() < current.getSequence();
+    }
+}
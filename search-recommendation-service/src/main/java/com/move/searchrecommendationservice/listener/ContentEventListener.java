@@ -5,30 +5,36 @@ import com.move.searchrecommendationservice.service.SynchronizationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+/**
+ * Traitement message par message (content.events.batch.enabled=false)
+ * <p>
+ * Un seul consommateur sur la file du service, aiguillage selon la clé de routage.
+ */
 @Component
+@ConditionalOnProperty(name = "content.events.batch.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ContentEventListener {
 
     private final SynchronizationService syncService;
 
-    @RabbitListener(queues = "${content.events.content-created-queue}")
-    public void handleContentCreated(ContentDTO dto) {
-        log.info("📥 Received Content Created event: {}", dto.getId());
-        syncService.sync(dto);
-    }
-
-    @RabbitListener(queues = "${content.events.content-updated-queue}")
-    public void handleContentUpdated(ContentDTO dto) {
-        log.info("📥 Received Content Updated event: {}", dto.getId());
-        syncService.sync(dto);
-    }
+    @Value("${content.events.content-deleted-routing-key}")
+    private String contentDeletedRoutingKey;
 
-    @RabbitListener(queues = "${content.events.content-deleted-queue}")
-    public void handleContentDeleted(ContentDTO dto) {
-        log.info("🗑️ Received Content Deleted event: {}", dto.getId());
-        syncService.delete(dto.getId());
+    @RabbitListener(queues = "${content.events.queue}", containerFactory = "contentEventsContainerFactory")
+    public void handleContentEvent(ContentDTO dto, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        if (contentDeletedRoutingKey.equals(routingKey)) {
+            log.info("🗑️ Received Content Deleted event: {}", dto.getId());
+            syncService.delete(dto.getId(), dto.indexVersion());
+        } else {
+            log.info("📥 Received Content {} event: {}", routingKey, dto.getId());
+            syncService.sync(dto);
+        }
     }
-}
\ No newline at end of file
+}
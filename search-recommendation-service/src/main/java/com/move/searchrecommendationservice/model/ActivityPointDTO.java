@@ -0,0 +1,14 @@
+package com.move.searchrecommendationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityPointDTO {
+    private String id;
+    private String name;
+    private LocationDTO location;
+}
@@ -25,6 +25,21 @@ public class ContentDTO {
     private Boolean isPublished;
     private Date creationDate;
     private Date lastModified;
+    private Integer likeCount;
+    private List<LocationDTO> locations;
+    private List<DayProgramDTO> dayPrograms;
 
+    // Version du document, incrémentée par CONTENT-SERVICE à chaque écriture
+    private Long version;
 
+    // Enveloppe ContentEvent (absente des documents lus directement dans Mongo) ; sequence = version écrite
+    private Integer schemaVersion;
+    private Long sequence;
+
+    /**
+     * Version externe du document Elasticsearch : sequence pour un événement, version pour un document Mongo
+     */
+    public Long indexVersion() {
+        return sequence != null ? sequence : version;
+    }
 }
\ No newline at end of file
@@ -7,9 +7,13 @@ import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
 import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.util.Date;
+import java.util.List;
 
 @Getter
 @Setter
@@ -17,16 +21,24 @@ import java.util.Date;
 @NoArgsConstructor
 @Builder
 @JsonIgnoreProperties(ignoreUnknown = true)
-@Document(indexName = "move_contents")
+// L'index est créé par ContentIndexBootstrap (index versionné derrière l'alias move_contents)
+@Document(indexName = "move_contents", createIndex = false)
+@Setting(settingPath = "elasticsearch/content-index-settings.json")
 public class ContentIndex {
 
+    /**
+     * Version du mapping ci-dessous, enregistrée dans le _meta de l'index.
+     * À incrémenter à chaque changement de mapping ou d'analyseur : l'index est alors reconstruit au démarrage.
+     */
+    public static final int MAPPING_VERSION = 3;
+
     @Id
     private String id;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Text, analyzer = "content_title")
     private String title;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Text, analyzer = "content_text")
     private String description;
 
     @Field(type = FieldType.Double)
@@ -35,7 +47,7 @@ public class ContentIndex {
     @Field(type = FieldType.Integer)
     private Integer rating;
 
-    @Field(type = FieldType.Text)
+    @Field(type = FieldType.Keyword)
     private String userId;
 
     @Field(type = FieldType.Keyword)
@@ -53,6 +65,11 @@ public class ContentIndex {
     private Boolean isPublished;
     @Field(type = FieldType.Integer)
     private Integer likeCount;
+
+    // Localisations du contenu et points d'activité de son programme (geo_point multi-valué)
+    @GeoPointField
+    private List<GeoPoint> location;
+
     @CompletionField(maxInputLength = 100)
     private Completion titleSuggest;
 
@@ -0,0 +1,90 @@
+package com.move.searchrecommendationservice.model;
+
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+public class ContentIndexMapper {
+
+    public static ContentIndex fromDTO(ContentDTO dto) {
+        if (dto == null) return null;
+        return ContentIndex.builder()
+                .id(dto.getId())
+                .title(dto.getTitle())
+                .description(dto.getDescription())
+                .budget(dto.getBudget())
+                .rating(dto.getRating())
+                .userId(dto.getUserId())
+                .type(dto.getType())
+                .isPublished(dto.getIsPublished())
+                .creationDate(dto.getCreationDate())
+                .lastModified(dto.getLastModified())
+                .likeCount(dto.getLikeCount() != null ? dto.getLikeCount() : 0)
+                .location(locations(dto))
+                .titleSuggest(titleSuggestions(dto.getTitle()))
+                .build();
+    }
+
+    /**
+     * Coordonnées des localisations du contenu et des points d'activité de chaque jour, sans doublon
+     */
+    public static List<GeoPoint> locations(ContentDTO dto) {
+        Set<GeoPoint> points = new LinkedHashSet<>();
+        if (dto.getLocations() != null) {
+            dto.getLocations().forEach(location -> addPoint(points, location));
+        }
+        if (dto.getDayPrograms() != null) {
+            dto.getDayPrograms().stream()
+                    .filter(Objects::nonNull)
+                    .filter(day -> day.getActivities() != null)
+                    .flatMap(day -> day.getActivities().stream())
+                    .filter(Objects::nonNull)
+                    .forEach(activity -> addPoint(points, activity.getLocation()));
+        }
+        return points.isEmpty() ? null : new ArrayList<>(points);
+    }
+
+    private static void addPoint(Set<GeoPoint> points, LocationDTO location) {
+        if (location != null && location.getLat() != null && location.getLon() != null
+                && Math.abs(location.getLat()) <= 90 && Math.abs(location.getLon()) <= 180) {
+            points.add(new GeoPoint(location.getLat(), location.getLon()));
+        }
+    }
+
+    public static Completion titleSuggestions(String title) {
+        if (title == null || title.isEmpty()) {
+            return new Completion(Collections.emptyList());
+        }
+
+        // Create various forms of the title for better suggestions
+        List<String> inputs = new ArrayList<>();
+
+        // Original title
+        inputs.add(title);
+
+        // Lowercased version
+        inputs.add(title.toLowerCase());
+
+        // Title with spaces replaced by dashes (common search pattern)
+        if (title.contains(" ")) {
+            inputs.add(title.replace(" ", "-"));
+        }
+
+        // Add individual words for partial matching
+        String[] words = title.split("\\s+");
+        if (words.length > 1) {
+            Arrays.stream(words)
+                    .filter(word -> word.length() > 2) // Only words with 3+ chars
+                    .forEach(inputs::add);
+        }
+
+        return new Completion(inputs);
+    }
+}
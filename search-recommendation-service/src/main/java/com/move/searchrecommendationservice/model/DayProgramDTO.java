@@ -0,0 +1,16 @@
+package com.move.searchrecommendationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DayProgramDTO {
+    private String id;
+    private Integer dayNumber;
+    private List<ActivityPointDTO> activities;
+}
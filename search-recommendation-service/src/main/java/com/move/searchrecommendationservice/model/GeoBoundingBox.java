@@ -0,0 +1,17 @@
+package com.move.searchrecommendationservice.model;
+
+/**
+ * Zone rectangulaire (viewport d'une carte) : coin nord-ouest et coin sud-est
+ */
+public record GeoBoundingBox(double top, double left, double bottom, double right) {
+
+    public GeoBoundingBox {
+        if (top < -90 || top > 90 || bottom < -90 || bottom > 90 || bottom > top) {
+            throw new IllegalArgumentException("Invalid latitude bounds: top=" + top + ", bottom=" + bottom);
+        }
+        // left > right est permis : la zone traverse l'antiméridien
+        if (left < -180 || left > 180 || right < -180 || right > 180) {
+            throw new IllegalArgumentException("Invalid longitude bounds: left=" + left + ", right=" + right);
+        }
+    }
+}
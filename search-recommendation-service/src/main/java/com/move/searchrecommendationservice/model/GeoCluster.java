@@ -0,0 +1,12 @@
+package com.move.searchrecommendationservice.model;
+
+/**
+ * Marqueur regroupé d'une carte : une cellule geohash avec le nombre de contenus et leur barycentre.
+ * Pour une cellule ne contenant qu'un seul contenu, son id et son titre sont renseignés.
+ * <p>
+ * count est le nombre de contenus ayant au moins un point dans la cellule : un contenu multi-localisé
+ * est compté dans chaque cellule où il a un point, la somme des counts peut donc dépasser le nombre de contenus.
+ * lat / lon restent toujours à l'intérieur de la cellule.
+ */
+public record GeoCluster(String geohash, long count, double lat, double lon, String contentId, String title) {
+}
@@ -0,0 +1,16 @@
+package com.move.searchrecommendationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LocationDTO {
+    private String id;
+    private String address;
+    private String country;
+    private Double lat;
+    private Double lon;
+}
@@ -2,6 +2,7 @@ package com.move.searchrecommendationservice.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -14,6 +15,7 @@ import java.util.Date;
 public class SearchHistory {
     @Id
     private String id;
+    @Indexed
     private String userId;
     private String keyword;
     private Double minBudget;
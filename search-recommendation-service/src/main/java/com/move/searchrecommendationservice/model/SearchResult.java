@@ -14,6 +14,12 @@ public class SearchResult<T> {
     private int pageNumber;
     private int pageSize;
     private long totalElements;
+    // Jeton opaque de la page suivante en pagination par curseur (null sinon ou en fin de résultats)
+    private String nextCursor;
+
+    public SearchResult(List<T> content, int pageNumber, int pageSize, long totalElements) {
+        this(content, pageNumber, pageSize, totalElements, null);
+    }
 
     public int getTotalPages() {
         return pageSize > 0 ? (int) Math.ceil((double) totalElements / (double) pageSize) : 0;
@@ -0,0 +1,34 @@
+package com.move.searchrecommendationservice.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Liste précalculée des contenus similaires à un contenu (voisins triés par score décroissant).
+ * Chaque voisin embarque une copie du document indexé pour servir la lecture sans requête Elasticsearch.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "similar_contents")
+public class SimilarContent {
+    @Id
+    private String id;              // contentId source
+    private List<Neighbour> neighbours;
+    private Date computedAt;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Neighbour {
+        // Index neighbours.contentId créé au démarrage par SimilarContentService (auto-index désactivé)
+        private String contentId;
+        private Double score;
+        private ContentIndex content;
+    }
+}
@@ -0,0 +1,26 @@
+package com.move.searchrecommendationservice.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * État partagé de la synchronisation Mongo -> Elasticsearch :
+ * verrou de l'instance leader et point de reprise (plus grand lastModified indexé).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "search_sync_state")
+public class SyncState {
+    @Id
+    private String id;
+    private String owner;          // Instance qui détient le verrou
+    private Date lockedUntil;      // Fin du bail du verrou
+    private Date highWaterMark;    // lastModified du dernier contenu synchronisé
+    private Date lastRunAt;
+    private Long lastIndexed;
+}
@@ -0,0 +1,19 @@
+package com.move.searchrecommendationservice.model;
+
+import java.util.List;
+
+/**
+ * Préférences d'un utilisateur déduites de son historique de recherche, sous forme stable
+ * (valeurs arrondies, listes courtes) : deux profils proches partagent la même entrée de cache.
+ *
+ * @param types     types de contenu préférés, du plus au moins fréquent
+ * @param budgetMin borne basse de la fourchette de budget habituelle (null si inconnue)
+ * @param budgetMax borne haute de la fourchette de budget habituelle (null si inconnue)
+ * @param terms     termes de recherche fréquents
+ */
+public record UserPreferenceProfile(List<String> types, Double budgetMin, Double budgetMax, List<String> terms) {
+
+    public boolean hasBudgetBand() {
+        return budgetMin != null && budgetMax != null && budgetMax >= budgetMin;
+    }
+}
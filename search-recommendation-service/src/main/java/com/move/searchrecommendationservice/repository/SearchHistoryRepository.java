@@ -7,4 +7,7 @@ import java.util.List;
 
 public interface SearchHistoryRepository extends MongoRepository<SearchHistory, String> {
     List<SearchHistory> findByUserId(String userId);
+
+    // Dernières recherches d'un utilisateur (reconstruction du profil de préférences)
+    List<SearchHistory> findTop100ByUserIdOrderByTimestampDesc(String userId);
 }
@@ -0,0 +1,9 @@
+package com.move.searchrecommendationservice.repository;
+
+import com.move.searchrecommendationservice.model.SimilarContent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SimilarContentRepository extends MongoRepository<SimilarContent, String> {
+}
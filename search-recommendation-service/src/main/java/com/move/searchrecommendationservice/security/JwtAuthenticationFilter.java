@@ -1,9 +1,8 @@
 package com.move.searchrecommendationservice.security;
 
+import com.move.security.IdentityHeaderVerifier;
+import com.move.security.JwtTokenVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,7 +18,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Key;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -31,8 +29,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final IdentityHeaderVerifier identityHeaderVerifier;
+
+    public JwtAuthenticationFilter(JwtTokenVerifier jwtTokenVerifier, IdentityHeaderVerifier identityHeaderVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.identityHeaderVerifier = identityHeaderVerifier;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -55,6 +58,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Trusted hop: identity already verified and signed by the gateway, no JWT re-validation
+        IdentityHeaderVerifier.Identity identity = identityHeaderVerifier.verify(request.getHeader(IdentityHeaderVerifier.HEADER));
+        if (identity != null) {
+            authenticate(request, response, identity.username(), identity.userId(), identity.roles());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -95,25 +106,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authorities = claims.get("roles", ArrayList.class);
             }
 
-            logger.debug("Authenticated user: {}, userId: {}, authorities: {}", username, userId, authorities);
-
-            List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-
-            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                    username, null, grantedAuthorities);
-
-            SecurityContextHolder.getContext().setAuthentication(auth);
-
-            // Store user information as request attributes and headers for controllers
-            request.setAttribute("userId", userId);
-            request.setAttribute("username", username);
-            request.setAttribute("roles", String.join(",", authorities));
-
-            response.setHeader("X-User-Id", userId);
-            response.setHeader("X-Username", username);
-            response.setHeader("X-User-Roles", String.join(",", authorities));
+            authenticate(request, response, username, userId, authorities);
 
             filterChain.doFilter(request, response);
 
@@ -123,23 +116,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
-    private Claims validateToken(String token) {
-        try {
-            byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+    private void authenticate(HttpServletRequest request, HttpServletResponse response,
+                              String username, String userId, List<String> authorities) {
+        logger.debug("Authenticated user: {}, userId: {}, authorities: {}", username, userId, authorities);
 
-            if (keyBytes.length < 32) {
-                byte[] paddedKey = new byte[32];
-                System.arraycopy(keyBytes, 0, paddedKey, 0, Math.min(keyBytes.length, 32));
-                keyBytes = paddedKey;
-            }
+        List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                username, null, grantedAuthorities);
 
-            Key key = Keys.hmacShaKeyFor(keyBytes);
+        SecurityContextHolder.getContext().setAuthentication(auth);
 
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+        // Store user information as request attributes and headers for controllers
+        request.setAttribute("userId", userId);
+        request.setAttribute("username", username);
+        request.setAttribute("roles", String.join(",", authorities));
+
+        response.setHeader("X-User-Id", userId);
+        response.setHeader("X-Username", username);
+        response.setHeader("X-User-Roles", String.join(",", authorities));
+    }
+
+    private Claims validateToken(String token) {
+        try {
+            // Clé et parser construits une seule fois ; tokens récents servis depuis le cache
+            Claims claims = jwtTokenVerifier.verify(token);
 
             if (claims.getExpiration().before(new Date())) {
                 logger.warn("JWT token is expired");
@@ -0,0 +1,26 @@
+package com.move.searchrecommendationservice.security;
+
+import com.move.security.IdentityHeaderVerifier;
+import com.move.security.JwtTokenVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans de vérification fournis par le module security-common
+ */
+@Configuration
+public class TokenVerificationConfig {
+
+    @Bean
+    public JwtTokenVerifier jwtTokenVerifier(@Value("${jwt.secret}") String jwtSecret,
+                                             @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        return new JwtTokenVerifier(jwtSecret, maxSize);
+    }
+
+    @Bean
+    public IdentityHeaderVerifier identityHeaderVerifier(@Value("${gateway.identity.enabled:true}") boolean enabled,
+                                                         @Value("${gateway.identity.secret}") String secret) {
+        return new IdentityHeaderVerifier(enabled, secret);
+    }
+}
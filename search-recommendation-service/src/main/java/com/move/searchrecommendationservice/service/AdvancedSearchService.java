@@ -1,11 +1,16 @@
 package com.move.searchrecommendationservice.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.GeoLocation;
+import co.elastic.clients.elasticsearch._types.SortOptions;
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
 import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.aggregations.GeoHashGridBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScore;
 import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
@@ -14,8 +19,12 @@ import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.*;
 import co.elastic.clients.json.JsonData;
+import com.move.searchrecommendationservice.config.SearchCacheConfig;
 import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.GeoBoundingBox;
+import com.move.searchrecommendationservice.model.GeoCluster;
 import com.move.searchrecommendationservice.model.SearchResult;
+import com.move.searchrecommendationservice.model.UserPreferenceProfile;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +45,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AdvancedSearchService {
 
+    private static final String GEOHASH_BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
     private final ElasticsearchClient elasticsearchClient;
 
     @Value("${elasticsearch.indices.content-index}")
@@ -50,18 +61,28 @@ public class AdvancedSearchService {
     @Value("${search.boost.rating:1.5}")
     private Double ratingBoost;
 
-    @Value("${search.suggest.max:10}")
-    private Integer suggestMaxResults;
+    @Value("${search.geo.max-clusters:2000}")
+    private Integer maxGeoClusters;
+
+    @Value("${search.cursor.keep-alive:1m}")
+    private String cursorKeepAlive;
+
+    @Value("${search.personalization.type-weight:1.5}")
+    private Double preferredTypeWeight;
+
+    @Value("${search.personalization.budget-weight:1.3}")
+    private Double preferredBudgetWeight;
 
-    @Value("${search.cache.enabled:true}")
-    private Boolean cacheEnabled;
+    @Value("${search.personalization.term-weight:1.2}")
+    private Double preferredTermWeight;
 
     /**
-     * Simple search by keyword with improved relevance scoring, synonym handling, and typo tolerance
+     * Simple search by keyword with improved relevance scoring, synonym handling, and typo tolerance.
+     * The optional preference profile boosts the user's usual types, budget band and terms.
      */
-    @Cacheable(value = "keywordSearchCache", key = "#keyword + #pageable.pageNumber + #pageable.pageSize",
-            condition = "@cacheEnabled")
-    public SearchResult<ContentIndex> searchByKeyword(String keyword, Pageable pageable) {
+    @Cacheable(cacheNames = SearchCacheConfig.KEYWORD_SEARCH, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
+    public SearchResult<ContentIndex> searchByKeyword(String keyword, Pageable pageable, UserPreferenceProfile profile) {
         try {
             // Create function score query for better relevance
             Query baseQuery = Query.of(q -> q
@@ -98,6 +119,7 @@ public class AdvancedSearchService {
                                                     )
                                             )
                             )
+                            .functions(preferenceFunctions(profile))
                             .boostMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode.Multiply)
                     )
             );
@@ -126,6 +148,8 @@ public class AdvancedSearchService {
     /**
      * Advanced search with multiple filters, aggregations, and improved relevance scoring
      */
+    @Cacheable(cacheNames = SearchCacheConfig.ADVANCED_SEARCH, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
     public SearchResult<ContentIndex> advancedSearch(
             String keyword,
             Double minBudget,
@@ -133,77 +157,13 @@ public class AdvancedSearchService {
             Integer minRating,
             String type,
             Boolean isPublished,
-            Pageable pageable) {
+            Pageable pageable,
+            UserPreferenceProfile profile) {
         try {
-            // Build boolean query with filters
-            BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
-
-            // Add keyword search if provided
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                boolQueryBuilder.must(q -> q
-                        .multiMatch(mm -> mm
-                                .fields("title^" + titleBoost, "description^" + descriptionBoost)
-                                .query(keyword)
-                                .type(co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields)
-                                .fuzziness("AUTO")
-                                .prefixLength(2)
-                                .minimumShouldMatch("70%")
-                        )
-                );
-            } else {
-                // If no keyword, use match_all for better performance
-                boolQueryBuilder.must(q -> q.matchAll(ma -> ma));
-            }
-
-            // Add budget range filter if provided
-            if (minBudget != null || maxBudget != null) {
-                RangeQuery.Builder rangeBuilder = new RangeQuery.Builder().field("budget");
-
-                if (minBudget != null) {
-                    rangeBuilder.gte(JsonData.of(minBudget));
-                }
-
-                if (maxBudget != null) {
-                    rangeBuilder.lte(JsonData.of(maxBudget));
-                }
-
-                boolQueryBuilder.filter(q -> q.range(rangeBuilder.build()));
-            }
-
-            // Add rating filter if provided
-            if (minRating != null) {
-                boolQueryBuilder.filter(q -> q
-                        .range(r -> r
-                                .field("rating")
-                                .gte(JsonData.of(minRating))
-                        )
-                );
-            }
-
-            // Add type filter if provided
-            if (type != null && !type.trim().isEmpty()) {
-                boolQueryBuilder.filter(q -> q
-                        .term(t -> t
-                                .field("type")
-                                .value(type)
-                        )
-                );
-            }
-
-            // Add published filter if provided
-            if (isPublished != null) {
-                boolQueryBuilder.filter(q -> q
-                        .term(t -> t
-                                .field("isPublished")
-                                .value(isPublished)
-                        )
-                );
-            }
-
             // Build the search request
             SearchRequest.Builder searchBuilder = new SearchRequest.Builder()
                     .index(contentIndexName)
-                    .query(q -> q.bool(boolQueryBuilder.build()))
+                    .query(personalize(buildAdvancedQuery(keyword, minBudget, maxBudget, minRating, type, isPublished), profile))
                     .from(pageable.getPageNumber() * pageable.getPageSize())
                     .size(pageable.getPageSize())
                     .highlight(h -> h
@@ -232,20 +192,7 @@ public class AdvancedSearchService {
                     )
             );
             // Apply sorting if provided in pageable
-            if (pageable.getSort().isSorted()) {
-                pageable.getSort().forEach(order -> {
-                    searchBuilder.sort(s -> s
-                            .field(f -> f
-                                    .field(order.getProperty())
-                                    .order(order.isAscending() ? SortOrder.Asc : SortOrder.Desc)
-                            )
-                    );
-                });
-            } else {
-                // Default sort by score and then recency
-                searchBuilder.sort(s -> s.field(f -> f.field("_score").order(SortOrder.Desc)));
-                searchBuilder.sort(s -> s.field(f -> f.field("lastModified").order(SortOrder.Desc)));
-            }
+            searchBuilder.sort(advancedSort(pageable.getSort()));
 
             return executeSearch(searchBuilder.build(), pageable);
         } catch (IOException e) {
@@ -254,9 +201,190 @@ public class AdvancedSearchService {
         }
     }
 
+    /**
+     * Advanced search paged with a point-in-time and search_after instead of from/size.
+     * Pass a null cursor for the first page, then the nextCursor of the previous result.
+     */
+    public SearchResult<ContentIndex> advancedSearchAfter(
+            String keyword,
+            Double minBudget,
+            Double maxBudget,
+            Integer minRating,
+            String type,
+            Boolean isPublished,
+            Sort sort,
+            int size,
+            String cursor,
+            UserPreferenceProfile profile) {
+        return searchAfter(personalize(buildAdvancedQuery(keyword, minBudget, maxBudget, minRating, type, isPublished), profile),
+                advancedSort(sort), size, cursor);
+    }
+
+    /**
+     * Build the bool query shared by the paged and cursor variants of the advanced search
+     */
+    private Query buildAdvancedQuery(
+            String keyword,
+            Double minBudget,
+            Double maxBudget,
+            Integer minRating,
+            String type,
+            Boolean isPublished) {
+        // Build boolean query with filters
+        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+
+        // Add keyword search if provided
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            boolQueryBuilder.must(q -> q
+                    .multiMatch(mm -> mm
+                            .fields("title^" + titleBoost, "description^" + descriptionBoost)
+                            .query(keyword)
+                            .type(co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields)
+                            .fuzziness("AUTO")
+                            .prefixLength(2)
+                            .minimumShouldMatch("70%")
+                    )
+            );
+        } else {
+            // If no keyword, use match_all for better performance
+            boolQueryBuilder.must(q -> q.matchAll(ma -> ma));
+        }
+
+        // Add budget range filter if provided
+        if (minBudget != null || maxBudget != null) {
+            RangeQuery.Builder rangeBuilder = new RangeQuery.Builder().field("budget");
+
+            if (minBudget != null) {
+                rangeBuilder.gte(JsonData.of(minBudget));
+            }
+
+            if (maxBudget != null) {
+                rangeBuilder.lte(JsonData.of(maxBudget));
+            }
+
+            boolQueryBuilder.filter(q -> q.range(rangeBuilder.build()));
+        }
+
+        // Add rating filter if provided
+        if (minRating != null) {
+            boolQueryBuilder.filter(q -> q
+                    .range(r -> r
+                            .field("rating")
+                            .gte(JsonData.of(minRating))
+                    )
+            );
+        }
+
+        // Add type filter if provided
+        if (type != null && !type.trim().isEmpty()) {
+            boolQueryBuilder.filter(q -> q
+                    .term(t -> t
+                            .field("type")
+                            .value(type)
+                    )
+            );
+        }
+
+        // Add published filter if provided
+        if (isPublished != null) {
+            boolQueryBuilder.filter(q -> q
+                    .term(t -> t
+                            .field("isPublished")
+                            .value(isPublished)
+                    )
+            );
+        }
+
+        return Query.of(q -> q.bool(boolQueryBuilder.build()));
+    }
+
+    private List<SortOptions> advancedSort(Sort sort) {
+        List<SortOptions> sortOptions = new ArrayList<>();
+        if (sort.isSorted()) {
+            sort.forEach(order -> sortOptions.add(SortOptions.of(s -> s
+                    .field(f -> f
+                            .field(order.getProperty())
+                            .order(order.isAscending() ? SortOrder.Asc : SortOrder.Desc)
+                    )
+            )));
+            // Relevance (and preference boosts) break ties between equal sort values
+            if (sort.getOrderFor("_score") == null) {
+                sortOptions.add(SortOptions.of(s -> s.field(f -> f.field("_score").order(SortOrder.Desc))));
+            }
+        } else {
+            // Default sort by score and then recency
+            sortOptions.add(SortOptions.of(s -> s.field(f -> f.field("_score").order(SortOrder.Desc))));
+            sortOptions.add(SortOptions.of(s -> s.field(f -> f.field("lastModified").order(SortOrder.Desc))));
+        }
+        return sortOptions;
+    }
+
+    /**
+     * Wrap a query in a function_score carrying the user's preference boosts (no-op without profile)
+     */
+    private Query personalize(Query query, UserPreferenceProfile profile) {
+        List<FunctionScore> functions = preferenceFunctions(profile);
+        if (functions.isEmpty()) {
+            return query;
+        }
+        return Query.of(q -> q
+                .functionScore(fs -> fs
+                        .query(query)
+                        .functions(functions)
+                        .scoreMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode.Multiply)
+                        .boostMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode.Multiply)
+                )
+        );
+    }
+
+    /**
+     * Boost functions for preferred types (decreasing with rank), budget band and frequent terms
+     */
+    private List<FunctionScore> preferenceFunctions(UserPreferenceProfile profile) {
+        List<FunctionScore> functions = new ArrayList<>();
+        if (profile == null) {
+            return functions;
+        }
+
+        List<String> types = profile.types();
+        for (int i = 0; i < types.size(); i++) {
+            String preferredType = types.get(i);
+            double weight = 1 + (preferredTypeWeight - 1) / (i + 1);
+            functions.add(FunctionScore.of(f -> f
+                    .weight(weight)
+                    .filter(fq -> fq.term(t -> t.field("type").value(preferredType)))
+            ));
+        }
+
+        if (profile.hasBudgetBand()) {
+            functions.add(FunctionScore.of(f -> f
+                    .weight(preferredBudgetWeight)
+                    .filter(fq -> fq.range(r -> r
+                            .field("budget")
+                            .gte(JsonData.of(profile.budgetMin()))
+                            .lte(JsonData.of(profile.budgetMax()))
+                    ))
+            ));
+        }
+
+        if (!profile.terms().isEmpty()) {
+            String terms = String.join(" ", profile.terms());
+            functions.add(FunctionScore.of(f -> f
+                    .weight(preferredTermWeight)
+                    .filter(fq -> fq.multiMatch(mm -> mm
+                            .fields("title", "description")
+                            .query(terms)
+                    ))
+            ));
+        }
+        return functions;
+    }
+
     /**
      * Find content by user ID with pagination and improved sorting
      */
+    @Cacheable(cacheNames = SearchCacheConfig.USER_CONTENT, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
     public SearchResult<ContentIndex> findByUserId(String userId, Pageable pageable) {
         try {
             SearchRequest request = SearchRequest.of(s -> s
@@ -279,8 +407,9 @@ public class AdvancedSearchService {
         }
     }
 
-    @Cacheable(value = "suggestionsCache", key = "#prefix", condition = "@cacheEnabled")
-    public List<String> getSuggestions(String prefix) {
+    @Cacheable(cacheNames = SearchCacheConfig.SUGGESTIONS, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.isEmpty()")
+    public List<String> getSuggestions(String prefix, int limit) {
         if (prefix == null || prefix.trim().isEmpty()) {
             return Collections.emptyList();
         }
@@ -295,7 +424,7 @@ public class AdvancedSearchService {
                                     .completion(c -> c
                                             .field("titleSuggest")
                                             .skipDuplicates(true)
-                                            .size(suggestMaxResults)
+                                            .size(limit)
                                             .fuzzy(f -> f
                                                     .fuzziness("AUTO")
                                                     .minLength(3)
@@ -335,20 +464,6 @@ public class AdvancedSearchService {
 
     public SearchResult<ContentIndex> findSimilarContent(String contentId, Pageable pageable) {
         try {
-            // First get the original content
-            SearchResponse<ContentIndex> originalResponse = elasticsearchClient.search(
-                    s -> s.index(contentIndexName).query(
-                            q -> q.term(t -> t.field("_id").value(contentId))
-                    ),
-                    ContentIndex.class
-            );
-
-            if (originalResponse.hits().total().value() == 0) {
-                return new SearchResult<>(Collections.emptyList(), 0, 0, 0);
-            }
-
-            ContentIndex original = originalResponse.hits().hits().get(0).source();
-
             // Use More Like This query to find similar content
             SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
                     .index(contentIndexName)
@@ -379,61 +494,13 @@ public class AdvancedSearchService {
     /**
      * Trending content search - find popular content based on likes and recency
      */
+    @Cacheable(cacheNames = SearchCacheConfig.TRENDING, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
     public SearchResult<ContentIndex> findTrendingContent(Pageable pageable) {
         try {
-            // Create function score query to boost by likes and recency
-            FunctionScoreQuery.Builder functionScoreBuilder = new FunctionScoreQuery.Builder()
-                    .query(q -> q
-                            .bool(b -> b
-                                    .must(m -> m.matchAll(ma -> ma))
-                                    .filter(f -> f
-                                            .term(t -> t
-                                                    .field("isPublished")
-                                                    .value(true)
-                                            )
-                                    )
-                            )
-                    );
-
-            // Boost by likes count (popularity)
-            functionScoreBuilder.functions(f -> f
-                    .fieldValueFactor(fvf -> fvf
-                            .field("likeCount")
-                            .factor(1.5)
-                            .modifier(co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier.Log1p)
-                            .missing(1.0)
-                    )
-            );
-
-            // Boost by recency - last 7 days gets higher boost
-            functionScoreBuilder.functions(f -> f
-                    .weight(2.5)
-                    .filter(fq -> fq
-                            .range(r -> r
-                                    .field("lastModified")
-                                    .gte(JsonData.of("now-7d"))
-                            )
-                    )
-            );
-
-            // Last 30 days gets moderate boost
-            functionScoreBuilder.functions(f -> f
-                    .weight(1.2)
-                    .filter(fq -> fq
-                            .range(r -> r
-                                    .field("lastModified")
-                                    .gte(JsonData.of("now-30d"))
-                                    .lt(JsonData.of("now-7d"))
-                            )
-                    )
-            );
-
-            functionScoreBuilder.boostMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode.Multiply)
-                    .scoreMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode.Sum);
-
             SearchRequest request = SearchRequest.of(s -> s
                     .index(contentIndexName)
-                    .query(q -> q.functionScore(functionScoreBuilder.build()))
+                    .query(buildTrendingQuery())
                     .from(pageable.getPageNumber() * pageable.getPageSize())
                     .size(pageable.getPageSize())
             );
@@ -445,17 +512,78 @@ public class AdvancedSearchService {
         }
     }
 
+    /**
+     * Trending content paged with a point-in-time and search_after (constant cost per page)
+     */
+    public SearchResult<ContentIndex> findTrendingContentAfter(int size, String cursor) {
+        return searchAfter(buildTrendingQuery(),
+                List.of(SortOptions.of(s -> s.field(f -> f.field("_score").order(SortOrder.Desc)))),
+                size, cursor);
+    }
+
+    private Query buildTrendingQuery() {
+        // Create function score query to boost by likes and recency
+        FunctionScoreQuery.Builder functionScoreBuilder = new FunctionScoreQuery.Builder()
+                .query(q -> q
+                        .bool(b -> b
+                                .must(m -> m.matchAll(ma -> ma))
+                                .filter(f -> f
+                                        .term(t -> t
+                                                .field("isPublished")
+                                                .value(true)
+                                        )
+                                )
+                        )
+                );
+
+        // Boost by likes count (popularity)
+        functionScoreBuilder.functions(f -> f
+                .fieldValueFactor(fvf -> fvf
+                        .field("likeCount")
+                        .factor(1.5)
+                        .modifier(co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier.Log1p)
+                        .missing(1.0)
+                )
+        );
+
+        // Boost by recency - last 7 days gets higher boost
+        functionScoreBuilder.functions(f -> f
+                .weight(2.5)
+                .filter(fq -> fq
+                        .range(r -> r
+                                .field("lastModified")
+                                .gte(JsonData.of("now-7d"))
+                        )
+                )
+        );
+
+        // Last 30 days gets moderate boost
+        functionScoreBuilder.functions(f -> f
+                .weight(1.2)
+                .filter(fq -> fq
+                        .range(r -> r
+                                .field("lastModified")
+                                .gte(JsonData.of("now-30d"))
+                                .lt(JsonData.of("now-7d"))
+                        )
+                )
+        );
+
+        functionScoreBuilder.boostMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode.Multiply)
+                .scoreMode(co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode.Sum);
+
+        return Query.of(q -> q.functionScore(functionScoreBuilder.build()));
+    }
+
     /**
      * Geolocalized search - find content near specified location
      */
+    @Cacheable(cacheNames = SearchCacheConfig.LOCATION_SEARCH, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
     public SearchResult<ContentIndex> searchByLocation(Double lat, Double lon, Double distanceKm, String keyword,
                                                        Boolean isPublished, Pageable pageable) {
         try {
-            // Build boolean query with geo filter and optional keyword
-            BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
-
-            // Add geo distance filter
-            boolQueryBuilder.filter(q -> q
+            Query geoFilter = Query.of(q -> q
                     .geoDistance(g -> g
                             .field("location")
                             .distance(distanceKm + "km")
@@ -463,31 +591,10 @@ public class AdvancedSearchService {
                     )
             );
 
-            // Add keyword search if provided
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                boolQueryBuilder.must(q -> q
-                        .multiMatch(mm -> mm
-                                .fields("title^" + titleBoost, "description^" + descriptionBoost)
-                                .query(keyword)
-                                .fuzziness("AUTO")
-                        )
-                );
-            }
-
-            // Add published filter if provided
-            if (isPublished != null) {
-                boolQueryBuilder.filter(q -> q
-                        .term(t -> t
-                                .field("isPublished")
-                                .value(isPublished)
-                        )
-                );
-            }
-
-            // Create search request
+            // Create search request (multi-valued location: distance to the closest point)
             SearchRequest request = SearchRequest.of(s -> s
                     .index(contentIndexName)
-                    .query(q -> q.bool(boolQueryBuilder.build()))
+                    .query(geoQuery(geoFilter, keyword, isPublished))
                     .sort(s1 -> s1
                             .geoDistance(g -> g
                                     .field("location")
@@ -506,6 +613,231 @@ public class AdvancedSearchService {
         }
     }
 
+    /**
+     * Contents with at least one location inside a map viewport, most relevant then best rated first
+     */
+    @Cacheable(cacheNames = SearchCacheConfig.LOCATION_SEARCH, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.content.isEmpty()")
+    public SearchResult<ContentIndex> searchInBoundingBox(GeoBoundingBox box, String keyword, Boolean isPublished,
+                                                          Pageable pageable) {
+        try {
+            SearchRequest request = SearchRequest.of(s -> s
+                    .index(contentIndexName)
+                    .query(geoQuery(boundingBoxFilter(box), keyword, isPublished))
+                    .sort(so -> so.score(sc -> sc.order(SortOrder.Desc)))
+                    .sort(so -> so.field(f -> f.field("rating").order(SortOrder.Desc).missing("_last")))
+                    .from(pageable.getPageNumber() * pageable.getPageSize())
+                    .size(pageable.getPageSize())
+            );
+
+            return executeSearch(request, pageable);
+        } catch (IOException e) {
+            log.error("Error during bounding box search: {}", e.getMessage(), e);
+            return new SearchResult<>(Collections.emptyList(), 0, 0, 0);
+        }
+    }
+
+    /**
+     * Clustered map markers for a viewport in one request: geohash_grid over the box,
+     * with the centroid of each cell (and the content itself when the cell holds a single one).
+     * <p>
+     * geo_centroid averages every point of the cell's documents, including the points of multi-located
+     * contents that lie in other cells: the marker is clamped to the cell bounds.
+     * A content with points in several cells is counted in each of them (see GeoCluster).
+     */
+    @Cacheable(cacheNames = SearchCacheConfig.GEO_CLUSTERS, keyGenerator = "searchCacheKeyGenerator",
+            unless = "#result.isEmpty()")
+    public List<GeoCluster> findGeoClusters(GeoBoundingBox box, int precision, String keyword, Boolean isPublished) {
+        int geohashLength = Math.max(1, Math.min(precision, 12));
+        try {
+            SearchRequest request = SearchRequest.of(s -> s
+                    .index(contentIndexName)
+                    .query(geoQuery(boundingBoxFilter(box), keyword, isPublished))
+                    .size(0)
+                    .aggregations("cells", a -> a
+                            .geohashGrid(g -> g
+                                    .field("location")
+                                    .precision(p -> p.geohashLength(geohashLength))
+                                    // Only the points of multi-located contents that fall inside the viewport
+                                    .bounds(b -> b.tlbr(t -> t
+                                            .topLeft(tl -> tl.latlon(ll -> ll.lat(box.top()).lon(box.left())))
+                                            .bottomRight(br -> br.latlon(ll -> ll.lat(box.bottom()).lon(box.right())))))
+                                    .size(maxGeoClusters)
+                            )
+                            .aggregations("centroid", c -> c.geoCentroid(gc -> gc.field("location")))
+                            .aggregations("sample", t -> t.topHits(th -> th
+                                    .size(1)
+                                    .source(src -> src.filter(f -> f.includes("title")))))
+                    )
+            );
+
+            SearchResponse<Void> response = elasticsearchClient.search(request, Void.class);
+            List<GeoCluster> clusters = new ArrayList<>();
+            for (GeoHashGridBucket bucket : response.aggregations().get("cells").geohashGrid().buckets().array()) {
+                GeoLocation centroid = bucket.aggregations().get("centroid").geoCentroid().location();
+                if (centroid == null || !centroid.isLatlon()) {
+                    continue;
+                }
+
+                String contentId = null;
+                String title = null;
+                if (bucket.docCount() == 1) {
+                    List<Hit<JsonData>> hits = bucket.aggregations().get("sample").topHits().hits().hits();
+                    if (!hits.isEmpty()) {
+                        contentId = hits.get(0).id();
+                        JsonData source = hits.get(0).source();
+                        title = source != null ? source.toJson().asJsonObject().getString("title", null) : null;
+                    }
+                }
+
+                double[] cell = geohashBounds(bucket.key());
+                double lat = clamp(centroid.latlon().lat(), cell[0], cell[1]);
+                double lon = clamp(centroid.latlon().lon(), cell[2], cell[3]);
+                clusters.add(new GeoCluster(bucket.key(), bucket.docCount(), lat, lon, contentId, title));
+            }
+            return clusters;
+        } catch (IOException e) {
+            log.error("Error computing geo clusters: {}", e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Bounds of a geohash cell: {minLat, maxLat, minLon, maxLon}
+     */
+    static double[] geohashBounds(String geohash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean lonBit = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int bits = GEOHASH_BASE32.indexOf(geohash.charAt(i));
+            if (bits < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                if (lonBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if ((bits & mask) != 0) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if ((bits & mask) != 0) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                lonBit = !lonBit;
+            }
+        }
+        return new double[]{minLat, maxLat, minLon, maxLon};
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static Query boundingBoxFilter(GeoBoundingBox box) {
+        return Query.of(q -> q
+                .geoBoundingBox(g -> g
+                        .field("location")
+                        .boundingBox(b -> b.tlbr(t -> t
+                                .topLeft(tl -> tl.latlon(ll -> ll.lat(box.top()).lon(box.left())))
+                                .bottomRight(br -> br.latlon(ll -> ll.lat(box.bottom()).lon(box.right())))))
+                )
+        );
+    }
+
+    /**
+     * Geo filter combined with the optional keyword and published filters
+     */
+    private Query geoQuery(Query geoFilter, String keyword, Boolean isPublished) {
+        BoolQuery.Builder boolQueryBuilder = new BoolQuery.Builder();
+        boolQueryBuilder.filter(geoFilter);
+
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            boolQueryBuilder.must(q -> q
+                    .multiMatch(mm -> mm
+                            .fields("title^" + titleBoost, "description^" + descriptionBoost)
+                            .query(keyword)
+                            .fuzziness("AUTO")
+                    )
+            );
+        }
+
+        if (isPublished != null) {
+            boolQueryBuilder.filter(q -> q
+                    .term(t -> t
+                            .field("isPublished")
+                            .value(isPublished)
+                    )
+            );
+        }
+
+        return Query.of(q -> q.bool(boolQueryBuilder.build()));
+    }
+
+    /**
+     * Cursor pagination: the first page opens a point-in-time, each page resumes after the sort values
+     * of the previous last hit. The PIT is closed once the last page has been served.
+     */
+    private SearchResult<ContentIndex> searchAfter(Query query, List<SortOptions> sort, int size, String cursor) {
+        SearchCursor previous = cursor != null ? SearchCursor.decode(cursor) : null;
+        String keepAlive = cursorKeepAlive;
+
+        try {
+            String pitId = previous != null
+                    ? previous.pitId()
+                    : elasticsearchClient.openPointInTime(p -> p
+                            .index(contentIndexName)
+                            .keepAlive(k -> k.time(keepAlive))
+                    ).id();
+
+            SearchRequest.Builder searchBuilder = new SearchRequest.Builder()
+                    .query(query)
+                    .pit(p -> p.id(pitId).keepAlive(k -> k.time(keepAlive)))
+                    .sort(sort)
+                    .size(size)
+                    // Le total n'est calculé qu'à la première page puis transporté dans le curseur
+                    .trackTotalHits(t -> t.enabled(previous == null));
+            if (previous != null) {
+                searchBuilder.searchAfter(previous.searchAfter());
+            }
+
+            SearchResponse<ContentIndex> response = elasticsearchClient.search(searchBuilder.build(), ContentIndex.class);
+            List<Hit<ContentIndex>> hits = response.hits().hits();
+
+            int pageNumber = previous != null ? previous.pageNumber() + 1 : 0;
+            long totalHits = previous != null
+                    ? previous.totalElements()
+                    : response.hits().total() != null ? response.hits().total().value() : hits.size();
+            String nextPitId = response.pitId() != null ? response.pitId() : pitId;
+
+            String nextCursor = null;
+            if (hits.size() == size && !hits.isEmpty()) {
+                nextCursor = new SearchCursor(nextPitId, hits.get(hits.size() - 1).sort(), pageNumber, totalHits).encode();
+            } else {
+                elasticsearchClient.closePointInTime(c -> c.id(nextPitId));
+            }
+
+            List<ContentIndex> contents = hits.stream()
+                    .map(Hit::source)
+                    .collect(Collectors.toList());
+            return new SearchResult<>(contents, pageNumber, size, totalHits, nextCursor);
+        } catch (ElasticsearchException e) {
+            if (previous != null && e.status() == 404) {
+                throw new IllegalArgumentException("Search cursor expired", e);
+            }
+            log.error("Error during cursor search: {}", e.getMessage(), e);
+            return new SearchResult<>(Collections.emptyList(), 0, size, 0);
+        } catch (IOException e) {
+            log.error("Error during cursor search: {}", e.getMessage(), e);
+            return new SearchResult<>(Collections.emptyList(), 0, size, 0);
+        }
+    }
+
     /**
      * Execute search and transform results
      */
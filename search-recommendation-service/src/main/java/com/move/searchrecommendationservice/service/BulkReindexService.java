@@ -0,0 +1,532 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.move.searchrecommendationservice.model.ContentDTO;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.ContentIndexMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de réindexation Mongo → Elasticsearch.
+ * <p>
+ * Les contenus sont lus via un curseur Mongo (par pages de mongo-page-size), regroupés en requêtes _bulk
+ * limitées en nombre de documents et en taille, envoyées en parallèle (max-in-flight requêtes simultanées).
+ * Les documents rejetés individuellement avec une erreur transitoire (429, 5xx) sont renvoyés
+ * jusqu'à max-retries fois.
+ * <p>
+ * La réindexation peut se faire dans l'index courant, ou dans un nouvel index versionné
+ * ({@code <index>_v<version mapping>_<timestamp>}) vers lequel l'alias est basculé atomiquement à la fin.
+ * <p>
+ * Les suppressions ne laissent pas de trace dans Mongo : chaque réindexation se termine par un diff des ids
+ * (parcours des ids de l'index, vérification par pages dans Mongo) qui supprime les documents orphelins.
+ * Le heartbeat passé par l'appelant est invoqué régulièrement (renouvellement du bail de synchronisation).
+ */
+@Service
+@Slf4j
+public class BulkReindexService {
+
+    // Estimation de la taille JSON des champs fixes d'un document (ids, nombres, dates, clés)
+    private static final int DOCUMENT_OVERHEAD_BYTES = 400;
+    private static final int PROGRESS_LOG_INTERVAL = 5000;
+    private static final String SCROLL_KEEP_ALIVE = "2m";
+
+    /**
+     * total / indexed : passe principale ; caughtUp : documents repris par la passe de rattrapage ;
+     * deleted : documents orphelins supprimés par le diff des ids
+     */
+    public record ReindexReport(String index, long total, long indexed, long failed, long caughtUp, long deleted,
+                                long elapsedMs, double docsPerSecond, boolean aliasSwapped, Date highWaterMark) {
+    }
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final MongoTemplate mongoTemplate;
+    private final SearchCacheInvalidator searchCacheInvalidator;
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    @Value("${elasticsearch.reindex.batch-size:500}")
+    private int batchSize;
+
+    @Value("${elasticsearch.reindex.batch-bytes:5MB}")
+    private DataSize batchBytes;
+
+    @Value("${elasticsearch.reindex.max-in-flight:3}")
+    private int maxInFlight;
+
+    @Value("${elasticsearch.reindex.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${elasticsearch.reindex.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${elasticsearch.reindex.mongo-page-size:1000}")
+    private int mongoPageSize;
+
+    @Value("${elasticsearch.index.refresh-interval:5s}")
+    private String refreshInterval;
+
+    public BulkReindexService(ElasticsearchClient elasticsearchClient,
+                              ElasticsearchOperations elasticsearchOperations,
+                              MongoTemplate mongoTemplate,
+                              SearchCacheInvalidator searchCacheInvalidator) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchAsyncClient = new ElasticsearchAsyncClient(elasticsearchClient._transport());
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.mongoTemplate = mongoTemplate;
+        this.searchCacheInvalidator = searchCacheInvalidator;
+    }
+
+    /**
+     * Réindexe tous les contenus dans l'index (ou l'alias) courant puis supprime les documents orphelins
+     */
+    public ReindexReport reindexInPlace(Runnable heartbeat) {
+        long start = System.currentTimeMillis();
+        BulkSession session = new BulkSession(contentIndexName, heartbeat);
+        streamInto(new Query(), session);
+        session.finish();
+        long deleted = pruneDeleted(contentIndexName, heartbeat);
+        searchCacheInvalidator.clearAll();
+        return report(contentIndexName, session, null, deleted, start, false);
+    }
+
+    /**
+     * Réindexe dans l'index courant les contenus modifiés depuis la date donnée (incluse).
+     * Les suppressions n'ayant pas de lastModified, le diff des ids est exécuté à chaque passage.
+     */
+    public ReindexReport reindexModifiedSince(Date since, Runnable heartbeat) {
+        long start = System.currentTimeMillis();
+        BulkSession session = new BulkSession(contentIndexName, heartbeat);
+        streamInto(Query.query(Criteria.where("lastModified").gte(since)), session);
+        session.finish();
+        long deleted = pruneDeleted(contentIndexName, heartbeat);
+        searchCacheInvalidator.clearAll();
+        return report(contentIndexName, session, null, deleted, start, false);
+    }
+
+    /**
+     * Réindexe tous les contenus dans un nouvel index versionné puis bascule l'alias dessus.
+     * Les contenus modifiés pendant la réindexation sont repris, et ceux supprimés retirés, avant la bascule.
+     * Les événements écrivent dans l'ancien index jusqu'à la bascule : une dernière passe (lastModified >= début)
+     * et un diff des ids sont donc rejoués sur l'alias une fois basculé.
+     * Un nouvel index non basculé (échecs, exception, bail perdu) est supprimé.
+     */
+    public ReindexReport reindexIntoNewIndex(Runnable heartbeat) throws IOException {
+        long start = System.currentTimeMillis();
+        Query modifiedSinceStart = Query.query(Criteria.where("lastModified").gte(new Date(start)));
+        String alias = contentIndexName;
+        String newIndex = versionedIndexName(start);
+
+        createIndex(newIndex);
+        BulkSession session = new BulkSession(newIndex, heartbeat);
+        BulkSession catchUp = new BulkSession(newIndex, heartbeat);
+        long deleted;
+        boolean swapped = false;
+        try {
+            // Pas de refresh pendant le chargement : segments plus gros, moins de merges
+            setRefreshInterval(newIndex, "-1");
+
+            streamInto(new Query(), session);
+            session.finish();
+
+            // Rattrapage des contenus modifiés depuis le début (les événements de sync écrivent encore dans l'ancien index)
+            streamInto(modifiedSinceStart, catchUp);
+            catchUp.finish();
+
+            // Le refresh rend les documents visibles au parcours des ids
+            setRefreshInterval(newIndex, refreshInterval);
+            elasticsearchClient.indices().refresh(r -> r.index(newIndex));
+            deleted = pruneDeleted(newIndex, heartbeat);
+
+            long failed = session.failed.get() + catchUp.failed.get();
+            if (failed > 0) {
+                log.error("❌ Réindexation vers {} : {} document(s) en échec, alias {} non basculé",
+                        newIndex, failed, alias);
+                return report(newIndex, session, catchUp, deleted, start, false);
+            }
+
+            swapAlias(alias, newIndex);
+            swapped = true;
+        } finally {
+            if (!swapped) {
+                deleteIndexQuietly(newIndex);
+            }
+        }
+
+        // Modifications et suppressions reçues par l'ancien index entre le rattrapage et la bascule
+        streamInto(modifiedSinceStart, catchUp);
+        catchUp.finish();
+        deleted += pruneDeleted(alias, heartbeat);
+
+        searchCacheInvalidator.clearAll();
+        return report(newIndex, session, catchUp, deleted, start, true);
+    }
+
+    private void deleteIndexQuietly(String index) {
+        try {
+            elasticsearchClient.indices().delete(d -> d.index(index));
+            log.info("🗑 Index {} supprimé", index);
+        } catch (Exception e) {
+            log.warn("Suppression de l'index {} impossible : {}", index, e.getMessage());
+        }
+    }
+
+    /**
+     * Diff des ids : parcourt les ids de l'index par pages et supprime ceux qui n'existent plus dans Mongo.
+     * Un contenu créé pendant le parcours existe dans Mongo et n'est donc jamais supprimé.
+     */
+    long pruneDeleted(String index, Runnable heartbeat) {
+        try {
+            return pruneDeletedPages(index, heartbeat);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long pruneDeletedPages(String index, Runnable heartbeat) throws IOException {
+        long deleted = 0;
+        ResponseBody<Object> page = elasticsearchClient.search(s -> s
+                .index(index)
+                .size(mongoPageSize)
+                .scroll(t -> t.time(SCROLL_KEEP_ALIVE))
+                .source(src -> src.fetch(false))
+                .query(q -> q.matchAll(m -> m)), Object.class);
+        String scrollId = page.scrollId();
+        try {
+            while (!page.hits().hits().isEmpty()) {
+                deleted += deleteMissing(index, page.hits().hits().stream().map(Hit::id).toList());
+                heartbeat.run();
+
+                String currentScrollId = scrollId;
+                page = elasticsearchClient.scroll(s -> s
+                        .scrollId(currentScrollId)
+                        .scroll(t -> t.time(SCROLL_KEEP_ALIVE)), Object.class);
+                scrollId = page.scrollId();
+            }
+        } finally {
+            if (scrollId != null) {
+                String lastScrollId = scrollId;
+                elasticsearchClient.clearScroll(c -> c.scrollId(lastScrollId));
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("🗑 {} document(s) supprimé(s) de {} (absents de Mongo)", deleted, index);
+        }
+        return deleted;
+    }
+
+    private long deleteMissing(String index, List<String> ids) throws IOException {
+        Query existing = Query.query(Criteria.where("_id").in(ids));
+        existing.fields().include("_id");
+        Set<String> present = mongoTemplate.find(existing, ContentDTO.class).stream()
+                .map(ContentDTO::getId)
+                .collect(Collectors.toSet());
+
+        List<BulkOperation> deletes = ids.stream()
+                .filter(id -> !present.contains(id))
+                .map(id -> BulkOperation.of(o -> o.delete(d -> d.index(index).id(id))))
+                .toList();
+        if (deletes.isEmpty()) {
+            return 0;
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(b -> b.operations(deletes));
+        return response.items().stream().filter(item -> item.error() == null).count();
+    }
+
+    private void streamInto(Query query, BulkSession session) {
+        query.cursorBatchSize(mongoPageSize);
+        try (Stream<ContentDTO> contents = mongoTemplate.stream(query, ContentDTO.class)) {
+            contents.forEach(dto -> session.add(ContentIndexMapper.fromDTO(dto), dto.getVersion()));
+        }
+    }
+
+    /**
+     * Crée un index versionné vide avec le mapping courant et fait pointer l'alias dessus
+     */
+    String createAliasedIndex() throws IOException {
+        String index = versionedIndexName(System.currentTimeMillis());
+        createIndex(index);
+        swapAlias(contentIndexName, index);
+        return index;
+    }
+
+    private String versionedIndexName(long timestamp) {
+        return contentIndexName + "_v" + ContentIndex.MAPPING_VERSION + "_" + timestamp;
+    }
+
+    /**
+     * Settings (analyseurs) et mapping issus des annotations de ContentIndex ;
+     * la version du mapping est enregistrée dans _meta pour détecter les migrations
+     */
+    private void createIndex(String index) {
+        IndexOperations typeOps = elasticsearchOperations.indexOps(ContentIndex.class);
+        Settings settings = typeOps.createSettings();
+        settings.put("index.refresh_interval", refreshInterval);
+        Document mapping = typeOps.createMapping();
+        mapping.put("_meta", Map.of("mapping_version", ContentIndex.MAPPING_VERSION));
+
+        elasticsearchOperations.indexOps(IndexCoordinates.of(index)).create(settings, mapping);
+        log.info("📦 Index {} créé (mapping v{})", index, ContentIndex.MAPPING_VERSION);
+    }
+
+    private void setRefreshInterval(String index, String interval) throws IOException {
+        elasticsearchClient.indices().putSettings(p -> p
+                .index(index)
+                .settings(s -> s.refreshInterval(t -> t.time(interval))));
+    }
+
+    /**
+     * Fait pointer l'alias sur le nouvel index en une seule requête _aliases.
+     * Si le nom de l'alias est encore un index concret (première migration), celui-ci est supprimé dans la même action.
+     */
+    private void swapAlias(String alias, String newIndex) throws IOException {
+        List<Action> actions = new ArrayList<>();
+        Set<String> previousIndices = Set.of();
+
+        boolean aliasExists = elasticsearchClient.indices().existsAlias(e -> e.name(alias)).value();
+        if (aliasExists) {
+            previousIndices = elasticsearchClient.indices().getAlias(g -> g.name(alias)).result().keySet();
+            for (String previous : previousIndices) {
+                actions.add(Action.of(a -> a.remove(r -> r.index(previous).alias(alias))));
+            }
+        } else if (elasticsearchClient.indices().exists(e -> e.index(alias)).value()) {
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+        }
+        actions.add(Action.of(a -> a.add(ad -> ad.index(newIndex).alias(alias))));
+
+        elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+        log.info("🔀 Alias {} → {}", alias, newIndex);
+
+        // L'alias est basculé : un ancien index non supprimé ne doit pas faire échouer la réindexation
+        for (String previous : previousIndices) {
+            deleteIndexQuietly(previous);
+        }
+    }
+
+    private ReindexReport report(String index, BulkSession session, BulkSession catchUp, long deleted,
+                                 long start, boolean aliasSwapped) {
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+        long failed = session.failed.get() + (catchUp != null ? catchUp.failed.get() : 0);
+        long caughtUp = catchUp != null ? catchUp.total : 0;
+        Date highWaterMark = session.highWaterMark;
+        if (catchUp != null && catchUp.highWaterMark != null
+                && (highWaterMark == null || catchUp.highWaterMark.after(highWaterMark))) {
+            highWaterMark = catchUp.highWaterMark;
+        }
+
+        double docsPerSecond = session.indexed.get() * 1000d / elapsedMs;
+        log.info("✅ Réindexation {} : {}/{} documents indexés, {} repris, {} supprimés, {} en échec, {} ms ({} docs/s)",
+                index, session.indexed.get(), session.total, caughtUp, deleted, failed, elapsedMs, Math.round(docsPerSecond));
+        return new ReindexReport(index, session.total, session.indexed.get(), failed, caughtUp, deleted,
+                elapsedMs, docsPerSecond, aliasSwapped, highWaterMark);
+    }
+
+    private record PendingDocument(ContentIndex document, Long version, int attempt, long estimatedBytes) {
+
+        PendingDocument retry() {
+            return new PendingDocument(document, version, attempt + 1, estimatedBytes);
+        }
+    }
+
+    /**
+     * Regroupe les documents en requêtes _bulk et limite le nombre de requêtes en vol
+     */
+    private final class BulkSession {
+
+        private final String index;
+        private final Runnable heartbeat;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final Queue<PendingDocument> retryQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final long start = System.currentTimeMillis();
+
+        private List<PendingDocument> batch = new ArrayList<>();
+        private long batchBytesEstimate;
+        private long total;
+        // Plus grand lastModified lu : point de reprise de la prochaine synchronisation incrémentale
+        private Date highWaterMark;
+
+        BulkSession(String index, Runnable heartbeat) {
+            this.index = index;
+            this.heartbeat = heartbeat;
+        }
+
+        void add(ContentIndex document, Long version) {
+            total++;
+            if (document.getLastModified() != null
+                    && (highWaterMark == null || document.getLastModified().after(highWaterMark))) {
+                highWaterMark = document.getLastModified();
+            }
+            append(new PendingDocument(document, version, 0, estimateSize(document)));
+            if (total % PROGRESS_LOG_INTERVAL == 0) {
+                heartbeat.run();
+                long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                log.info("Réindexation {} : {} documents lus, {} indexés ({} docs/s)",
+                        index, total, indexed.get(), Math.round(indexed.get() * 1000d / elapsed));
+            }
+        }
+
+        /**
+         * Envoie le dernier lot, attend les requêtes en vol puis traite les reprises
+         */
+        void finish() {
+            flush();
+            awaitInFlight();
+
+            int round = 0;
+            while (!retryQueue.isEmpty()) {
+                round++;
+                sleep(retryBackoffMs * round);
+                heartbeat.run();
+                PendingDocument retry;
+                while ((retry = retryQueue.poll()) != null) {
+                    append(retry);
+                }
+                flush();
+                awaitInFlight();
+            }
+        }
+
+        private void append(PendingDocument document) {
+            batch.add(document);
+            batchBytesEstimate += document.estimatedBytes();
+            if (batch.size() >= batchSize || batchBytesEstimate >= batchBytes.toBytes()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingDocument> toSend = batch;
+            batch = new ArrayList<>();
+            batchBytesEstimate = 0;
+
+            List<BulkOperation> operations = new ArrayList<>(toSend.size());
+            for (PendingDocument pending : toSend) {
+                ContentIndex document = pending.document();
+                // external_gte : la réindexation d'un état déjà indexé est acceptée, un état plus ancien refusé
+                operations.add(BulkOperation.of(o -> o.index(i -> {
+                    i.index(index)
+                            .id(document.getId())
+                            .document(document);
+                    if (pending.version() != null) {
+                        i.version(pending.version()).versionType(VersionType.ExternalGte);
+                    }
+                    return i;
+                })));
+            }
+
+            inFlight.acquireUninterruptibly();
+            try {
+                elasticsearchAsyncClient.bulk(BulkRequest.of(b -> b.operations(operations)))
+                        .whenComplete((response, error) -> {
+                            try {
+                                handleResponse(toSend, response, error);
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                handleResponse(toSend, null, e);
+            }
+        }
+
+        private void handleResponse(List<PendingDocument> sent, BulkResponse response, Throwable error) {
+            if (error != null) {
+                log.warn("Requête _bulk de {} documents en échec : {}", sent.size(), error.getMessage());
+                sent.forEach(this::retryOrFail);
+                return;
+            }
+
+            List<BulkResponseItem> items = response.items();
+            for (int i = 0; i < items.size(); i++) {
+                BulkResponseItem item = items.get(i);
+                if (item.error() == null || item.status() == SynchronizationService.VERSION_CONFLICT) {
+                    // En conflit : un événement plus récent a déjà été indexé
+                    indexed.incrementAndGet();
+                } else if (isRetryable(item.status())) {
+                    retryOrFail(sent.get(i));
+                } else {
+                    failed.incrementAndGet();
+                    log.error("Document {} rejeté ({}) : {}", item.id(), item.status(), item.error().reason());
+                }
+            }
+        }
+
+        private void retryOrFail(PendingDocument document) {
+            if (document.attempt() < maxRetries) {
+                retryQueue.add(document.retry());
+            } else {
+                failed.incrementAndGet();
+                log.error("Document {} abandonné après {} tentatives", document.document().getId(), document.attempt() + 1);
+            }
+        }
+
+        private void awaitInFlight() {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+        }
+    }
+
+    static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private static long estimateSize(ContentIndex document) {
+        // Le titre est envoyé plusieurs fois (champ + variantes de suggestion)
+        long titleLength = document.getTitle() != null ? document.getTitle().length() : 0;
+        long descriptionLength = document.getDescription() != null ? document.getDescription().length() : 0;
+        return DOCUMENT_OVERHEAD_BYTES + titleLength * 4 + descriptionLength;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Réindexation interrompue", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
+import co.elastic.clients.json.JsonData;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mise en place de l'index des contenus au démarrage.
+ * <p>
+ * Les recherches et les écritures passent par l'alias {@code elasticsearch.indices.content-index},
+ * qui pointe sur un index versionné créé avec les settings et le mapping de {@link ContentIndex}.
+ * <ul>
+ *     <li>aucun index : un index vide est créé avec l'alias, puis chargé depuis Mongo en arrière-plan ;</li>
+ *     <li>index concret historique ou mapping d'une version antérieure : un nouvel index est construit
+ *     en arrière-plan puis l'alias est basculé atomiquement, l'ancien index continue de servir d'ici là ;</li>
+ *     <li>mapping à jour : rien à faire.</li>
+ * </ul>
+ * Les opérations se font sous le bail de synchronisation : une seule instance les exécute.
+ */
+@Component
+@Slf4j
+public class ContentIndexBootstrap {
+
+    private static final String VERSION_META = "mapping_version";
+
+    enum IndexState { MISSING, OUTDATED, CURRENT }
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final BulkReindexService bulkReindexService;
+    private final SyncBatchRunner syncBatchRunner;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "content-index-bootstrap");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    @Value("${elasticsearch.index.bootstrap.enabled:true}")
+    private boolean enabled;
+
+    public ContentIndexBootstrap(ElasticsearchClient elasticsearchClient,
+                                 BulkReindexService bulkReindexService,
+                                 SyncBatchRunner syncBatchRunner) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.bulkReindexService = bulkReindexService;
+        this.syncBatchRunner = syncBatchRunner;
+    }
+
+    /**
+     * Exécuté avant les autres listeners ApplicationReadyEvent, qui lisent déjà l'index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void bootstrap() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            IndexState state = state();
+            log.info("Index {} : {} (mapping attendu v{})", contentIndexName, state, ContentIndex.MAPPING_VERSION);
+            if (state == IndexState.MISSING) {
+                createAndLoad();
+            } else if (state == IndexState.OUTDATED) {
+                executor.execute(this::migrate);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Mise en place de l'index {} impossible : {}", contentIndexName, e.getMessage(), e);
+        }
+    }
+
+    IndexState state() throws IOException {
+        boolean aliasExists = elasticsearchClient.indices().existsAlias(e -> e.name(contentIndexName)).value();
+        if (!aliasExists) {
+            // Un index concret portant le nom de l'alias date d'avant les index versionnés
+            return elasticsearchClient.indices().exists(e -> e.index(contentIndexName)).value()
+                    ? IndexState.OUTDATED : IndexState.MISSING;
+        }
+
+        for (IndexMappingRecord record : elasticsearchClient.indices()
+                .getMapping(g -> g.index(contentIndexName)).result().values()) {
+            JsonData version = record.mappings().meta().get(VERSION_META);
+            if (version == null || version.to(Integer.class) < ContentIndex.MAPPING_VERSION) {
+                return IndexState.OUTDATED;
+            }
+        }
+        return IndexState.CURRENT;
+    }
+
+    private void createAndLoad() {
+        boolean created = syncBatchRunner.runExclusive(() -> {
+            try {
+                // Une autre instance a pu le créer entre-temps
+                if (state() == IndexState.MISSING) {
+                    log.info("📦 Index {} créé derrière l'alias {}", bulkReindexService.createAliasedIndex(), contentIndexName);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (created) {
+            executor.execute(syncBatchRunner::run);
+        }
+    }
+
+    private void migrate() {
+        try {
+            boolean ran = syncBatchRunner.runExclusive(() -> {
+                try {
+                    if (state() != IndexState.OUTDATED) {
+                        return;
+                    }
+                    log.info("🔁 Migration de l'index {} vers le mapping v{}", contentIndexName, ContentIndex.MAPPING_VERSION);
+                    BulkReindexService.ReindexReport report = bulkReindexService.reindexIntoNewIndex(syncBatchRunner::renewLease);
+                    if (report.aliasSwapped()) {
+                        syncBatchRunner.recordRun(report);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ran) {
+                log.info("Migration de l'index {} prise en charge par une autre instance", contentIndexName);
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Échec de la migration de l'index {}", contentIndexName, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,283 @@
+package com.move.searchrecommendationservice.service;
+
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.ContentItem;
+import com.move.searchrecommendationservice.model.ContentItemMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index vectoriel en mémoire des contenus publiés, utilisé pour les recommandations sans appel à FastAPI.
+ * <p>
+ * Chaque contenu est représenté par un plongement haché (hashing trick) de son titre, sa description
+ * et son type, normalisé L2 : le produit scalaire est donc directement la similarité cosinus.
+ * Les vecteurs sont stockés bout à bout dans un seul float[] (slot * dimensions) et parcourus
+ * séquentiellement lors d'une recherche top-K. L'index est chargé depuis Elasticsearch au démarrage
+ * puis tenu à jour par les événements de contenu.
+ */
+@Component
+@Slf4j
+public class ContentVectorIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float TYPE_WEIGHT = 1.5f;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "de", "du", "et", "en", "au", "aux", "pour", "par",
+            "sur", "dans", "avec", "est", "ce", "cette", "ces", "qui", "que", "il", "elle", "on", "nous",
+            "vous", "the", "and", "for", "with", "of", "to", "in", "at", "is", "an");
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final int dimensions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slotsById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private float[] vectors;
+    private ContentItem[] items;
+    private int slotCount;
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    public ContentVectorIndex(ElasticsearchOperations elasticsearchOperations,
+                              @Value("${recommendation.vector.dimensions:512}") int dimensions,
+                              @Value("${recommendation.vector.initial-capacity:1024}") int initialCapacity) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.dimensions = dimensions;
+        this.vectors = new float[initialCapacity * dimensions];
+        this.items = new ContentItem[initialCapacity];
+    }
+
+    /**
+     * Chargement initial depuis Elasticsearch, hors du chemin de démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::loadFromElasticsearch, "content-vector-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void loadFromElasticsearch() {
+        long start = System.currentTimeMillis();
+        int loaded = 0;
+        try (SearchHitsIterator<ContentIndex> hits = elasticsearchOperations.searchForStream(
+                Query.findAll(), ContentIndex.class, IndexCoordinates.of(contentIndexName))) {
+            while (hits.hasNext()) {
+                upsert(hits.next().getContent());
+                loaded++;
+            }
+            log.info("Index vectoriel chargé : {} contenus lus, {} publiés indexés en {} ms",
+                    loaded, size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Échec du chargement de l'index vectoriel ({} contenus lus) : {}", loaded, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ajoute ou remplace un contenu ; un contenu non publié est retiré de l'index
+     */
+    public void upsert(ContentIndex content) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(content.getIsPublished())) {
+            remove(content.getId());
+            return;
+        }
+
+        float[] vector = embed(content.getTitle(), content.getDescription(), content.getType());
+        ContentItem item = ContentItemMapper.fromIndex(content);
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.get(content.getId());
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? nextSlot() : freeSlots.pop();
+                slotsById.put(content.getId(), slot);
+            }
+            System.arraycopy(vector, 0, vectors, slot * dimensions, dimensions);
+            items[slot] = item;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String contentId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(contentId);
+            if (slot != null) {
+                items[slot] = null;
+                Arrays.fill(vectors, slot * dimensions, (slot + 1) * dimensions, 0f);
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Les k contenus les plus proches du contenu donné (lui-même exclu)
+     */
+    public List<ContentItem> similarTo(ContentIndex content, int k) {
+        float[] query = embed(content.getTitle(), content.getDescription(), content.getType());
+        return topK(query, k, content.getId());
+    }
+
+    /**
+     * Classe une liste de candidats par similarité avec un texte libre (repli quand le ranker est indisponible)
+     */
+    public List<ContentItem> rank(String text, List<ContentItem> candidates, int k) {
+        float[] query = embed(text, null, null);
+        List<ContentItem> sorted = new ArrayList<>(candidates);
+        Map<ContentItem, Float> scores = new IdentityHashMap<>();
+        for (ContentItem candidate : candidates) {
+            float[] vector = embed(candidate.getTitle(), candidate.getDescription(), candidate.getType());
+            scores.put(candidate, dot(query, vector, 0, dimensions));
+        }
+        sorted.sort((a, b) -> Float.compare(scores.get(b), scores.get(a)));
+        return sorted.stream().limit(k).toList();
+    }
+
+    private List<ContentItem> topK(float[] query, int k, String excludedId) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // Meilleurs scores triés par ordre décroissant (k petit : insertion linéaire)
+        int[] bestSlots = new int[k];
+        float[] bestScores = new float[k];
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            Integer excludedSlot = excludedId != null ? slotsById.get(excludedId) : null;
+            int excluded = excludedSlot != null ? excludedSlot : -1;
+
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slot == excluded || items[slot] == null) {
+                    continue;
+                }
+                float score = dot(query, vectors, slot * dimensions, dimensions);
+                if (score <= 0f || (found == k && score <= bestScores[k - 1])) {
+                    continue;
+                }
+                int position = found < k ? found++ : k - 1;
+                while (position > 0 && bestScores[position - 1] < score) {
+                    bestScores[position] = bestScores[position - 1];
+                    bestSlots[position] = bestSlots[position - 1];
+                    position--;
+                }
+                bestScores[position] = score;
+                bestSlots[position] = slot;
+            }
+
+            List<ContentItem> result = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                result.add(items[bestSlots[i]]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Produit scalaire sur une tranche du tableau ; quatre accumulateurs indépendants
+     * pour que la boucle se vectorise / se pipeline mieux qu'une réduction séquentielle
+     */
+    static float dot(float[] query, float[] data, int offset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += query[i] * data[offset + i];
+            s1 += query[i + 1] * data[offset + i + 1];
+            s2 += query[i + 2] * data[offset + i + 2];
+            s3 += query[i + 3] * data[offset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += query[i] * data[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private float[] embed(String title, String description, String type) {
+        float[] vector = new float[dimensions];
+        addTokens(vector, title, TITLE_WEIGHT);
+        addTokens(vector, description, 1f);
+        if (type != null && !type.isBlank()) {
+            addFeature(vector, "type:" + type.toLowerCase(Locale.ROOT), TYPE_WEIGHT);
+        }
+
+        float norm = 0f;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0f) {
+            float inverse = (float) (1d / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= inverse;
+            }
+        }
+        return vector;
+    }
+
+    private void addTokens(float[] vector, String text, float weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                addFeature(vector, token, weight);
+            }
+        }
+    }
+
+    private void addFeature(float[] vector, String feature, float weight) {
+        // Finaliseur murmur3 : String.hashCode seul répartit mal les bits de poids faible
+        int hash = feature.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        int bucket = Math.floorMod(hash, dimensions);
+        // Signe pseudo-aléatoire : les collisions de buckets s'annulent en moyenne
+        vector[bucket] += ((hash >>> 31) == 0) ? weight : -weight;
+    }
+
+    private int nextSlot() {
+        if (slotCount == items.length) {
+            int capacity = Math.max(16, items.length * 2);
+            items = Arrays.copyOf(items, capacity);
+            vectors = Arrays.copyOf(vectors, capacity * dimensions);
+        }
+        return slotCount++;
+    }
+}
@@ -0,0 +1,123 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.ContentItem;
+import com.move.searchrecommendationservice.model.ContentItemMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Génération de candidats pour le ranker : au lieu d'envoyer tout l'index à FastAPI,
+ * on sélectionne dans Elasticsearch les K contenus les plus proches (more_like_this)
+ * parmi les contenus publiés de même type et de budget comparable.
+ * <p>
+ * Si more_like_this ne trouve pas assez de candidats (textes courts), la liste est complétée
+ * par les contenus les mieux notés respectant les mêmes filtres. Le coût reste borné par K.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationCandidateService {
+
+    private static final String[] SOURCE_FIELDS = {"id", "title", "description", "budget", "rating", "type", "userId"};
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    @Value("${recommendation.candidates.size:50}")
+    private int candidateSize;
+
+    // Écart de budget toléré autour du contenu source (0.5 = ±50 %)
+    @Value("${recommendation.candidates.budget-band:0.5}")
+    private double budgetBand;
+
+    // En dessous de ce nombre de candidats, la liste est complétée sans more_like_this
+    @Value("${recommendation.candidates.min-size:5}")
+    private int minCandidates;
+
+    public List<ContentItem> findCandidates(ContentIndex source) {
+        Set<String> seen = new LinkedHashSet<>();
+        List<ContentItem> candidates = new ArrayList<>(candidateSize);
+
+        try {
+            Query moreLikeThis = Query.of(q -> q.moreLikeThis(mlt -> mlt
+                    .fields("title", "description")
+                    .like(l -> l.document(d -> d.index(contentIndexName).id(source.getId())))
+                    .minTermFreq(1)
+                    .minDocFreq(1)
+                    .maxQueryTerms(25)
+                    .minimumShouldMatch("30%")
+            ));
+            collect(search(source, moreLikeThis, candidateSize, false), seen, candidates);
+
+            if (candidates.size() < minCandidates) {
+                collect(search(source, null, candidateSize, true), seen, candidates);
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de la génération des candidats pour {}: {}", source.getId(), e.getMessage(), e);
+        }
+
+        log.debug("{} candidats générés pour le contenu {}", candidates.size(), source.getId());
+        return candidates;
+    }
+
+    private SearchResponse<ContentIndex> search(ContentIndex source, Query similarity, int size, boolean byRating)
+            throws IOException {
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(f -> f.term(t -> t.field("isPublished").value(true)))
+                .mustNot(m -> m.ids(i -> i.values(source.getId())));
+
+        if (similarity != null) {
+            bool.must(similarity);
+        }
+        if (source.getType() != null) {
+            bool.filter(f -> f.term(t -> t.field("type").value(source.getType())));
+        }
+        if (source.getBudget() != null && source.getBudget() > 0) {
+            double min = source.getBudget() * (1 - budgetBand);
+            double max = source.getBudget() * (1 + budgetBand);
+            bool.filter(f -> f.range(r -> r.field("budget").gte(JsonData.of(min)).lte(JsonData.of(max))));
+        }
+
+        return elasticsearchClient.search(s -> {
+            s.index(contentIndexName)
+                    .query(q -> q.bool(bool.build()))
+                    .source(src -> src.filter(sf -> sf.includes(List.of(SOURCE_FIELDS))))
+                    .size(size);
+            if (byRating) {
+                s.sort(sort -> sort.field(f -> f.field("rating").order(SortOrder.Desc)));
+            }
+            return s;
+        }, ContentIndex.class);
+    }
+
+    private void collect(SearchResponse<ContentIndex> response, Set<String> seen, List<ContentItem> candidates) {
+        for (Hit<ContentIndex> hit : response.hits().hits()) {
+            if (candidates.size() >= candidateSize) {
+                return;
+            }
+            if (hit.source() != null && seen.add(hit.id())) {
+                ContentIndex content = hit.source();
+                content.setId(hit.id());
+                candidates.add(ContentItemMapper.fromIndex(content));
+            }
+        }
+    }
+}
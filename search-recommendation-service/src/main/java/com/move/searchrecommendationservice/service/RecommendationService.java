@@ -1,5 +1,6 @@
 package com.move.searchrecommendationservice.service;
 
+import com.move.searchrecommendationservice.model.ContentIndex;
 import com.move.searchrecommendationservice.model.ContentItem;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -18,13 +19,42 @@ import java.util.stream.Collectors;
 @Service
 public class RecommendationService {
 
+    private static final int RESULT_SIZE = 5;
+
     private final RestTemplate restTemplate;
+    private final ContentVectorIndex contentVectorIndex;
+    private final RecommendationCandidateService candidateService;
 
     @Value("${recommendation.fastapi-url:http://127.0.0.1:8000/recommend}")
     private String fastApiUrl;
 
-    public RecommendationService(@Qualifier("standardRestTemplate") RestTemplate restTemplate) {
+    // Ranker externe optionnel : par défaut les recommandations sont calculées en mémoire
+    @Value("${recommendation.fastapi.enabled:false}")
+    private boolean fastApiEnabled;
+
+    public RecommendationService(@Qualifier("standardRestTemplate") RestTemplate restTemplate,
+                                 ContentVectorIndex contentVectorIndex,
+                                 RecommendationCandidateService candidateService) {
         this.restTemplate = restTemplate;
+        this.contentVectorIndex = contentVectorIndex;
+        this.candidateService = candidateService;
+    }
+
+    /**
+     * Recommandations pour un contenu : index vectoriel local, ou candidats Elasticsearch classés par FastAPI
+     */
+    public List<ContentItem> recommend(ContentIndex content) {
+        if (fastApiEnabled) {
+            List<ContentItem> candidates = candidateService.findCandidates(content);
+            return getRecommendations(content.getTitle() + " " + content.getDescription(), candidates);
+        }
+
+        List<ContentItem> recommendations = contentVectorIndex.similarTo(content, RESULT_SIZE);
+        if (recommendations.size() < RESULT_SIZE) {
+            // Index vectoriel pas encore chargé ou contenu peu décrit
+            return complete(recommendations, candidateService.findCandidates(content));
+        }
+        return recommendations;
     }
 
     public List<ContentItem> getRecommendations(String userInput, List<ContentItem> contents) {
@@ -46,28 +76,31 @@ public class RecommendationService {
             );
 
             List<ContentItem> recommendations = response.getBody() != null ? response.getBody() : List.of();
+            return complete(recommendations, contents);
 
-            // Garantir au moins 5 recommandations
-            if (recommendations.size() < 5) {
-                Set<String> existingIds = recommendations.stream()
-                        .map(ContentItem::getId)
-                        .collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.error("Erreur lors de l'appel à FastAPI, classement local des candidats", e);
+            return contentVectorIndex.rank(userInput, contents, RESULT_SIZE);
+        }
+    }
 
-                List<ContentItem> remaining = contents.stream()
-                        .filter(c -> !existingIds.contains(c.getId()))
-                        .limit(5 - recommendations.size())
-                        .collect(Collectors.toList());
+    // Garantir au moins 5 recommandations
+    private List<ContentItem> complete(List<ContentItem> recommendations, List<ContentItem> contents) {
+        if (recommendations.size() >= RESULT_SIZE) {
+            return recommendations.stream().limit(RESULT_SIZE).toList();
+        }
 
-                List<ContentItem> completedList = new ArrayList<>(recommendations);
-                completedList.addAll(remaining);
-                return completedList.stream().limit(5).toList();
-            }
+        Set<String> existingIds = recommendations.stream()
+                .map(ContentItem::getId)
+                .collect(Collectors.toSet());
 
-            return recommendations.stream().limit(5).toList();
+        List<ContentItem> remaining = contents.stream()
+                .filter(c -> !existingIds.contains(c.getId()))
+                .limit(RESULT_SIZE - recommendations.size())
+                .collect(Collectors.toList());
 
-        } catch (Exception e) {
-            log.error("Erreur lors de l'appel à FastAPI", e);
-            return Collections.emptyList();
-        }
+        List<ContentItem> completedList = new ArrayList<>(recommendations);
+        completedList.addAll(remaining);
+        return completedList.stream().limit(RESULT_SIZE).toList();
     }
 }
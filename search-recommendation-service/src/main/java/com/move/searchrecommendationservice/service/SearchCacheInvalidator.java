@@ -0,0 +1,287 @@
+package com.move.searchrecommendationservice.service;
+
+import com.move.searchrecommendationservice.config.SearchCacheConfig;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.GeoCluster;
+import com.move.searchrecommendationservice.model.SearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Invalidation sélective du cache de recherche à partir des événements content.*.
+ * <p>
+ * Une entrée est retirée si l'un des contenus modifiés ou supprimés figure dans son résultat,
+ * ou si un contenu créé/modifié peut désormais correspondre à la requête (mot-clé proche d'un terme
+ * du titre ou de la description, filtres budget/note/type/publication satisfaits, même auteur...).
+ * Les autres entrées restent valides jusqu'à leur TTL.
+ * <p>
+ * Une écriture n'est cherchable qu'après le refresh de l'index (refresh-interval) : une recherche faite entre-temps
+ * remettrait l'ancien résultat en cache jusqu'au TTL. Chaque invalidation est donc rejouée une fois ce délai écoulé.
+ * <p>
+ * Les marqueurs regroupés (findGeoClusters) ne portent l'id du contenu que pour les cellules à un seul contenu :
+ * une suppression peut toucher n'importe quelle cellule, le cache des clusters est donc vidé à chaque suppression.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchCacheInvalidator {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Marge ajoutée au refresh-interval avant la seconde invalidation (durée du refresh lui-même)
+    private static final long REFRESH_MARGIN_MS = 1000;
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${elasticsearch.index.refresh-interval:5s}")
+    private Duration refreshInterval;
+
+    /**
+     * Invalide les entrées touchées par un lot de contenus créés/modifiés et de suppressions,
+     * puis à nouveau une fois ces écritures visibles
+     */
+    public void onContentChanged(Collection<ContentIndex> changed, Collection<String> deletedIds) {
+        if (changed.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        List<ContentIndex> changedCopy = List.copyOf(changed);
+        List<String> deletedCopy = List.copyOf(deletedIds);
+        invalidateNow(changedCopy, deletedCopy);
+        afterRefresh(() -> invalidateNow(changedCopy, deletedCopy));
+    }
+
+    private void invalidateNow(Collection<ContentIndex> changed, Collection<String> deletedIds) {
+
+        Set<String> touchedIds = new HashSet<>(deletedIds);
+        List<IndexedContent> contents = new ArrayList<>(changed.size());
+        for (ContentIndex content : changed) {
+            touchedIds.add(content.getId());
+            contents.add(new IndexedContent(content));
+        }
+
+        invalidate(SearchCacheConfig.KEYWORD_SEARCH, touchedIds, contents,
+                (key, content) -> content.matchesText(key.param(0)));
+        invalidate(SearchCacheConfig.ADVANCED_SEARCH, touchedIds, contents,
+                (key, content) -> content.matchesText(key.param(0)) && content.matchesFilters(key));
+        invalidate(SearchCacheConfig.USER_CONTENT, touchedIds, contents,
+                (key, content) -> Objects.equals(key.param(0), content.source().getUserId()));
+        invalidate(SearchCacheConfig.SUGGESTIONS, touchedIds, contents,
+                (key, content) -> content.matchesPrefix(key.param(0)));
+        invalidate(SearchCacheConfig.TRENDING, touchedIds, contents,
+                (key, content) -> content.published());
+        // Recherches géographiques : le filtre de publication suit toujours le mot-clé
+        BiPredicate<SearchCacheKey, IndexedContent> matchesLocationQuery =
+                (key, content) -> content.matchesText(key.param(key.textIndex()))
+                        && (!(key.param(key.textIndex() + 1) instanceof Boolean published)
+                        || published.equals(content.source().getIsPublished()));
+        invalidate(SearchCacheConfig.LOCATION_SEARCH, touchedIds, contents, matchesLocationQuery);
+        if (deletedIds.isEmpty()) {
+            invalidate(SearchCacheConfig.GEO_CLUSTERS, touchedIds, contents, matchesLocationQuery);
+        } else {
+            clear(SearchCacheConfig.GEO_CLUSTERS);
+        }
+    }
+
+    /**
+     * Vide tous les caches (réindexation complète, purge de l'index)
+     */
+    public void clearAll() {
+        SearchCacheConfig.CACHE_NAMES.forEach(this::clear);
+        afterRefresh(() -> SearchCacheConfig.CACHE_NAMES.forEach(this::clear));
+    }
+
+    private void afterRefresh(Runnable invalidation) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            try {
+                invalidation.run();
+            } catch (RuntimeException e) {
+                log.warn("Seconde invalidation du cache de recherche impossible : {}", e.getMessage());
+            }
+        }, refreshInterval.toMillis() + REFRESH_MARGIN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void invalidate(String cacheName, Set<String> touchedIds, List<IndexedContent> contents,
+                            BiPredicate<SearchCacheKey, IndexedContent> mayMatch) {
+        if (!(cacheManager.getCache(cacheName) instanceof CaffeineCache cache)) {
+            return;
+        }
+
+        int[] removed = {0};
+        cache.getNativeCache().asMap().entrySet().removeIf(entry -> {
+            if (isStale(entry.getKey(), entry.getValue(), touchedIds, contents, mayMatch)) {
+                removed[0]++;
+                return true;
+            }
+            return false;
+        });
+
+        if (removed[0] > 0) {
+            meterRegistry.counter("search.cache.invalidations", "cache", cacheName).increment(removed[0]);
+            log.debug("{} entrée(s) invalidée(s) dans {}", removed[0], cacheName);
+        }
+    }
+
+    private static boolean isStale(Object key, Object value, Set<String> touchedIds, List<IndexedContent> contents,
+                                   BiPredicate<SearchCacheKey, IndexedContent> mayMatch) {
+        if (containsAny(value, touchedIds) || !(key instanceof SearchCacheKey searchKey)) {
+            return true;
+        }
+        for (IndexedContent content : contents) {
+            if (mayMatch.test(searchKey, content)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAny(Object value, Set<String> ids) {
+        if (value instanceof SearchResult<?> result && result.getContent() != null) {
+            for (Object item : result.getContent()) {
+                if (item instanceof ContentIndex content && ids.contains(content.getId())) {
+                    return true;
+                }
+            }
+        }
+        // Marqueurs d'un seul contenu (titre affiché sur la carte)
+        if (value instanceof List<?> clusters) {
+            for (Object item : clusters) {
+                if (item instanceof GeoCluster cluster && cluster.contentId() != null && ids.contains(cluster.contentId())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String fold(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokens(String... texts) {
+        Set<String> tokens = new HashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                for (String token : TOKEN_SEPARATOR.split(fold(text))) {
+                    if (!token.isEmpty()) {
+                        tokens.add(token);
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Contenu modifié avec ses termes pré-calculés pour comparer rapidement aux clés en cache
+     */
+    private record IndexedContent(ContentIndex source, Set<String> textTokens, Set<String> titleTokens) {
+
+        IndexedContent(ContentIndex source) {
+            this(source, tokens(source.getTitle(), source.getDescription()), tokens(source.getTitle()));
+        }
+
+        boolean published() {
+            return Boolean.TRUE.equals(source.getIsPublished());
+        }
+
+        /**
+         * Approximation large de la recherche floue (fuzziness AUTO, prefix_length 2) :
+         * un terme de la requête proche d'un terme du contenu suffit
+         */
+        boolean matchesText(Object keyword) {
+            if (keyword == null) {
+                return true;
+            }
+            for (String queryToken : tokens(keyword.toString())) {
+                for (String token : textTokens) {
+                    if (closeTerms(queryToken, token)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean matchesPrefix(Object prefix) {
+            if (prefix == null) {
+                return false;
+            }
+            String folded = fold(prefix.toString());
+            String start = folded.substring(0, Math.min(2, folded.length()));
+            if (source.getTitle() != null && fold(source.getTitle()).startsWith(start)) {
+                return true;
+            }
+            return titleTokens.stream().anyMatch(token -> token.startsWith(start));
+        }
+
+        /**
+         * Filtres d'advancedSearch : keyword, minBudget, maxBudget, minRating, type, isPublished, pageable
+         */
+        boolean matchesFilters(SearchCacheKey key) {
+            Double budget = source.getBudget();
+            if (key.param(1) instanceof Double min && (budget == null || budget < min)) {
+                return false;
+            }
+            if (key.param(2) instanceof Double max && (budget == null || budget > max)) {
+                return false;
+            }
+            if (key.param(3) instanceof Integer minRating
+                    && (source.getRating() == null || source.getRating() < minRating)) {
+                return false;
+            }
+            if (key.param(4) instanceof String type && !type.isBlank() && !type.equals(source.getType())) {
+                return false;
+            }
+            return !(key.param(5) instanceof Boolean published) || published.equals(source.getIsPublished());
+        }
+
+        private static boolean closeTerms(String a, String b) {
+            if (a.equals(b)) {
+                return true;
+            }
+            return a.length() > 2 && b.length() > 2
+                    && a.regionMatches(0, b, 0, 2)
+                    && Math.abs(a.length() - b.length()) <= 2;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.move.searchrecommendationservice.service;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Clé canonique d'une requête de recherche : deux requêtes qui ne diffèrent que par la casse
+ * ou les espaces du mot-clé partagent la même entrée. La pagination et le tri sont inclus.
+ * Les autres chaînes (type, userId) sont gardées telles quelles : les filtres term sont sensibles à la casse.
+ */
+public record SearchCacheKey(String method, List<Object> params) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Position du paramètre texte libre (analysé par Elasticsearch, donc insensible à la casse)
+    private static final Map<String, Integer> TEXT_PARAMS = Map.of(
+            "searchByKeyword", 0,
+            "advancedSearch", 0,
+            "getSuggestions", 0,
+            "searchByLocation", 3,
+            "searchInBoundingBox", 1,
+            "findGeoClusters", 2);
+
+    public static SearchCacheKey of(String method, Object... params) {
+        Integer textParam = TEXT_PARAMS.get(method);
+        List<Object> normalized = new ArrayList<>(params.length);
+        for (int i = 0; i < params.length; i++) {
+            normalized.add(normalize(params[i], textParam != null && textParam == i));
+        }
+        return new SearchCacheKey(method, Collections.unmodifiableList(normalized));
+    }
+
+    public Object param(int index) {
+        return index >= 0 && index < params.size() ? params.get(index) : null;
+    }
+
+    /**
+     * Position du texte libre de la méthode, -1 si elle n'en a pas
+     */
+    public int textIndex() {
+        return TEXT_PARAMS.getOrDefault(method, -1);
+    }
+
+    private static Object normalize(Object param, boolean freeText) {
+        if (freeText && param instanceof String text) {
+            String value = WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+            return value.isEmpty() ? null : value;
+        }
+        if (param instanceof Pageable pageable) {
+            String sort = pageable.getSort().stream()
+                    .map(order -> order.getProperty() + ":" + order.getDirection())
+                    .collect(Collectors.joining(","));
+            return "page=" + pageable.getPageNumber() + ";size=" + pageable.getPageSize() + ";sort=" + sort;
+        }
+        return param;
+    }
+}
@@ -0,0 +1,71 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jeton de continuation opaque pour la pagination search_after : identifiant du point-in-time,
+ * valeurs de tri du dernier résultat, numéro de page et total calculé à la première page.
+ * Encodé en JSON puis base64url.
+ */
+record SearchCursor(String pitId, List<FieldValue> searchAfter, int pageNumber, long totalElements) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    String encode() {
+        List<Object> values = new ArrayList<>(searchAfter.size());
+        for (FieldValue value : searchAfter) {
+            values.add(value.isNull() ? null : value._get());
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("pit", pitId);
+        json.put("after", values);
+        json.put("page", pageNumber);
+        json.put("total", totalElements);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode search cursor", e);
+        }
+    }
+
+    static SearchCursor decode(String token) {
+        try {
+            Map<?, ?> json = MAPPER.readValue(Base64.getUrlDecoder().decode(token), Map.class);
+            List<FieldValue> values = new ArrayList<>();
+            for (Object value : (List<?>) json.get("after")) {
+                values.add(toFieldValue(value));
+            }
+            return new SearchCursor((String) json.get("pit"), values,
+                    ((Number) json.get("page")).intValue(), ((Number) json.get("total")).longValue());
+        } catch (IOException | IllegalArgumentException | ClassCastException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    private static FieldValue toFieldValue(Object value) {
+        if (value == null) {
+            return FieldValue.NULL;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return FieldValue.of(((Number) value).longValue());
+        }
+        if (value instanceof Number number) {
+            return FieldValue.of(number.doubleValue());
+        }
+        if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+}
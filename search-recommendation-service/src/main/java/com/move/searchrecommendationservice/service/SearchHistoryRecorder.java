@@ -0,0 +1,125 @@
+package com.move.searchrecommendationservice.service;
+
+import com.move.searchrecommendationservice.model.SearchHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement asynchrone de l'historique de recherche (write-behind), qui alimente aussi
+ * le profil de préférences de l'utilisateur.
+ * <p>
+ * Les requêtes déposent l'entrée dans une file bornée sans jamais bloquer ; un thread unique
+ * la vide périodiquement par lots insérés en une seule commande insertMany dans search_history.
+ * Au-delà du seuil de remplissage, seule une fraction des entrées est conservée (échantillonnage),
+ * et quand la file est pleine les entrées sont abandonnées. Le reste de la file est écrit à l'arrêt.
+ */
+@Service
+@Slf4j
+public class SearchHistoryRecorder {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserPreferenceService userPreferenceService;
+    private final SuggestionService suggestionService;
+    private final BlockingQueue<SearchHistory> queue;
+    private final int batchSize;
+    private final int samplingThreshold;
+    private final double samplingRate;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-history-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter sampledOutCounter;
+
+    public SearchHistoryRecorder(MongoTemplate mongoTemplate,
+                                 UserPreferenceService userPreferenceService,
+                                 SuggestionService suggestionService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${search.history.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${search.history.batch-size:500}") int batchSize,
+                                 @Value("${search.history.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${search.history.sampling-threshold:0.8}") double samplingThreshold,
+                                 @Value("${search.history.sampling-rate:0.1}") double samplingRate) {
+        this.mongoTemplate = mongoTemplate;
+        this.userPreferenceService = userPreferenceService;
+        this.suggestionService = suggestionService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.samplingThreshold = (int) (queueCapacity * samplingThreshold);
+        this.samplingRate = samplingRate;
+
+        Gauge.builder("search.history.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.writtenCounter = Counter.builder("search.history.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("search.history.dropped").register(meterRegistry);
+        this.sampledOutCounter = Counter.builder("search.history.sampled.out").register(meterRegistry);
+
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dépose une entrée d'historique ; ne bloque jamais le thread de la requête
+     */
+    public void record(SearchHistory history) {
+        // Le profil de préférences et les suggestions suivent toutes les recherches, même celles écartées de l'écriture
+        userPreferenceService.observe(history);
+        suggestionService.observe(history);
+
+        if (queue.size() >= samplingThreshold && ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+            sampledOutCounter.increment();
+            return;
+        }
+        if (!queue.offer(history)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("❌ Échec de l'écriture de l'historique de recherche : {}", e.getMessage(), e);
+        }
+    }
+
+    private void flush() {
+        List<SearchHistory> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                mongoTemplate.insert(batch, SearchHistory.class);
+                writtenCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                // Lot perdu plutôt que réinjecté : l'historique est best-effort
+                droppedCounter.increment(batch.size());
+                throw e;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // Écriture de ce qui reste en file avant l'arrêt
+        flushSafely();
+    }
+}
@@ -0,0 +1,277 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.SearchResult;
+import com.move.searchrecommendationservice.model.SimilarContent;
+import com.move.searchrecommendationservice.repository.SimilarContentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Table des contenus similaires précalculée (collection similar_contents) avec un cache LRU borné devant,
+ * dont les entrées expirent après cache-ttl (une liste modifiée par une autre instance finit par être relue).
+ * <p>
+ * La lecture est une simple recherche par clé : cache, puis Mongo, et calcul à la demande
+ * seulement pour un contenu indexé qui n'a encore jamais été traité (un id inconnu ne crée rien).
+ * Les listes vides ne sont pas enregistrées.
+ * Les contenus créés ou modifiés sont marqués et recalculés par lots en arrière-plan (more_like_this) ;
+ * la copie embarquée d'un contenu modifié est aussi rafraîchie dans les listes où il apparaît comme voisin.
+ * Un nouveau contenu n'entre dans les listes des contenus existants qu'à leur recalcul : une liste plus ancienne
+ * que max-age est servie puis recalculée en arrière-plan.
+ */
+@Service
+@Slf4j
+public class SimilarContentService {
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final SimilarContentRepository similarContentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, SimilarContent> cache;
+
+    private final Set<String> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recomputeScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "similar-content");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    @Value("${search.similar.size:20}")
+    private int neighbourCount;
+
+    // Laisse le temps au refresh Elasticsearch de rendre visibles les documents du lot
+    @Value("${search.similar.recompute-delay-ms:2000}")
+    private long recomputeDelayMs;
+
+    @Value("${search.similar.max-age:6h}")
+    private Duration maxAge;
+
+    public SimilarContentService(ElasticsearchClient elasticsearchClient,
+                                 SimilarContentRepository similarContentRepository,
+                                 MongoTemplate mongoTemplate,
+                                 @Value("${search.similar.cache-size:5000}") long cacheSize,
+                                 @Value("${search.similar.cache-ttl:10m}") Duration cacheTtl) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.similarContentRepository = similarContentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Index des listes par voisin, utilisé à chaque modification ou suppression de contenu
+     * (l'auto-création des index Spring Data est désactivée)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(SimilarContent.class).ensureIndex(
+                    new Index().on("neighbours.contentId", Sort.Direction.ASC).named("neighbours_contentId_idx"));
+        } catch (Exception e) {
+            log.warn("Création de l'index neighbours.contentId impossible : {}", e.getMessage());
+        }
+    }
+
+    public SearchResult<ContentIndex> findSimilar(String contentId, Pageable pageable) {
+        SimilarContent similar = cache.get(contentId, this::loadOrCompute);
+        if (similar == null) {
+            return new SearchResult<>(Collections.emptyList(), pageable.getPageNumber(), pageable.getPageSize(), 0);
+        }
+
+        List<SimilarContent.Neighbour> neighbours = similar.getNeighbours();
+        int from = (int) Math.min(pageable.getOffset(), neighbours.size());
+        int to = Math.min(from + pageable.getPageSize(), neighbours.size());
+        List<ContentIndex> contents = neighbours.subList(from, to).stream()
+                .map(SimilarContent.Neighbour::getContent)
+                .toList();
+
+        return new SearchResult<>(contents, pageable.getPageNumber(), pageable.getPageSize(), neighbours.size());
+    }
+
+    /**
+     * Marque un contenu créé ou modifié pour recalcul de ses voisins
+     */
+    public void markDirty(ContentIndex content) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        refreshNeighbourCopies(content);
+        scheduleRecompute(content.getId());
+    }
+
+    private void scheduleRecompute(String contentId) {
+        dirtyIds.add(contentId);
+        if (recomputeScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::recomputeDirty, recomputeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Supprime la liste d'un contenu et le retire des listes où il apparaît
+     */
+    public void remove(String contentId) {
+        dirtyIds.remove(contentId);
+        similarContentRepository.deleteById(contentId);
+        cache.invalidate(contentId);
+
+        Query containing = Query.query(Criteria.where("neighbours.contentId").is(contentId));
+        List<String> impacted = referencingIds(containing);
+        if (!impacted.isEmpty()) {
+            mongoTemplate.updateMulti(containing,
+                    new Update().pull("neighbours", Query.query(Criteria.where("contentId").is(contentId))),
+                    SimilarContent.class);
+            cache.invalidateAll(impacted);
+        }
+    }
+
+    private SimilarContent loadOrCompute(String contentId) {
+        Optional<SimilarContent> stored = similarContentRepository.findById(contentId);
+        if (stored.isPresent()) {
+            SimilarContent similar = stored.get();
+            if (similar.getComputedAt() == null
+                    || similar.getComputedAt().toInstant().plus(maxAge).isBefore(new Date().toInstant())) {
+                // Servie telle quelle, recalculée pour y faire entrer les contenus publiés depuis
+                scheduleRecompute(contentId);
+            }
+            return similar;
+        }
+        try {
+            // Id inconnu : rien à calculer ni à enregistrer (null n'est pas mis en cache)
+            if (!elasticsearchClient.exists(e -> e.index(contentIndexName).id(contentId)).value()) {
+                return null;
+            }
+            return compute(contentId);
+        } catch (IOException e) {
+            log.error("Error computing similar content for {}: {}", contentId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void recomputeDirty() {
+        recomputeScheduled.set(false);
+        List<String> ids = new ArrayList<>(dirtyIds);
+        dirtyIds.removeAll(ids);
+
+        for (String id : ids) {
+            try {
+                cache.put(id, compute(id));
+            } catch (Exception e) {
+                log.warn("Échec du recalcul des contenus similaires de {} : {}", id, e.getMessage());
+            }
+        }
+        log.debug("Contenus similaires recalculés pour {} contenus", ids.size());
+    }
+
+    private SimilarContent compute(String contentId) throws IOException {
+        SearchResponse<ContentIndex> response = elasticsearchClient.search(s -> s
+                        .index(contentIndexName)
+                        .query(q -> q
+                                .moreLikeThis(mlt -> mlt
+                                        .fields("title", "description", "type")
+                                        .like(l -> l.document(d -> d
+                                                .index(contentIndexName)
+                                                .id(contentId)
+                                        ))
+                                        .minTermFreq(1)
+                                        .maxQueryTerms(12)
+                                        .minimumShouldMatch("60%")
+                                )
+                        )
+                        .source(src -> src.filter(f -> f.excludes("titleSuggest")))
+                        .size(neighbourCount),
+                ContentIndex.class);
+
+        List<SimilarContent.Neighbour> neighbours = new ArrayList<>();
+        for (Hit<ContentIndex> hit : response.hits().hits()) {
+            if (hit.source() != null && !contentId.equals(hit.id())) {
+                hit.source().setId(hit.id());
+                neighbours.add(new SimilarContent.Neighbour(hit.id(), hit.score(), hit.source()));
+            }
+        }
+
+        SimilarContent similar = SimilarContent.builder()
+                .id(contentId)
+                .neighbours(neighbours)
+                .computedAt(new Date())
+                .build();
+        if (neighbours.isEmpty()) {
+            // Rien à enregistrer ; une liste précédente n'est plus valable
+            similarContentRepository.deleteById(contentId);
+            return similar;
+        }
+        return similarContentRepository.save(similar);
+    }
+
+    /**
+     * Met à jour la copie embarquée d'un contenu dans les listes où il est voisin
+     */
+    private void refreshNeighbourCopies(ContentIndex content) {
+        Query containing = Query.query(Criteria.where("neighbours.contentId").is(content.getId()));
+        List<String> impacted = referencingIds(containing);
+        if (impacted.isEmpty()) {
+            return;
+        }
+
+        ContentIndex copy = ContentIndex.builder()
+                .id(content.getId())
+                .title(content.getTitle())
+                .description(content.getDescription())
+                .budget(content.getBudget())
+                .rating(content.getRating())
+                .userId(content.getUserId())
+                .type(content.getType())
+                .creationDate(content.getCreationDate())
+                .lastModified(content.getLastModified())
+                .isPublished(content.getIsPublished())
+                .likeCount(content.getLikeCount())
+                .build();
+        mongoTemplate.updateMulti(containing,
+                new Update().set("neighbours.$[n].content", copy)
+                        .filterArray(Criteria.where("n.contentId").is(content.getId())),
+                SimilarContent.class);
+        cache.invalidateAll(impacted);
+    }
+
+    private List<String> referencingIds(Query query) {
+        Query idsOnly = Query.of(query);
+        idsOnly.fields().include("_id");
+        return mongoTemplate.find(idsOnly, SimilarContent.class).stream()
+                .map(SimilarContent::getId)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
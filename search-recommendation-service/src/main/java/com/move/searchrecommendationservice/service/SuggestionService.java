@@ -0,0 +1,304 @@
+package com.move.searchrecommendationservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.SearchHistory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Suggestions de recherche servies depuis un trie de préfixes en mémoire, construit à partir
+ * des titres des contenus publiés et des requêtes fréquentes de l'historique.
+ * <p>
+ * Le trie est immuable et remplacé d'un bloc : les lectures ne prennent aucun verrou.
+ * Les événements de contenu et les nouvelles recherches modifient les sources, puis une reconstruction
+ * est planifiée (regroupée sur rebuild-delay-ms). Le suggester Elasticsearch (fuzzy) ne sert
+ * qu'en repli quand le trie ne connaît pas le préfixe, par exemple en cas de faute de frappe.
+ * <p>
+ * Une requête n'est proposée aux autres utilisateurs qu'après min-query-count recherches venant d'au moins
+ * min-distinct-users utilisateurs identifiés : une requête privée répétée par un seul utilisateur n'est jamais
+ * publiée. Les compteurs de requêtes sont bornés (max-tracked-queries, éviction Caffeine par fréquence).
+ */
+@Service
+@Slf4j
+public class SuggestionService {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final MongoTemplate mongoTemplate;
+    private final AdvancedSearchService advancedSearchService;
+
+    private final Map<String, SuggestionTrie.Candidate> titles = new ConcurrentHashMap<>();
+    private final Cache<String, QueryStats> queryStats;
+    private final long maxTrackedQueries;
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-trie");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${elasticsearch.indices.content-index}")
+    private String contentIndexName;
+
+    @Value("${search.suggest.max:20}")
+    private int maxSuggestions;
+
+    @Value("${search.suggest.max-prefix-length:30}")
+    private int maxPrefixLength;
+
+    // Nombre de recherches à partir duquel une requête est proposée aux autres utilisateurs
+    @Value("${search.suggest.min-query-count:3}")
+    private long minQueryCount;
+
+    // Nombre d'utilisateurs distincts ayant fait la recherche avant qu'elle soit proposée
+    @Value("${search.suggest.min-distinct-users:3}")
+    private int minDistinctUsers;
+
+    @Value("${search.suggest.rebuild-delay-ms:2000}")
+    private long rebuildDelayMs;
+
+    public SuggestionService(ElasticsearchOperations elasticsearchOperations,
+                             MongoTemplate mongoTemplate,
+                             AdvancedSearchService advancedSearchService,
+                             @Value("${search.suggest.max-tracked-queries:10000}") long maxTrackedQueries) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.mongoTemplate = mongoTemplate;
+        this.advancedSearchService = advancedSearchService;
+        this.maxTrackedQueries = maxTrackedQueries;
+        this.queryStats = Caffeine.newBuilder().maximumSize(maxTrackedQueries).build();
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        int size = Math.max(1, Math.min(limit, maxSuggestions));
+        List<String> suggestions = trie.lookup(normalize(prefix), size);
+        if (!suggestions.isEmpty()) {
+            return suggestions;
+        }
+        // Repli flou : préfixe inconnu du trie (faute de frappe, index pas encore chargé)
+        return advancedSearchService.getSuggestions(prefix, size);
+    }
+
+    /**
+     * Chargement initial (titres depuis Elasticsearch, requêtes fréquentes depuis search_history)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        scheduler.execute(() -> {
+            try {
+                loadTitles();
+                loadPopularQueries();
+                rebuild();
+            } catch (Exception e) {
+                log.error("Échec du chargement des suggestions : {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    public void upsert(ContentIndex content) {
+        if (content == null || content.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(content.getIsPublished()) && content.getTitle() != null && !content.getTitle().isBlank()) {
+            titles.put(content.getId(), new SuggestionTrie.Candidate(content.getTitle().trim(), titleWeight(content)));
+        } else {
+            titles.remove(content.getId());
+        }
+        scheduleRebuild();
+    }
+
+    public void remove(String contentId) {
+        if (titles.remove(contentId) != null) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Compte une recherche ; elle entre dans le trie une fois min-query-count et min-distinct-users atteints
+     */
+    public void observe(SearchHistory history) {
+        String keyword = history.getKeyword() != null ? normalizeQuery(history.getKeyword()) : "";
+        if (keyword.isEmpty() || keyword.length() > maxPrefixLength) {
+            return;
+        }
+        QueryStats stats = queryStats.get(keyword, k -> new QueryStats());
+        if (stats.record(history.getUserId(), minQueryCount, minDistinctUsers)) {
+            scheduleRebuild();
+        }
+    }
+
+    private void loadTitles() {
+        try (SearchHitsIterator<ContentIndex> hits = elasticsearchOperations.searchForStream(
+                org.springframework.data.elasticsearch.core.query.Query.findAll(), ContentIndex.class,
+                IndexCoordinates.of(contentIndexName))) {
+            while (hits.hasNext()) {
+                ContentIndex content = hits.next().getContent();
+                if (Boolean.TRUE.equals(content.getIsPublished()) && content.getTitle() != null
+                        && !content.getTitle().isBlank()) {
+                    titles.put(content.getId(), new SuggestionTrie.Candidate(content.getTitle().trim(), titleWeight(content)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Requêtes de l'historique déjà faites par assez d'utilisateurs distincts (recherches anonymes exclues)
+     */
+    private void loadPopularQueries() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("keyword").ne(null).and("userId").ne(null)),
+                Aggregation.group("keyword", "userId").count().as("count"),
+                Aggregation.group("_id.keyword").count().as("users").sum("count").as("count"),
+                Aggregation.match(Criteria.where("users").gte(minDistinctUsers).and("count").gte(minQueryCount)),
+                Aggregation.sort(Sort.Direction.DESC, "count"),
+                Aggregation.limit(maxTrackedQueries));
+        for (Document row : mongoTemplate.aggregate(aggregation, SearchHistory.class, Document.class)) {
+            String keyword = normalizeQuery(String.valueOf(row.get("_id")));
+            if (!keyword.isEmpty() && keyword.length() <= maxPrefixLength) {
+                queryStats.get(keyword, k -> new QueryStats())
+                        .load(((Number) row.get("count")).longValue(), ((Number) row.get("users")).intValue());
+            }
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(maxSuggestions, maxPrefixLength);
+
+        for (SuggestionTrie.Candidate title : titles.values()) {
+            addWithWordKeys(builder, title);
+        }
+        int queries = 0;
+        for (Map.Entry<String, QueryStats> entry : queryStats.asMap().entrySet()) {
+            long count = entry.getValue().publishableCount();
+            if (count > 0) {
+                addWithWordKeys(builder, new SuggestionTrie.Candidate(entry.getKey(), Math.log1p(count)));
+                queries++;
+            }
+        }
+
+        trie = builder.build();
+        log.debug("Trie de suggestions reconstruit ({} titres, {} requêtes) en {} ms",
+                titles.size(), queries, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexe la suggestion sous son texte complet et à partir de chacun de ses mots
+     */
+    private void addWithWordKeys(SuggestionTrie.Builder builder, SuggestionTrie.Candidate candidate) {
+        String key = normalize(candidate.text());
+        builder.add(key, candidate);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            String suffix = key.substring(i + 1);
+            if (suffix.length() > 2) {
+                builder.add(suffix, candidate);
+            }
+        }
+    }
+
+    private static double titleWeight(ContentIndex content) {
+        double likes = content.getLikeCount() != null ? Math.log1p(content.getLikeCount()) : 0;
+        double rating = content.getRating() != null ? content.getRating() / 5.0 : 0;
+        // Un titre de contenu passe devant une requête de même popularité
+        return 2 + likes + rating;
+    }
+
+    private static String normalizeQuery(String query) {
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(normalizeQuery(text), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Compteur d'une requête et utilisateurs distincts qui l'ont faite.
+     * Les ids ne sont gardés que jusqu'au seuil : au-delà seul le compteur évolue.
+     */
+    private static final class QueryStats {
+
+        private long count;
+        private int distinctUsers;
+        private boolean publishable;
+        private Set<String> users = new HashSet<>();
+
+        /**
+         * Retourne true si la requête vient de devenir publiable
+         */
+        synchronized boolean record(String userId, long minCount, int minUsers) {
+            count++;
+            if (users != null && userId != null && users.add(userId)) {
+                distinctUsers = users.size();
+                if (distinctUsers >= minUsers) {
+                    users = null;
+                }
+            }
+            if (!publishable && count >= minCount && distinctUsers >= minUsers) {
+                publishable = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Compteurs issus de l'historique, déjà filtrés sur les seuils
+         */
+        synchronized void load(long historyCount, int historyUsers) {
+            count += historyCount;
+            distinctUsers = Math.max(distinctUsers, historyUsers);
+            users = null;
+            publishable = true;
+        }
+
+        synchronized long publishableCount() {
+            return publishable ? count : 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
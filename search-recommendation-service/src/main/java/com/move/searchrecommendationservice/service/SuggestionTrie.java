@@ -0,0 +1,130 @@
+package com.move.searchrecommendationservice.service;
+
+import java.util.*;
+
+/**
+ * Trie de préfixes immuable : chaque nœud garde directement ses meilleures suggestions
+ * (par poids décroissant), une lecture se limite donc à descendre le long du préfixe.
+ * Les enfants sont stockés dans des tableaux triés (recherche dichotomique) pour rester compacts.
+ */
+final class SuggestionTrie {
+
+    static final SuggestionTrie EMPTY = new Builder(1, 1).build();
+
+    private final Node root;
+    private final int maxKeyLength;
+
+    private SuggestionTrie(Node root, int maxKeyLength) {
+        this.root = root;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Suggestions pour une clé déjà normalisée ; liste vide si aucun préfixe ne correspond
+     */
+    List<String> lookup(String key, int limit) {
+        if (key.isEmpty() || key.length() > maxKeyLength) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.length <= limit ? List.of(node.top) : List.of(node.top).subList(0, limit);
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final String[] top;
+
+        private Node(char[] labels, Node[] children, String[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * Construction en deux temps : insertion dans des nœuds mutables, puis gel bottom-up
+     * en calculant le top-K de chaque nœud à partir de ceux de ses enfants
+     */
+    static final class Builder {
+        private final int topSize;
+        private final int maxKeyLength;
+        private final MutableNode root = new MutableNode();
+
+        Builder(int topSize, int maxKeyLength) {
+            this.topSize = topSize;
+            this.maxKeyLength = maxKeyLength;
+        }
+
+        void add(String key, Candidate candidate) {
+            MutableNode node = root;
+            int length = Math.min(key.length(), maxKeyLength);
+            for (int i = 0; i < length; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+            }
+            node.terminals.add(candidate);
+        }
+
+        SuggestionTrie build() {
+            return new SuggestionTrie(freeze(root).node(), maxKeyLength);
+        }
+
+        private Frozen freeze(MutableNode node) {
+            char[] labels = new char[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+            List<Candidate> candidates = new ArrayList<>(node.terminals);
+
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> entry : node.children.entrySet()) {
+                Frozen child = freeze(entry.getValue());
+                labels[i] = entry.getKey();
+                children[i] = child.node();
+                candidates.addAll(child.best());
+                i++;
+            }
+
+            List<Candidate> best = best(candidates);
+            String[] top = best.stream().map(Candidate::text).toArray(String[]::new);
+            return new Frozen(new Node(labels, children, top), best);
+        }
+
+        private List<Candidate> best(List<Candidate> candidates) {
+            candidates.sort(Comparator.comparingDouble(Candidate::weight).reversed().thenComparing(Candidate::text));
+            List<Candidate> best = new ArrayList<>(topSize);
+            Set<String> seen = new HashSet<>();
+            for (Candidate candidate : candidates) {
+                if (best.size() == topSize) {
+                    break;
+                }
+                // Une même suggestion peut être atteinte par plusieurs clés (titre complet, mots du titre)
+                if (seen.add(candidate.text().toLowerCase(Locale.ROOT))) {
+                    best.add(candidate);
+                }
+            }
+            return best;
+        }
+
+        private record Frozen(Node node, List<Candidate> best) {
+        }
+
+        private static final class MutableNode {
+            // TreeMap : labels déjà triés pour la recherche dichotomique
+            private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+            private final List<Candidate> terminals = new ArrayList<>(1);
+        }
+    }
+
+    record Candidate(String text, double weight) {
+    }
+}
@@ -1,101 +1,265 @@
 package com.move.searchrecommendationservice.service;
 
 import com.move.searchrecommendationservice.model.ContentDTO;
-import com.move.searchrecommendationservice.model.ContentIndex;
-import com.move.searchrecommendationservice.repository.ContentIndexRepository;
+import com.move.searchrecommendationservice.model.SyncState;
 import com.move.searchrecommendationservice.repository.ContentRepository;
-import org.springframework.boot.CommandLineRunner;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
-import org.springframework.data.elasticsearch.core.suggest.Completion;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
-@Component // Permet à Spring de détecter cette classe au démarrage
-public class SyncBatchRunner implements CommandLineRunner {
+/**
+ * Synchronisation Mongo -> Elasticsearch hors du chemin de démarrage.
+ * <p>
+ * Optionnelle (search.sync.startup.enabled), elle tourne en arrière-plan une fois l'application prête.
+ * Une seule instance à la fois l'exécute : le verrou est un bail stocké dans search_sync_state.
+ * Seuls les contenus modifiés depuis le dernier point de reprise (lastModified) sont réindexés ;
+ * la première exécution, sans point de reprise, réindexe tout le catalogue. Chaque passage retire aussi
+ * de l'index les contenus supprimés de Mongo (diff des ids, voir BulkReindexService).
+ * Le bail est renouvelé pendant la réindexation ; s'il a été perdu, la réindexation est interrompue.
+ */
+@Component
+@Slf4j
+public class SyncBatchRunner {
+
+    private static final String SYNC_ID = "content-sync";
 
     private final ContentRepository contentRepository;
-    private final ContentIndexRepository contentIndexRepository;
+    private final BulkReindexService bulkReindexService;
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "content-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${search.sync.startup.enabled:false}")
+    private boolean startupSyncEnabled;
+
+    // 0 : une seule synchronisation au démarrage
+    @Value("${search.sync.interval:0s}")
+    private Duration interval;
+
+    @Value("${search.sync.lease:10m}")
+    private Duration lease;
+
+    // Recouvrement appliqué au point de reprise (écarts d'horloge, écritures concurrentes)
+    @Value("${search.sync.overlap:1m}")
+    private Duration overlap;
 
     // Injection des dépendances via constructeur
     public SyncBatchRunner(ContentRepository contentRepository,
-                           ContentIndexRepository contentIndexRepository) {
+                           BulkReindexService bulkReindexService,
+                           MongoTemplate mongoTemplate) {
         this.contentRepository = contentRepository;
-        this.contentIndexRepository = contentIndexRepository;
+        this.bulkReindexService = bulkReindexService;
+        this.mongoTemplate = mongoTemplate;
+        this.instanceId = hostName() + "-" + UUID.randomUUID();
     }
 
-    @Override
-    public void run(String... args) {
-        // Récupère tous les contenus depuis MongoDB
-        List<ContentDTO> contents = contentRepository.findAll();
-
-        // Convertit chaque ContentDTO vers ContentIndex (pour Elasticsearch)
-        List<ContentIndex> indexed = contents.stream().map(content -> {
-            ContentIndex index = new ContentIndex();
-            index.setId(content.getId());
-            index.setTitle(content.getTitle());
-            index.setDescription(content.getDescription());
-            index.setBudget(content.getBudget());
-            index.setRating(content.getRating());
-            index.setUserId(content.getUserId());
-            index.setType(content.getType());
-            index.setIsPublished(content.getIsPublished());
-            index.setCreationDate(content.getCreationDate());
-            index.setLastModified(content.getLastModified());
-
-            // Add titleSuggest field with enhanced variations for better suggestions
-            if (content.getTitle() != null && !content.getTitle().isEmpty()) {
-                List<String> inputs = new ArrayList<>();
-                inputs.add(content.getTitle());
-                inputs.add(content.getTitle().toLowerCase());
-
-                // Add variations like replacing spaces with dashes
-                if (content.getTitle().contains(" ")) {
-                    inputs.add(content.getTitle().replace(" ", "-"));
-                }
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleBackgroundSync() {
+        if (!startupSyncEnabled) {
+            log.info("Synchronisation Mongo -> Elasticsearch au démarrage désactivée (search.sync.startup.enabled)");
+            return;
+        }
+
+        if (interval.isZero() || interval.isNegative()) {
+            scheduler.execute(this::catchUp);
+        } else {
+            scheduler.scheduleWithFixedDelay(this::catchUp, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
 
-                // Add individual words for partial matching
-                String[] words = content.getTitle().split("\\s+");
-                if (words.length > 1) {
-                    for (String word : words) {
-                        if (word.length() > 2) { // Only words with 3+ chars
-                            inputs.add(word);
-                        }
-                    }
+    /**
+     * Réindexation complète (déclenchement manuel)
+     */
+    public void run() {
+        if (!acquireLease()) {
+            log.warn("Synchronisation déjà en cours sur une autre instance, réindexation ignorée");
+            return;
+        }
+        try {
+            // Lecture des contenus MongoDB par curseur et indexation par lots _bulk (avec suggestions)
+            recordRun(bulkReindexService.reindexInPlace(this::renewLease));
+            log.info("✅ Synchronisation MongoDB -> Elasticsearch terminée avec suggestions améliorées.");
+        } finally {
+            releaseLease();
+        }
+    }
+
+    /**
+     * Rattrapage incrémental depuis le dernier point de reprise, exécuté par l'instance leader uniquement
+     */
+    void catchUp() {
+        try {
+            if (!acquireLease()) {
+                log.debug("Synchronisation prise en charge par une autre instance");
+                return;
+            }
+            try {
+                SyncState state = mongoTemplate.findById(SYNC_ID, SyncState.class);
+                Date highWaterMark = state != null ? state.getHighWaterMark() : null;
+
+                BulkReindexService.ReindexReport report;
+                if (highWaterMark == null) {
+                    log.info("Aucun point de reprise : réindexation complète");
+                    report = bulkReindexService.reindexInPlace(this::renewLease);
+                } else {
+                    Date since = new Date(highWaterMark.getTime() - overlap.toMillis());
+                    log.info("Rattrapage des contenus modifiés depuis {}", since);
+                    report = bulkReindexService.reindexModifiedSince(since, this::renewLease);
                 }
+                recordRun(report);
+            } finally {
+                releaseLease();
+            }
+        } catch (Exception e) {
+            // Ne pas interrompre les exécutions planifiées suivantes
+            log.error("❌ Échec de la synchronisation Mongo -> Elasticsearch", e);
+        }
+    }
+
+    /**
+     * Exécute l'action sous le bail de synchronisation ; retourne false si une autre instance le détient
+     */
+    boolean runExclusive(Runnable action) {
+        if (!acquireLease()) {
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            releaseLease();
+        }
+    }
+
+    /**
+     * Réindexation complète dans l'index courant sous le bail ; vide si une autre instance le détient
+     */
+    public Optional<BulkReindexService.ReindexReport> reindexInPlaceExclusive() {
+        return callExclusive(() -> {
+            BulkReindexService.ReindexReport report = bulkReindexService.reindexInPlace(this::renewLease);
+            recordRun(report);
+            return report;
+        });
+    }
 
-                index.setTitleSuggest(new Completion(inputs));
-            } else {
-                index.setTitleSuggest(new Completion(Collections.emptyList()));
+    /**
+     * Réindexation dans un nouvel index puis bascule de l'alias, sous le bail ;
+     * vide si une autre instance (migration, synchronisation) le détient
+     */
+    public Optional<BulkReindexService.ReindexReport> reindexIntoNewIndexExclusive() {
+        return callExclusive(() -> {
+            try {
+                BulkReindexService.ReindexReport report = bulkReindexService.reindexIntoNewIndex(this::renewLease);
+                if (report.aliasSwapped()) {
+                    recordRun(report);
+                }
+                return report;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        });
+    }
+
+    private Optional<BulkReindexService.ReindexReport> callExclusive(Supplier<BulkReindexService.ReindexReport> action) {
+        AtomicReference<BulkReindexService.ReindexReport> report = new AtomicReference<>();
+        if (!runExclusive(() -> report.set(action.get()))) {
+            return Optional.empty();
+        }
+        return Optional.of(report.get());
+    }
 
-            return index;
-        }).collect(Collectors.toList());
+    public ContentDTO getSingleContent(String id) {
+        return contentRepository.findById(id).orElse(null);
+    }
 
-        // Enregistre tous les documents dans Elasticsearch
-        contentIndexRepository.saveAll(indexed);
+    private boolean acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(SYNC_ID).orOperator(
+                Criteria.where("lockedUntil").lt(now),
+                Criteria.where("lockedUntil").is(null),
+                Criteria.where("owner").is(instanceId)));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("lockedUntil", new Date(now.getTime() + lease.toMillis()));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), SyncState.class) != null;
+        } catch (DuplicateKeyException e) {
+            // Le document existe et le bail est détenu par une autre instance
+            return false;
+        }
+    }
+
+    /**
+     * Prolonge le bail détenu par cette instance (appelé pendant les réindexations longues)
+     *
+     * @throws IllegalStateException si le bail a été repris par une autre instance
+     */
+    void renewLease() {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(SYNC_ID).and("owner").is(instanceId)),
+                new Update().set("lockedUntil", new Date(System.currentTimeMillis() + lease.toMillis())),
+                SyncState.class);
+        if (result.getMatchedCount() == 0) {
+            throw new IllegalStateException("Bail de synchronisation perdu, réindexation interrompue");
+        }
+    }
+
+    private void releaseLease() {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(SYNC_ID).and("owner").is(instanceId)),
+                new Update().set("lockedUntil", new Date()),
+                SyncState.class);
+    }
+
+    void recordRun(BulkReindexService.ReindexReport report) {
+        Update update = new Update()
+                .set("lastRunAt", new Date())
+                .set("lastIndexed", report.indexed());
+        // Le point de reprise n'avance que si tout a été indexé, sinon la prochaine exécution reprend ces contenus
+        if (report.failed() == 0 && report.highWaterMark() != null) {
+            update.max("highWaterMark", report.highWaterMark());
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(SYNC_ID)), update, SyncState.class);
+    }
 
-        System.out.println("✅ Synchronisation MongoDB -> Elasticsearch terminée avec suggestions améliorées.");
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "search-service";
+        }
     }
 
-    public ContentIndex getSingleContent(String id) {
-        return contentRepository.findById(id)
-                .map(content -> {
-                    ContentIndex contentIndex = new ContentIndex();
-                    contentIndex.setId(content.getId());
-                    contentIndex.setTitle(content.getTitle());
-                    contentIndex.setDescription(content.getDescription());
-                    contentIndex.setBudget(content.getBudget());
-                    contentIndex.setRating(content.getRating());
-                    contentIndex.setUserId(content.getUserId());
-                    contentIndex.setType(content.getType());
-                    contentIndex.setIsPublished(content.getIsPublished());
-                    // Add title suggest field
-                    contentIndex.setTitleSuggest(new Completion(List.of(content.getTitle())));
-                    return contentIndex;
-                })
-                .orElse(null);
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
     }
-}
\ No newline at end of file
+}
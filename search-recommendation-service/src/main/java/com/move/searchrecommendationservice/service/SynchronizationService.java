@@ -1,72 +1,183 @@
 package com.move.searchrecommendationservice.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.VersionType;
 import co.elastic.clients.elasticsearch.core.DeleteByQueryRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.IndexRequest;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import com.move.searchrecommendationservice.model.ContentDTO;
 import com.move.searchrecommendationservice.model.ContentIndex;
-import com.move.searchrecommendationservice.repository.ContentRepository;
+import com.move.searchrecommendationservice.model.ContentIndexMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
-
+import java.util.Optional;
+
+/**
+ * Applique les événements de contenu à l'index Elasticsearch.
+ * <p>
+ * Chaque écriture porte la sequence de l'événement comme version externe : Elasticsearch refuse (409)
+ * un événement plus ancien que le document indexé, même reçu en retard ou par un autre consommateur.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SynchronizationService {
 
+    static final int VERSION_CONFLICT = 409;
+
     private final ElasticsearchClient elasticsearchClient;
     private final SyncBatchRunner syncBatchRunner;
-    private final ContentRepository contentRepository;
+    private final ContentVectorIndex contentVectorIndex;
+    private final SimilarContentService similarContentService;
+    private final SuggestionService suggestionService;
+    private final SearchCacheInvalidator searchCacheInvalidator;
 
     @Value("${elasticsearch.indices.content-index}")
     private String contentIndexName;
 
     public void sync(ContentDTO dto) {
         try {
-            ContentIndex index = ContentIndex.builder()
-                    .id(dto.getId())
-                    .title(dto.getTitle())
-                    .description(dto.getDescription())
-                    .budget(dto.getBudget())
-                    .rating(dto.getRating())
-                    .userId(dto.getUserId())
-                    .type(dto.getType())
-                    .isPublished(dto.getIsPublished())
-                    .creationDate(dto.getCreationDate())
-                    .lastModified(dto.getLastModified())
-                    .titleSuggest(createTitleSuggestions(dto.getTitle()))  // Using our improved method
-                    .build();
-
-            elasticsearchClient.index(IndexRequest.of(i -> i
-                    .index(contentIndexName)
-                    .id(index.getId())
-                    .document(index)
-            ));
+            ContentIndex index = ContentIndexMapper.fromDTO(dto);
+            Long version = dto.indexVersion();
+
+            elasticsearchClient.index(IndexRequest.of(i -> {
+                i.index(contentIndexName)
+                        .id(index.getId())
+                        .document(index);
+                if (version != null) {
+                    i.version(version).versionType(VersionType.External);
+                }
+                return i;
+            }));
+            contentVectorIndex.upsert(index);
+            similarContentService.markDirty(index);
+            suggestionService.upsert(index);
+            searchCacheInvalidator.onContentChanged(List.of(index), List.of());
             log.info("✅ Elasticsearch document synchronized: {}", dto.getId());
 
+        } catch (ElasticsearchException e) {
+            if (e.status() == VERSION_CONFLICT) {
+                log.info("⏭️ Événement périmé ignoré pour {} (sequence {})", dto.getId(), dto.indexVersion());
+            } else {
+                log.error("❌ Failed to sync document: {}", dto.getId(), e);
+            }
         } catch (Exception e) {
             log.error("❌ Failed to sync document: {}", dto.getId(), e);
         }
     }
 
-    public void delete(String id) {
+    public void delete(String id, Long version) {
         try {
-            elasticsearchClient.delete(d -> d.index(contentIndexName).id(id));
+            elasticsearchClient.delete(d -> {
+                d.index(contentIndexName).id(id);
+                if (version != null) {
+                    d.version(version).versionType(VersionType.External);
+                }
+                return d;
+            });
+            contentVectorIndex.remove(id);
+            similarContentService.remove(id);
+            suggestionService.remove(id);
+            searchCacheInvalidator.onContentChanged(List.of(), List.of(id));
             log.info("🗑️ Elasticsearch document deleted: {}", id);
+        } catch (ElasticsearchException e) {
+            if (e.status() == VERSION_CONFLICT) {
+                log.info("⏭️ Suppression périmée ignorée pour {} (sequence {})", id, version);
+            } else {
+                log.error("❌ Failed to delete document: {}", id, e);
+            }
         } catch (Exception e) {
             log.error("❌ Failed to delete document: {}", id, e);
         }
     }
 
+    /**
+     * Applique un lot d'événements (indexations et suppressions) en une seule requête _bulk.
+     * Lève une exception si le lot doit être rejoué : erreur réseau ou rejet temporaire (429, 5xx).
+     * Un élément refusé pour conflit de version est périmé : il n'est ni rejoué ni reporté.
+     */
+    public void syncBatch(Collection<ContentDTO> upserts, Collection<ContentDTO> deletes) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(upserts.size() + deletes.size());
+        List<ContentIndex> documents = new ArrayList<>(upserts.size());
+        for (ContentDTO dto : upserts) {
+            ContentIndex document = ContentIndexMapper.fromDTO(dto);
+            Long version = dto.indexVersion();
+            documents.add(document);
+            operations.add(BulkOperation.of(o -> o.index(i -> {
+                i.index(contentIndexName)
+                        .id(document.getId())
+                        .document(document);
+                if (version != null) {
+                    i.version(version).versionType(VersionType.External);
+                }
+                return i;
+            })));
+        }
+        List<String> deletedIdList = new ArrayList<>(deletes.size());
+        for (ContentDTO dto : deletes) {
+            Long version = dto.indexVersion();
+            deletedIdList.add(dto.getId());
+            operations.add(BulkOperation.of(o -> o.delete(d -> {
+                d.index(contentIndexName).id(dto.getId());
+                if (version != null) {
+                    d.version(version).versionType(VersionType.External);
+                }
+                return d;
+            })));
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(b -> b.operations(operations));
+
+        // Les réponses suivent l'ordre des opérations : indexations puis suppressions.
+        // Seuls les éléments acceptés par Elasticsearch sont reportés dans les index en mémoire.
+        List<ContentIndex> indexed = new ArrayList<>(documents.size());
+        List<String> deleted = new ArrayList<>(deletedIdList.size());
+        int retryable = 0;
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                if (i < documents.size()) {
+                    indexed.add(documents.get(i));
+                } else {
+                    deleted.add(deletedIdList.get(i - documents.size()));
+                }
+            } else if (item.status() == VERSION_CONFLICT) {
+                log.debug("⏭️ Événement périmé ignoré pour {}", item.id());
+            } else if (BulkReindexService.isRetryable(item.status())) {
+                retryable++;
+            } else {
+                // Rejet définitif (mapping...) : rejouer le lot n'y changerait rien
+                log.error("❌ Document {} rejeté ({}) : {}", item.id(), item.status(), item.error().reason());
+            }
+        }
+
+        indexed.forEach(contentVectorIndex::upsert);
+        indexed.forEach(similarContentService::markDirty);
+        indexed.forEach(suggestionService::upsert);
+        deleted.forEach(contentVectorIndex::remove);
+        deleted.forEach(similarContentService::remove);
+        deleted.forEach(suggestionService::remove);
+        searchCacheInvalidator.onContentChanged(indexed, deleted);
+
+        if (retryable > 0) {
+            throw new IllegalStateException(retryable + " document(s) rejeté(s) temporairement par Elasticsearch, lot à rejouer");
+        }
+    }
+
     public void deleteAllFromElasticsearch() throws IOException {
         String indexName = "contentindex";
 
@@ -88,6 +199,7 @@ public class SynchronizationService {
         );
 
         elasticsearchClient.deleteByQuery(request);
+        searchCacheInvalidator.clearAll();
         log.info("✅ Suppression terminée.");
     }
 
@@ -99,100 +211,40 @@ public class SynchronizationService {
 
     public void syncSingleContent(String contentId) {
         try {
-            ContentIndex content = syncBatchRunner.getSingleContent(contentId);
-            if (content == null) {
+            ContentDTO source = syncBatchRunner.getSingleContent(contentId);
+            if (source == null) {
                 throw new IllegalArgumentException("Content not found for ID: " + contentId);
             }
-
-            IndexRequest<ContentIndex> request = IndexRequest.of(i -> i
-                    .index(contentIndexName)
-                    .id(content.getId())
-                    .document(content)
-            );
+            ContentIndex content = ContentIndexMapper.fromDTO(source);
+
+            // Même version que l'état lu dans Mongo : réécriture acceptée, état plus ancien refusé
+            IndexRequest<ContentIndex> request = IndexRequest.of(i -> {
+                i.index(contentIndexName)
+                        .id(content.getId())
+                        .document(content);
+                if (source.getVersion() != null) {
+                    i.version(source.getVersion()).versionType(VersionType.ExternalGte);
+                }
+                return i;
+            });
 
             elasticsearchClient.index(request);
+            contentVectorIndex.upsert(content);
+            similarContentService.markDirty(content);
+            suggestionService.upsert(content);
+            searchCacheInvalidator.onContentChanged(List.of(content), List.of());
             log.info("✅ Content {} successfully synchronized to Elasticsearch.", contentId);
         } catch (Exception e) {
             log.error("❌ Failed to sync content {}: {}", contentId, e.getMessage(), e);
             throw new RuntimeException("Synchronization failed for content: " + contentId, e);
         }
     }
-    private Completion createTitleSuggestions(String title) {
-        if (title == null || title.isEmpty()) {
-            return new Completion(Collections.emptyList());
-        }
-
-        // Create various forms of the title for better suggestions
-        List<String> inputs = new ArrayList<>();
-
-        // Original title
-        inputs.add(title);
-
-        // Lowercased version
-        inputs.add(title.toLowerCase());
-
-        // Title with spaces replaced by dashes (common search pattern)
-        if (title.contains(" ")) {
-            inputs.add(title.replace(" ", "-"));
-        }
-
-        // Add individual words for partial matching
-        String[] words = title.split("\\s+");
-        if (words.length > 1) {
-            Arrays.stream(words)
-                    .filter(word -> word.length() > 2) // Only words with 3+ chars
-                    .forEach(inputs::add);
-        }
-
-        return new Completion(inputs);
-    }
-    public void reindexAllWithSuggestField() {
-        try {
-            log.info("Starting reindexing process to add improved titleSuggest field to all documents");
-
-            // Get all documents from MongoDB
-            List<ContentDTO> allContent = contentRepository.findAll();
-            int total = allContent.size();
-            int processed = 0;
-
-            for (ContentDTO content : allContent) {
-                try {
-                    // Create ContentIndex with improved titleSuggest field
-                    ContentIndex index = ContentIndex.builder()
-                            .id(content.getId())
-                            .title(content.getTitle())
-                            .description(content.getDescription())
-                            .budget(content.getBudget())
-                            .rating(content.getRating())
-                            .userId(content.getUserId())
-                            .type(content.getType())
-                            .isPublished(content.getIsPublished())
-                            .creationDate(content.getCreationDate())
-                            .lastModified(content.getLastModified())
-                            // Add the titleSuggest field with improved suggestions
-                            .titleSuggest(createTitleSuggestions(content.getTitle()))
-                            .build();
-
-                    // Index document
-                    elasticsearchClient.index(IndexRequest.of(i -> i
-                            .index(contentIndexName)
-                            .id(index.getId())
-                            .document(index)
-                    ));
-
-                    processed++;
-                    if (processed % 100 == 0) {
-                        log.info("Reindexed {}/{} documents", processed, total);
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to reindex document {}: {}", content.getId(), e.getMessage());
-                }
-            }
-
-            log.info("Reindexing completed. Successfully processed {}/{} documents", processed, total);
-        } catch (Exception e) {
-            log.error("Error during reindexing process", e);
-            throw new RuntimeException("Failed to reindex documents with titleSuggest field", e);
-        }
+    /**
+     * Réindexe tous les contenus (avec le champ titleSuggest) via le moteur _bulk, sous le bail de synchronisation ;
+     * vide si une migration ou une synchronisation est en cours
+     */
+    public Optional<BulkReindexService.ReindexReport> reindexAllWithSuggestField() {
+        log.info("Starting reindexing process to add improved titleSuggest field to all documents");
+        return syncBatchRunner.reindexInPlaceExclusive();
     }
-}
\ No newline at end of file
+}
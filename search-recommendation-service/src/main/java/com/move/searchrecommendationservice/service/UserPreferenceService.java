@@ -0,0 +1,161 @@
+package com.move.searchrecommendationservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.move.searchrecommendationservice.model.SearchHistory;
+import com.move.searchrecommendationservice.model.UserPreferenceProfile;
+import com.move.searchrecommendationservice.repository.SearchHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Profil de préférences par utilisateur, construit à partir du flux d'historique de recherche.
+ * <p>
+ * Chaque recherche met à jour le profil en mémoire (compteurs avec décroissance : les recherches
+ * récentes pèsent plus). Un profil absent du cache est reconstruit une fois depuis les dernières
+ * entrées de search_history. Le profil sert de boost function_score dans AdvancedSearchService.
+ */
+@Service
+public class UserPreferenceService {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "les", "des", "une", "pour", "par", "sur", "dans", "avec", "aux", "the", "and", "for", "with");
+
+    private static final double DECAY = 0.9;
+    private static final double BUDGET_SMOOTHING = 0.3;
+    private static final int MAX_TRACKED_TERMS = 50;
+    private static final int MAX_TYPES = 3;
+    private static final int MAX_TERMS = 5;
+    // Poids minimal (après décroissance) pour qu'un type ou un terme compte dans le profil
+    private static final double MIN_WEIGHT = 1.0;
+
+    private final SearchHistoryRepository searchHistoryRepository;
+    private final Cache<String, Accumulator> profiles;
+
+    public UserPreferenceService(SearchHistoryRepository searchHistoryRepository,
+                                 @Value("${search.personalization.cache-size:10000}") long cacheSize,
+                                 @Value("${search.personalization.idle-expiry:1h}") Duration idleExpiry) {
+        this.searchHistoryRepository = searchHistoryRepository;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Profil courant de l'utilisateur, ou null s'il n'a pas encore de préférence marquée
+     */
+    public UserPreferenceProfile profileOf(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        return profiles.get(userId, this::load).snapshot();
+    }
+
+    /**
+     * Prend en compte une nouvelle recherche (profil déjà en mémoire uniquement :
+     * sinon il sera reconstruit depuis Mongo à la prochaine lecture)
+     */
+    public void observe(SearchHistory history) {
+        if (history.getUserId() == null) {
+            return;
+        }
+        Accumulator accumulator = profiles.getIfPresent(history.getUserId());
+        if (accumulator != null) {
+            accumulator.add(history);
+        }
+    }
+
+    private Accumulator load(String userId) {
+        Accumulator accumulator = new Accumulator();
+        List<SearchHistory> recent = new ArrayList<>(searchHistoryRepository.findTop100ByUserIdOrderByTimestampDesc(userId));
+        // Rejoué du plus ancien au plus récent pour que la décroissance s'applique dans le bon ordre
+        Collections.reverse(recent);
+        recent.forEach(accumulator::add);
+        return accumulator;
+    }
+
+    private static final class Accumulator {
+        private final Map<String, Double> typeWeights = new HashMap<>();
+        private final Map<String, Double> termWeights = new HashMap<>();
+        private Double budgetMin;
+        private Double budgetMax;
+
+        synchronized void add(SearchHistory history) {
+            decay(typeWeights);
+            decay(termWeights);
+
+            if (history.getType() != null && !history.getType().isBlank()) {
+                typeWeights.merge(history.getType(), 1.0, Double::sum);
+            }
+            if (history.getKeyword() != null) {
+                for (String token : TOKEN_SEPARATOR.split(fold(history.getKeyword()))) {
+                    if (token.length() > 2 && !STOP_WORDS.contains(token)) {
+                        termWeights.merge(token, 1.0, Double::sum);
+                    }
+                }
+                if (termWeights.size() > MAX_TRACKED_TERMS) {
+                    termWeights.entrySet().removeIf(entry -> entry.getValue() < 0.2);
+                }
+            }
+            if (history.getMinBudget() != null) {
+                budgetMin = smooth(budgetMin, history.getMinBudget());
+            }
+            if (history.getMaxBudget() != null) {
+                budgetMax = smooth(budgetMax, history.getMaxBudget());
+            }
+        }
+
+        synchronized UserPreferenceProfile snapshot() {
+            List<String> types = top(typeWeights, MAX_TYPES);
+            List<String> terms = top(termWeights, MAX_TERMS);
+            Double min = roundBudget(budgetMin);
+            Double max = roundBudget(budgetMax);
+            if (types.isEmpty() && terms.isEmpty() && (min == null || max == null)) {
+                return null;
+            }
+            return new UserPreferenceProfile(types, min, max, terms);
+        }
+
+        private static void decay(Map<String, Double> weights) {
+            weights.replaceAll((key, weight) -> weight * DECAY);
+        }
+
+        private static Double smooth(Double current, double value) {
+            return current == null ? value : current + BUDGET_SMOOTHING * (value - current);
+        }
+
+        private static List<String> top(Map<String, Double> weights, int limit) {
+            return weights.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= MIN_WEIGHT)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        /**
+         * Arrondi à deux chiffres significatifs : le profil (et donc la clé de cache) reste stable
+         */
+        private static Double roundBudget(Double budget) {
+            if (budget == null || budget <= 0) {
+                return null;
+            }
+            double magnitude = Math.pow(10, Math.floor(Math.log10(budget)) - 1);
+            return Math.round(budget / magnitude) * magnitude;
+        }
+    }
+
+    private static String fold(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,110 @@
+package com.move.searchrecommendationservice.listener;
+
+import com.move.searchrecommendationservice.model.ContentDTO;
+import com.move.searchrecommendationservice.service.SynchronizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ContentEventBatchListenerTest {
+
+    private static final String UPDATED = "content.updated";
+    private static final String DELETED = "content.deleted";
+
+    private SynchronizationService syncService;
+    private ContentEventBatchListener listener;
+
+    @BeforeEach
+    void setUp() {
+        syncService = mock(SynchronizationService.class);
+        listener = new ContentEventBatchListener(syncService);
+        ReflectionTestUtils.setField(listener, "contentDeletedRoutingKey", DELETED);
+    }
+
+    @Test
+    void keepsTheHighestSequenceOfEachContent() throws Exception {
+        listener.handleContentEvents(List.of(
+                message(UPDATED, "c1", 2L, "v2"),
+                message(UPDATED, "c1", 1L, "v1"),
+                message(UPDATED, "c2", 1L, "c2")));
+
+        Batch batch = capture();
+        assertEquals(List.of("c1:v2", "c2:c2"), batch.upserts());
+        assertEquals(List.of(), batch.deletes());
+    }
+
+    @Test
+    void aNewerDeleteReplacesAnEarlierUpdate() throws Exception {
+        listener.handleContentEvents(List.of(
+                message(UPDATED, "c1", 3L, "v3"),
+                message(DELETED, "c1", 4L, "v3")));
+
+        Batch batch = capture();
+        assertEquals(List.of(), batch.upserts());
+        assertEquals(List.of("c1:4"), batch.deletes());
+    }
+
+    @Test
+    void aLateUpdateDoesNotResurrectADeletedContent() throws Exception {
+        listener.handleContentEvents(List.of(
+                message(DELETED, "c1", 4L, "v3"),
+                message(UPDATED, "c1", 3L, "v3")));
+
+        Batch batch = capture();
+        assertEquals(List.of(), batch.upserts());
+        assertEquals(List.of("c1:4"), batch.deletes());
+    }
+
+    @Test
+    void fallsBackToArrivalOrderWithoutSequence() throws Exception {
+        listener.handleContentEvents(List.of(
+                message(UPDATED, "c1", null, "first"),
+                message(UPDATED, "c2", null, "c2"),
+                message(UPDATED, "c1", null, "second")));
+
+        // Le dernier événement arrivé est retenu et passe après les autres contenus
+        assertEquals(List.of("c2:c2", "c1:second"), capture().upserts());
+    }
+
+    @Test
+    void skipsEventsWithoutIdentifier() throws Exception {
+        listener.handleContentEvents(List.of(
+                message(UPDATED, null, 1L, "orphan"),
+                message(UPDATED, "c1", 1L, "v1")));
+
+        assertEquals(List.of("c1:v1"), capture().upserts());
+    }
+
+    private record Batch(List<String> upserts, List<String> deletes) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private Batch capture() throws Exception {
+        ArgumentCaptor<Collection<ContentDTO>> upserts = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<ContentDTO>> deletes = ArgumentCaptor.forClass(Collection.class);
+        verify(syncService).syncBatch(upserts.capture(), deletes.capture());
+        return new Batch(
+                upserts.getValue().stream().map(dto -> dto.getId() + ":" + dto.getTitle()).toList(),
+                deletes.getValue().stream().map(dto -> dto.getId() + ":" + dto.getSequence()).toList());
+    }
+
+    private static Message<ContentDTO> message(String routingKey, String id, Long sequence, String title) {
+        ContentDTO dto = new ContentDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        dto.setSequence(sequence);
+        return MessageBuilder.withPayload(dto)
+                .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY, routingKey)
+                .build();
+    }
+}
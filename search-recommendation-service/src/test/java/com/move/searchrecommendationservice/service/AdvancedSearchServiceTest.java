@@ -0,0 +1,53 @@
+package com.move.searchrecommendationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdvancedSearchServiceTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void anEmptyGeohashCoversTheWholeWorld() {
+        assertBounds(AdvancedSearchService.geohashBounds(""), -90, 90, -180, 180);
+    }
+
+    @Test
+    void firstCharacterSplitsLongitudeThenLatitude() {
+        // "s" = 11000 : lon haute, lat haute, lon basse, lat basse, lon basse
+        assertBounds(AdvancedSearchService.geohashBounds("s"), 0, 45, 0, 45);
+        assertBounds(AdvancedSearchService.geohashBounds("0"), -90, -45, -180, -135);
+        assertBounds(AdvancedSearchService.geohashBounds("z"), 45, 90, 135, 180);
+    }
+
+    @Test
+    void decodesAKnownCell() {
+        // Exemple de référence : "ezs42" ≈ (42.605, -5.603)
+        assertBounds(AdvancedSearchService.geohashBounds("ezs42"), 42.5830078125, 42.626953125, -5.625, -5.5810546875);
+    }
+
+    @Test
+    void cellsShrinkWithEachCharacterAndContainTheirPrefix() {
+        String geohash = "u09tvw0";
+        double[] parent = AdvancedSearchService.geohashBounds("");
+        for (int length = 1; length <= geohash.length(); length++) {
+            double[] cell = AdvancedSearchService.geohashBounds(geohash.substring(0, length));
+            int bits = 5 * length;
+            assertEquals(360 / Math.pow(2, (bits + 1) / 2), cell[3] - cell[2], EPSILON);
+            assertEquals(180 / Math.pow(2, bits / 2), cell[1] - cell[0], EPSILON);
+            assertTrue(cell[0] >= parent[0] && cell[1] <= parent[1] && cell[2] >= parent[2] && cell[3] <= parent[3]);
+            parent = cell;
+        }
+    }
+
+    @Test
+    void rejectsCharactersOutsideTheGeohashAlphabet() {
+        assertThrows(IllegalArgumentException.class, () -> AdvancedSearchService.geohashBounds("ua"));
+        assertThrows(IllegalArgumentException.class, () -> AdvancedSearchService.geohashBounds("U0"));
+    }
+
+    private static void assertBounds(double[] bounds, double minLat, double maxLat, double minLon, double maxLon) {
+        assertArrayEquals(new double[]{minLat, maxLat, minLon, maxLon}, bounds, EPSILON);
+    }
+}
@@ -0,0 +1,111 @@
+package com.move.searchrecommendationservice.service;
+
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.ContentItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ContentVectorIndexTest {
+
+    // Capacité initiale minimale : les insertions passent par l'agrandissement des tableaux
+    private final ContentVectorIndex index = new ContentVectorIndex(mock(ElasticsearchOperations.class), 512, 1);
+
+    @Test
+    void returnsTheClosestContentsInDecreasingOrderWithoutTheQueriedOne() {
+        ContentIndex query = published("q", "randonnee glacier refuge crampons");
+        // Insérés dans le désordre pour exercer le décalage de l'insertion triée
+        index.upsert(published("one", "randonnee cuisine"));
+        index.upsert(published("three", "randonnee glacier refuge"));
+        index.upsert(query);
+        index.upsert(published("none", "opera baroque"));
+        index.upsert(published("two", "randonnee glacier"));
+        index.upsert(published("all", "randonnee glacier refuge crampons"));
+
+        assertEquals(List.of("all", "three", "two", "one"), ids(index.similarTo(query, 10)));
+        assertEquals(List.of("all", "three"), ids(index.similarTo(query, 2)));
+        assertEquals(List.of(), index.similarTo(query, 0));
+    }
+
+    @Test
+    void removedAndUnpublishedContentsAreSkipped() {
+        ContentIndex query = published("q", "plongee recif corail");
+        index.upsert(query);
+        index.upsert(published("a", "plongee recif corail"));
+        index.upsert(published("b", "plongee recif"));
+        index.upsert(published("c", "plongee"));
+
+        index.remove("a");
+        ContentIndex unpublished = published("b", "plongee recif");
+        unpublished.setIsPublished(false);
+        index.upsert(unpublished);
+        // Le slot libéré est réutilisé par un nouveau contenu
+        index.upsert(published("d", "plongee corail"));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("d", "c"), ids(index.similarTo(query, 10)));
+    }
+
+    @Test
+    void topKMatchesAFullSortOfTheScores() {
+        Random random = new Random(7);
+        String[] vocabulary = {"velo", "montagne", "lac", "foret", "plage", "ville", "musee", "concert"};
+        List<ContentIndex> contents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // Un mot commun : tous les scores sont positifs
+            StringBuilder title = new StringBuilder("sortie");
+            for (int w = 0; w < 3; w++) {
+                title.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            ContentIndex content = published("c" + i, title.toString());
+            contents.add(content);
+            index.upsert(content);
+        }
+
+        for (ContentIndex query : contents.subList(0, 20)) {
+            List<ContentItem> others = contents.stream()
+                    .filter(content -> !content.getId().equals(query.getId()))
+                    .map(content -> new ContentItem(content.getId(), content.getTitle(), null, null, null, null, null, null))
+                    .toList();
+            // rank : tri stable de tous les candidats, départage identique (ordre d'insertion)
+            List<String> expected = ids(index.rank(query.getTitle(), others, 5));
+
+            assertEquals(expected, ids(index.similarTo(query, 5)), query.getTitle());
+        }
+    }
+
+    @Test
+    void dotHandlesEveryTailLengthAndOffset() {
+        Random random = new Random(3);
+        for (int length = 0; length <= 9; length++) {
+            float[] query = new float[length];
+            float[] data = new float[length + 5];
+            for (int i = 0; i < length; i++) {
+                query[i] = random.nextFloat() - 0.5f;
+            }
+            for (int i = 0; i < data.length; i++) {
+                data[i] = random.nextFloat() - 0.5f;
+            }
+
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += query[i] * data[3 + i];
+            }
+            assertEquals(expected, ContentVectorIndex.dot(query, data, 3, length), 1e-5, "longueur " + length);
+        }
+    }
+
+    private static ContentIndex published(String id, String title) {
+        return ContentIndex.builder().id(id).title(title).isPublished(true).build();
+    }
+
+    private static List<String> ids(List<ContentItem> items) {
+        return items.stream().map(ContentItem::getId).toList();
+    }
+}
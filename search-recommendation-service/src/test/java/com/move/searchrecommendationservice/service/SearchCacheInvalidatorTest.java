@@ -0,0 +1,76 @@
+package com.move.searchrecommendationservice.service;
+
+import com.move.searchrecommendationservice.config.SearchCacheConfig;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SearchCacheInvalidatorTest {
+
+    private static final SearchCacheKey KEY = SearchCacheKey.of("searchByKeyword", "plage", "page=0");
+
+    private Cache cache;
+    private SearchCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(SearchCacheConfig.KEYWORD_SEARCH);
+        cache = cacheManager.getCache(SearchCacheConfig.KEYWORD_SEARCH);
+        invalidator = new SearchCacheInvalidator(cacheManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(invalidator, "refreshInterval", Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invalidator.shutdown();
+    }
+
+    @Test
+    void aResultCachedAgainBeforeTheRefreshIsInvalidatedOnceMore() throws Exception {
+        ContentIndex content = content("c1", "Plage de Tipaza");
+        cache.put(KEY, result(content));
+
+        invalidator.onContentChanged(List.of(content), List.of());
+        assertNull(cache.get(KEY));
+
+        // Recherche servie par l'index pas encore rafraîchi : l'ancien résultat revient en cache
+        cache.put(KEY, result(content));
+        assertNotNull(cache.get(KEY));
+        Thread.sleep(1500);
+
+        assertNull(cache.get(KEY));
+    }
+
+    @Test
+    void unrelatedEntriesAreKept() {
+        SearchCacheKey other = SearchCacheKey.of("searchByKeyword", "montagne", "page=0");
+        cache.put(other, result(content("c2", "Montagne")));
+
+        invalidator.onContentChanged(List.of(content("c1", "Plage de Tipaza")), List.of());
+
+        assertNotNull(cache.get(other));
+    }
+
+    private static SearchResult<ContentIndex> result(ContentIndex content) {
+        return new SearchResult<>(List.of(content), 0, 10, 1);
+    }
+
+    private static ContentIndex content(String id, String title) {
+        ContentIndex content = new ContentIndex();
+        content.setId(id);
+        content.setTitle(title);
+        return content;
+    }
+}
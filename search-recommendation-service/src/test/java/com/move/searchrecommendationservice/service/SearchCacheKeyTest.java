@@ -0,0 +1,57 @@
+package com.move.searchrecommendationservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCacheKeyTest {
+
+    @Test
+    void freeTextDifferingOnlyByCaseOrSpacesSharesTheKey() {
+        SearchCacheKey first = SearchCacheKey.of("searchByKeyword", "  Road   TRIP\tAlpes ", PageRequest.of(0, 20));
+        SearchCacheKey second = SearchCacheKey.of("searchByKeyword", "road trip alpes", PageRequest.of(0, 20));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals("road trip alpes", first.param(0));
+    }
+
+    @Test
+    void onlyTheFreeTextParameterIsNormalized() {
+        // searchByLocation : le texte libre est en 4e position, le type de contenu reste sensible à la casse
+        SearchCacheKey key = SearchCacheKey.of("searchByLocation", 48.85, 2.35, "10km", " Musée ", "Event");
+
+        assertEquals("musée", key.param(3));
+        assertEquals("Event", key.param(4));
+        assertEquals(3, key.textIndex());
+        assertNotEquals(key, SearchCacheKey.of("searchByLocation", 48.85, 2.35, "10km", "musée", "event"));
+    }
+
+    @Test
+    void aBlankFreeTextIsNull() {
+        assertNull(SearchCacheKey.of("getSuggestions", "   ", 10).param(0));
+        assertEquals(SearchCacheKey.of("getSuggestions", " ", 10), SearchCacheKey.of("getSuggestions", null, 10));
+    }
+
+    @Test
+    void paginationAndSortArePartOfTheKey() {
+        PageRequest byTitle = PageRequest.of(1, 10, Sort.by("title"));
+        SearchCacheKey key = SearchCacheKey.of("advancedSearch", "velo", byTitle);
+
+        assertEquals("page=1;size=10;sort=title:ASC", key.param(1));
+        assertEquals(key, SearchCacheKey.of("advancedSearch", "Vélo".replace("é", "e"), PageRequest.of(1, 10, Sort.by("title"))));
+        assertNotEquals(key, SearchCacheKey.of("advancedSearch", "velo", PageRequest.of(2, 10, Sort.by("title"))));
+        assertNotEquals(key, SearchCacheKey.of("advancedSearch", "velo", PageRequest.of(1, 20, Sort.by("title"))));
+        assertNotEquals(key, SearchCacheKey.of("advancedSearch", "velo", PageRequest.of(1, 10, Sort.by("title").descending())));
+    }
+
+    @Test
+    void theMethodIsPartOfTheKey() {
+        assertNotEquals(SearchCacheKey.of("searchByKeyword", "velo"), SearchCacheKey.of("getSuggestions", "velo"));
+        assertEquals(-1, SearchCacheKey.of("findByType", "Event").textIndex());
+        assertEquals("Event", SearchCacheKey.of("findByType", "Event").param(0));
+        assertNull(SearchCacheKey.of("findByType", "Event").param(3));
+    }
+}
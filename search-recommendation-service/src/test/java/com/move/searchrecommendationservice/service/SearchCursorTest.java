@@ -0,0 +1,60 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCursorTest {
+
+    @Test
+    void survivesARoundTripWithLongShardDocValues() {
+        // _shard_doc dépasse Integer.MAX_VALUE dès que le numéro de shard est encodé dans les bits de poids fort
+        long shardDoc = (3L << 32) | 12345L;
+        SearchCursor cursor = new SearchCursor("pit-id==", List.of(
+                FieldValue.of(1.5d), FieldValue.of("Titre"), FieldValue.NULL, FieldValue.of(true),
+                FieldValue.of(7L), FieldValue.of(shardDoc)), 4, 1234L);
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode());
+
+        assertEquals("pit-id==", decoded.pitId());
+        assertEquals(4, decoded.pageNumber());
+        assertEquals(1234L, decoded.totalElements());
+
+        List<FieldValue> after = decoded.searchAfter();
+        assertEquals(6, after.size());
+        assertTrue(after.get(0).isDouble());
+        assertEquals(1.5d, after.get(0).doubleValue());
+        assertEquals("Titre", after.get(1).stringValue());
+        assertTrue(after.get(2).isNull());
+        assertTrue(after.get(3).booleanValue());
+        // Un petit entier relu par Jackson comme Integer reste un long côté Elasticsearch
+        assertTrue(after.get(4).isLong());
+        assertEquals(7L, after.get(4).longValue());
+        assertTrue(after.get(5).isLong());
+        assertEquals(shardDoc, after.get(5).longValue());
+    }
+
+    @Test
+    void theTokenIsUrlSafe() {
+        SearchCursor cursor = new SearchCursor("a+b/c==?&", List.of(FieldValue.of("é/+?")), 1, 0L);
+
+        assertTrue(cursor.encode().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void aTamperedTokenIsRejected() {
+        String notJson = Base64.getUrlEncoder().encodeToString("pas du json".getBytes(StandardCharsets.UTF_8));
+        String missingFields = Base64.getUrlEncoder().encodeToString("{\"pit\":\"p\"}".getBytes(StandardCharsets.UTF_8));
+        String wrongTypes = Base64.getUrlEncoder()
+                .encodeToString("{\"pit\":\"p\",\"after\":\"x\",\"page\":1,\"total\":2}".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : new String[]{"%%%", notJson, missingFields, wrongTypes}) {
+            assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(token), token);
+        }
+    }
+}
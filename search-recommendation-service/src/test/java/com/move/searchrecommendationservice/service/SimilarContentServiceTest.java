@@ -0,0 +1,123 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.ExistsRequest;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import com.move.searchrecommendationservice.model.SearchResult;
+import com.move.searchrecommendationservice.model.SimilarContent;
+import com.move.searchrecommendationservice.repository.SimilarContentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SimilarContentServiceTest {
+
+    private ElasticsearchClient elasticsearchClient;
+    private SimilarContentRepository repository;
+    private SimilarContentService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        repository = mock(SimilarContentRepository.class);
+        service = new SimilarContentService(elasticsearchClient, repository, mock(MongoTemplate.class),
+                100, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "contentIndexName", "move_contents");
+        ReflectionTestUtils.setField(service, "neighbourCount", 20);
+        ReflectionTestUtils.setField(service, "recomputeDelayMs", 0L);
+        ReflectionTestUtils.setField(service, "maxAge", Duration.ofHours(6));
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        when(elasticsearchClient.search(ArgumentMatchers.<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>>any(),
+                eq(ContentIndex.class))).thenReturn(noHits());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void anUnknownIdIsNeitherComputedNorStored() throws Exception {
+        givenIndexed(false);
+
+        SearchResult<ContentIndex> result = service.findSimilar("missing", PageRequest.of(0, 10));
+
+        assertEquals(0, result.getTotalElements());
+        verify(elasticsearchClient, never()).search(
+                ArgumentMatchers.<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>>any(), eq(ContentIndex.class));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void anEmptyNeighbourListIsNotStored() throws Exception {
+        givenIndexed(true);
+
+        SearchResult<ContentIndex> result = service.findSimilar("c1", PageRequest.of(0, 10));
+
+        assertEquals(0, result.getTotalElements());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void aListOlderThanMaxAgeIsServedThenRecomputed() throws Exception {
+        ContentIndex neighbour = ContentIndex.builder().id("c2").title("Voisin").build();
+        SimilarContent stored = SimilarContent.builder()
+                .id("c1")
+                .neighbours(List.of(new SimilarContent.Neighbour("c2", 1.0, neighbour)))
+                .computedAt(new Date(System.currentTimeMillis() - Duration.ofHours(7).toMillis()))
+                .build();
+        when(repository.findById("c1")).thenReturn(Optional.of(stored));
+
+        SearchResult<ContentIndex> result = service.findSimilar("c1", PageRequest.of(0, 10));
+
+        assertEquals(List.of(neighbour), result.getContent());
+        verify(elasticsearchClient, timeout(2000)).search(
+                ArgumentMatchers.<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>>any(), eq(ContentIndex.class));
+    }
+
+    @Test
+    void aRecentListIsNotRecomputed() throws Exception {
+        SimilarContent stored = SimilarContent.builder()
+                .id("c1")
+                .neighbours(List.of())
+                .computedAt(new Date())
+                .build();
+        when(repository.findById("c1")).thenReturn(Optional.of(stored));
+
+        service.findSimilar("c1", PageRequest.of(0, 10));
+
+        verify(elasticsearchClient, after(300).never()).search(
+                ArgumentMatchers.<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>>any(), eq(ContentIndex.class));
+    }
+
+    private void givenIndexed(boolean indexed) throws Exception {
+        when(elasticsearchClient.exists(ArgumentMatchers.<Function<ExistsRequest.Builder, ObjectBuilder<ExistsRequest>>>any()))
+                .thenReturn(new BooleanResponse(indexed));
+    }
+
+    private static SearchResponse<ContentIndex> noHits() {
+        return SearchResponse.of(r -> r
+                .took(1)
+                .timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.hits(List.of())));
+    }
+}
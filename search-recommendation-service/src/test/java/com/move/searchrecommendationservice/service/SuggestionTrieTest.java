@@ -0,0 +1,105 @@
+package com.move.searchrecommendationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    @Test
+    void eachPrefixReturnsItsBestSuggestionsByDecreasingWeight() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(3, 20);
+        add(builder, "paris", "Paris", 5);
+        add(builder, "parc", "Parc des Princes", 9);
+        add(builder, "pau", "Pau", 2);
+        add(builder, "lyon", "Lyon", 7);
+        add(builder, "par", "Par-ci par-là", 1);
+        SuggestionTrie trie = builder.build();
+
+        assertEquals(List.of("Parc des Princes", "Paris", "Pau"), trie.lookup("pa", 10));
+        assertEquals(List.of("Parc des Princes", "Paris", "Par-ci par-là"), trie.lookup("par", 10));
+        assertEquals(List.of("Paris"), trie.lookup("pari", 10));
+        assertEquals(List.of("Lyon"), trie.lookup("l", 10));
+        assertEquals(List.of("Parc des Princes", "Paris", "Pau"), trie.lookup("p", 10));
+    }
+
+    @Test
+    void aSuggestionReachedByManyKeysIsListedOnce() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(3, 20);
+        // Titre complet et mots du titre : la même suggestion sous plusieurs clés, avec une casse différente
+        add(builder, "tour eiffel", "Tour Eiffel", 10);
+        add(builder, "tour", "Tour Eiffel", 10);
+        add(builder, "tour", "tour eiffel", 4);
+        add(builder, "tournoi", "Tournoi de pétanque", 6);
+        add(builder, "toulouse", "Toulouse", 3);
+        add(builder, "totem", "Totem", 1);
+        SuggestionTrie trie = builder.build();
+
+        assertEquals(List.of("Tour Eiffel", "Tournoi de pétanque", "Toulouse"), trie.lookup("to", 10));
+        assertEquals(List.of("Tour Eiffel", "Tournoi de pétanque"), trie.lookup("tour", 10));
+    }
+
+    @Test
+    void lookupRespectsTheLimitAndTheKeyLength() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(5, 4);
+        add(builder, "montagne", "Montagne", 3);
+        add(builder, "montpellier", "Montpellier", 8);
+        SuggestionTrie trie = builder.build();
+
+        assertEquals(List.of("Montpellier"), trie.lookup("mo", 1));
+        // Clés tronquées à 4 caractères : "mont" regroupe les deux, une clé plus longue ne correspond à rien
+        assertEquals(List.of("Montpellier", "Montagne"), trie.lookup("mont", 10));
+        assertEquals(List.of(), trie.lookup("montp", 10));
+        assertEquals(List.of(), trie.lookup("x", 10));
+        assertEquals(List.of(), trie.lookup("", 10));
+        assertEquals(List.of(), SuggestionTrie.EMPTY.lookup("a", 10));
+    }
+
+    @Test
+    void perNodeTopKMatchesABruteForceRanking() {
+        Random random = new Random(42);
+        int topSize = 4;
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(topSize, 6);
+        Map<String, Map<String, Double>> byKey = new HashMap<>();
+        String alphabet = "abc";
+        for (int i = 0; i < 300; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(5); key.length() < length; ) {
+                key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = "S" + random.nextInt(60);
+            double weight = random.nextInt(1000);
+            add(builder, key.toString(), random.nextBoolean() ? text : text.toLowerCase(Locale.ROOT), weight);
+            byKey.computeIfAbsent(key.toString(), k -> new HashMap<>()).merge(text + "#" + weight, weight, Math::max);
+        }
+        SuggestionTrie trie = builder.build();
+
+        for (String prefix : List.of("a", "b", "c", "ab", "ba", "cc", "abc", "cab", "aaaa", "bcabc")) {
+            // Meilleur poids par texte (insensible à la casse) parmi les clés qui commencent par le préfixe
+            Map<String, Double> best = new HashMap<>();
+            byKey.forEach((key, texts) -> {
+                if (key.startsWith(prefix)) {
+                    texts.forEach((entry, weight) ->
+                            best.merge(entry.substring(0, entry.indexOf('#')).toLowerCase(Locale.ROOT), weight, Math::max));
+                }
+            });
+            List<Double> expectedWeights = best.values().stream()
+                    .sorted(Comparator.reverseOrder())
+                    .limit(topSize)
+                    .toList();
+
+            List<String> actual = trie.lookup(prefix, topSize);
+            Set<String> distinct = actual.stream().map(s -> s.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+            assertEquals(actual.size(), distinct.size(), "doublon pour " + prefix);
+            assertEquals(expectedWeights, actual.stream().map(s -> best.get(s.toLowerCase(Locale.ROOT))).toList(),
+                    "top-K pour " + prefix);
+        }
+    }
+
+    private static void add(SuggestionTrie.Builder builder, String key, String text, double weight) {
+        builder.add(key, new SuggestionTrie.Candidate(text, weight));
+    }
+}
@@ -0,0 +1,114 @@
+package com.move.searchrecommendationservice.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.IndexRequest;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.util.ObjectBuilder;
+import com.move.searchrecommendationservice.model.ContentDTO;
+import com.move.searchrecommendationservice.model.ContentIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SynchronizationServiceTest {
+
+    private ElasticsearchClient elasticsearchClient;
+    private ContentVectorIndex contentVectorIndex;
+    private SearchCacheInvalidator searchCacheInvalidator;
+    private SynchronizationService service;
+
+    @BeforeEach
+    void setUp() {
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        contentVectorIndex = mock(ContentVectorIndex.class);
+        searchCacheInvalidator = mock(SearchCacheInvalidator.class);
+        service = new SynchronizationService(elasticsearchClient, mock(SyncBatchRunner.class),
+                contentVectorIndex, mock(SimilarContentService.class),
+                mock(SuggestionService.class), searchCacheInvalidator);
+        ReflectionTestUtils.setField(service, "contentIndexName", "move_contents");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexesWithTheSequenceAsExternalVersion() throws Exception {
+        service.sync(content("c1", 7L));
+
+        ArgumentCaptor<IndexRequest<ContentIndex>> request = ArgumentCaptor.forClass(IndexRequest.class);
+        verify(elasticsearchClient).index(request.capture());
+        assertEquals(7L, request.getValue().version());
+        assertEquals(VersionType.External, request.getValue().versionType());
+        verify(contentVectorIndex).upsert(any(ContentIndex.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void staleEventIsIgnored() throws Exception {
+        when(elasticsearchClient.index(any(IndexRequest.class))).thenThrow(versionConflict());
+
+        service.sync(content("c1", 3L));
+
+        verifyNoInteractions(contentVectorIndex, searchCacheInvalidator);
+    }
+
+    @Test
+    void staleItemsOfABatchAreNeitherReplayedNorApplied() throws Exception {
+        BulkResponse response = BulkResponse.of(b -> b.errors(true).took(1).items(
+                item(OperationType.Index, "c1", 409),
+                item(OperationType.Delete, "c2", 200)));
+        when(elasticsearchClient.bulk(ArgumentMatchers.<Function<BulkRequest.Builder, ObjectBuilder<BulkRequest>>>any()))
+                .thenAnswer(invocation -> {
+                    Function<BulkRequest.Builder, ObjectBuilder<BulkRequest>> fn = invocation.getArgument(0);
+                    List<BulkOperation> operations = fn.apply(new BulkRequest.Builder()).build().operations();
+                    assertEquals(4L, operations.get(0).index().version());
+                    assertEquals(9L, operations.get(1).delete().version());
+                    assertEquals(VersionType.External, operations.get(1).delete().versionType());
+                    return response;
+                });
+
+        // Aucune exception : le conflit de version n'est pas rejouable
+        service.syncBatch(List.of(content("c1", 4L)), List.of(content("c2", 9L)));
+
+        verify(contentVectorIndex, never()).upsert(any());
+        verify(contentVectorIndex).remove("c2");
+        verify(searchCacheInvalidator).onContentChanged(List.of(), List.of("c2"));
+    }
+
+    private static ContentDTO content(String id, Long sequence) {
+        ContentDTO dto = new ContentDTO();
+        dto.setId(id);
+        dto.setTitle("Titre " + id);
+        dto.setSequence(sequence);
+        return dto;
+    }
+
+    private static BulkResponseItem item(OperationType type, String id, int status) {
+        return BulkResponseItem.of(i -> {
+            i.operationType(type).index("move_contents").id(id).status(status);
+            if (status == 409) {
+                i.error(e -> e.type("version_conflict_engine_exception").reason("version conflict"));
+            }
+            return i;
+        });
+    }
+
+    private static ElasticsearchException versionConflict() {
+        return new ElasticsearchException("index", ErrorResponse.of(r -> r.status(409)
+                .error(e -> e.type("version_conflict_engine_exception").reason("version conflict"))));
+    }
+}
@@ -0,0 +1,76 @@
+package com.move.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la vérification d'un JWT par requête :
+ * - rebuildPerRequest : ancien comportement des filtres (décodage du secret, clé et parser reconstruits,
+ *   token parsé deux fois : validateToken puis extraction des claims) ;
+ * - sharedParserMiss : coût d'un défaut de cache de JwtTokenVerifier (un seul parse avec le parser partagé) ;
+ * - cachedParserHit : JwtTokenVerifier sur un token déjà vérifié (hash SHA-256 + lecture du cache).
+ * <p>
+ * mvn -Pjmh test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private String secret;
+    private String token;
+    private JwtTokenVerifier verifier;
+    private JwtParser sharedParser;
+
+    @Setup
+    public void setUp() {
+        byte[] key = "0123456789abcdef0123456789abcdef".getBytes();
+        secret = Base64.getEncoder().encodeToString(key);
+        token = Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", "u-1")
+                .claim("roles", "ROLE_USER")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(key))
+                .compact();
+        verifier = new JwtTokenVerifier(secret, 10_000);
+        verifier.verify(token);
+        sharedParser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(key)).build();
+    }
+
+    @Benchmark
+    public Claims rebuildPerRequest() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(keyBytes)).build().parseClaimsJws(token);
+        keyBytes = Decoders.BASE64.decode(secret);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(keyBytes)).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParserMiss() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims cachedParserHit() {
+        return verifier.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.move.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Produit l'en-tête d'identité signé transmis aux services en aval (trusted hop).
+ * <p>
+ * Format : {@code v1.<base64url(payload)>.<base64url(HMAC-SHA256(payload))>} avec
+ * payload = userId \n username \n rôles séparés par des virgules \n expiration (epoch ms).
+ * Les services vérifient ce MAC au lieu de re-valider le JWT complet.
+ */
+public class IdentityHeaderSigner {
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    // Attribut de requête contenant l'en-tête déjà signé par le filtre JWT
+    public static final String REQUEST_ATTRIBUTE = IdentityHeaderSigner.class.getName() + ".header";
+
+    private static final String VERSION = "v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderSigner(boolean enabled, String secret, long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlSeconds * 1000;
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Signe l'identité de l'utilisateur ; l'expiration ne dépasse jamais celle du JWT.
+     * Retourne null si la propagation est désactivée ou si l'identité est incomplète (userId ou username absent) :
+     * l'en-tête est alors omis et le service en aval valide le JWT lui-même.
+     */
+    public String sign(String userId, String username, List<String> roles, long tokenExpiresAt) {
+        if (!enabled || isBlank(userId) || isBlank(username)) {
+            return null;
+        }
+
+        long expiresAt = Math.min(tokenExpiresAt, System.currentTimeMillis() + ttlMillis);
+        String payload = userId + "\n" + username + "\n" + String.join(",", roles != null ? roles : List.of()) + "\n" + expiresAt;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        byte[] signature = mac.get().doFinal(payloadBytes);
+
+        return VERSION + "." + ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(signature);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
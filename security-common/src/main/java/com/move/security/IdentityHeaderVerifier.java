@@ -0,0 +1,89 @@
+package com.move.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Vérifie l'en-tête d'identité signé par la gateway (trusted hop), ce qui évite de re-valider
+ * le JWT complet pour les requêtes qui passent par la gateway.
+ * <p>
+ * Format : {@code v1.<base64url(payload)>.<base64url(HMAC-SHA256(payload))>} avec
+ * payload = userId \n username \n rôles séparés par des virgules \n expiration (epoch ms).
+ */
+public class IdentityHeaderVerifier {
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    private static final String VERSION_PREFIX = "v1.";
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record Identity(String userId, String username, List<String> roles) {
+    }
+
+    private final boolean enabled;
+    private final ThreadLocal<Mac> mac;
+
+    public IdentityHeaderVerifier(boolean enabled, String secret) {
+        this.enabled = enabled;
+        SecretKeySpec key = new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Retourne l'identité portée par l'en-tête, ou null s'il est absent, mal formé,
+     * mal signé, expiré ou sans userId / username (l'appelant se rabat alors sur la validation du JWT)
+     */
+    public Identity verify(String header) {
+        if (!enabled || header == null || !header.startsWith(VERSION_PREFIX)) {
+            return null;
+        }
+
+        int dot = header.indexOf('.', VERSION_PREFIX.length());
+        if (dot < 0) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(header.substring(VERSION_PREFIX.length(), dot));
+            signature = DECODER.decode(header.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        // Comparaison en temps constant
+        if (!MessageDigest.isEqual(mac.get().doFinal(payload), signature)) {
+            return null;
+        }
+
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 4 || fields[0].isEmpty() || fields[1].isEmpty()) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(fields[3]) < System.currentTimeMillis()) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        List<String> roles = fields[2].isEmpty() ? List.of() : Arrays.asList(fields[2].split(","));
+        return new Identity(fields[0], fields[1], roles);
+    }
+}
@@ -0,0 +1,70 @@
+package com.move.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHeaderTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("identity-secret-identity-secret!".getBytes());
+
+    private final IdentityHeaderSigner signer = new IdentityHeaderSigner(true, SECRET, 60);
+    private final IdentityHeaderVerifier verifier = new IdentityHeaderVerifier(true, SECRET);
+
+    @Test
+    void signedIdentityIsVerified() {
+        String header = signer.sign("u-1", "alice", List.of("ROLE_USER", "ROLE_ADMIN"), Long.MAX_VALUE);
+
+        IdentityHeaderVerifier.Identity identity = verifier.verify(header);
+
+        assertNotNull(identity);
+        assertEquals("u-1", identity.userId());
+        assertEquals("alice", identity.username());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), identity.roles());
+    }
+
+    @Test
+    void headerIsOmittedWithoutUsername() {
+        assertNull(signer.sign("u-1", null, List.of("ROLE_USER"), Long.MAX_VALUE));
+        assertNull(signer.sign("u-1", " ", List.of("ROLE_USER"), Long.MAX_VALUE));
+        assertNull(signer.sign(null, "alice", List.of("ROLE_USER"), Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsTamperedHeader() {
+        String header = signer.sign("u-1", "alice", List.of("ROLE_USER"), Long.MAX_VALUE);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("u-2\nbob\nROLE_ADMIN\n" + Long.MAX_VALUE).getBytes());
+        String forged = "v1." + forgedPayload + header.substring(header.lastIndexOf('.'));
+
+        assertNull(verifier.verify(forged));
+        assertNull(verifier.verify("v1.garbage"));
+        assertNull(verifier.verify(null));
+    }
+
+    @Test
+    void rejectsHeaderSignedWithAnotherSecret() {
+        String otherSecret = Base64.getEncoder().encodeToString("another-secret-another-secret-xx".getBytes());
+        String header = new IdentityHeaderSigner(true, otherSecret, 60).sign("u-1", "alice", List.of(), Long.MAX_VALUE);
+
+        assertNull(verifier.verify(header));
+    }
+
+    @Test
+    void rejectsExpiredHeader() {
+        String header = signer.sign("u-1", "alice", List.of(), System.currentTimeMillis() - 1);
+
+        assertNull(verifier.verify(header));
+    }
+
+    @Test
+    void disabledPropagationSignsAndAcceptsNothing() {
+        assertNull(new IdentityHeaderSigner(false, SECRET, 60).sign("u-1", "alice", List.of(), Long.MAX_VALUE));
+
+        String header = signer.sign("u-1", "alice", List.of(), Long.MAX_VALUE);
+        assertNull(new IdentityHeaderVerifier(false, SECRET).verify(header));
+    }
+}
@@ -0,0 +1,73 @@
+package com.move.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenVerifierTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final String SECRET = Base64.getEncoder().encodeToString(KEY);
+
+    private final JwtTokenVerifier verifier = new JwtTokenVerifier(SECRET, 100);
+
+    @Test
+    void verifiesSignedTokenAndCachesClaims() {
+        String token = token(KEY, new Date(System.currentTimeMillis() + 60_000));
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertEquals("alice", first.getSubject());
+        assertSame(first, second);
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        String token = token("another-secret-another-secret-xx".getBytes(), new Date(System.currentTimeMillis() + 60_000));
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = token(KEY, new Date(System.currentTimeMillis() - 1_000));
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void rejectsEmptyToken() {
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(""));
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(null));
+    }
+
+    @Test
+    void padsShortSecrets() {
+        byte[] shortKey = "short".getBytes();
+        byte[] padded = new byte[32];
+        System.arraycopy(shortKey, 0, padded, 0, shortKey.length);
+        JwtTokenVerifier shortSecretVerifier = new JwtTokenVerifier(Base64.getEncoder().encodeToString(shortKey), 10);
+
+        String token = token(padded, new Date(System.currentTimeMillis() + 60_000));
+
+        assertEquals("alice", shortSecretVerifier.verify(token).getSubject());
+    }
+
+    static String token(byte[] key, Date expiration) {
+        return Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", "u-1")
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(key))
+                .compact();
+    }
+}